@@ -0,0 +1,94 @@
+package com.easy.benchmark;
+
+import com.easy.codec.MethodCodec;
+import com.easy.codec.PayloadCodecs;
+import com.easy.config.RpcProperties;
+import com.easy.transport.FrameCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+import org.openjdk.jmh.annotations.*;
+import rpc.Rpc;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求/响应编解码: Jackson序列化参数和返回值 + protobuf封装 + 帧编码
+ * 编码结果写入池化直接内存后立即释放，与实际写出socket的分配模式一致
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+	/**
+	 * 参数/返回值序列化后的近似字节数
+	 */
+	@Param({"128", "4096", "65536", "1048576"})
+	private int payloadSize;
+
+	private final FrameCodec frameCodec = new FrameCodec(new RpcProperties.Transport().getMaxFrameSize());
+	private MethodCodec codec;
+	private Payload payload;
+	/**
+	 * 解码器输出的帧(不含长度前缀)
+	 */
+	private Buffer requestFrame;
+	private Buffer responseFrame;
+
+	@Setup
+	public void setup() throws IOException {
+		ObjectMapper objectMapper = PayloadCodecs.createObjectMapper(new RpcProperties.Codec());
+		codec = new MethodCodec(Loopback.ECHO_PAYLOAD, objectMapper);
+		payload = Payload.ofSize(payloadSize);
+		requestFrame = Buffer.buffer(request().toByteArray());
+		responseFrame = Buffer.buffer(response().toByteArray());
+	}
+
+	@Benchmark
+	public int encodeRequest() throws IOException {
+		return writeAndRelease(frameCodec.encode(request()));
+	}
+
+	@Benchmark
+	public Object decodeRequest() throws IOException {
+		Rpc.RpcRequest request = Rpc.RpcRequest.parseFrom(FrameCodec.input(requestFrame));
+		return codec.decodeParam(0, request.getParams(0));
+	}
+
+	@Benchmark
+	public int encodeResponse() throws IOException {
+		return writeAndRelease(frameCodec.encode(response()));
+	}
+
+	@Benchmark
+	public Object decodeResponse() throws IOException {
+		Rpc.RpcResponse response = Rpc.RpcResponse.parseFrom(FrameCodec.input(responseFrame));
+		return codec.decodeResult(response.getData());
+	}
+
+	private Rpc.RpcRequest request() throws IOException {
+		return Rpc.RpcRequest.newBuilder()
+				.setInterfaceName(Loopback.INTERFACE_NAME)
+				.setMethodName(Loopback.ECHO_PAYLOAD.getName())
+				.setRequestId(1)
+				.addParams(codec.encodeParam(0, payload))
+				.build();
+	}
+
+	private Rpc.RpcResponse response() throws IOException {
+		ByteString data = codec.encodeResult(payload);
+		return Rpc.RpcResponse.newBuilder().setRequestId(1).setCode(200).setData(data).build();
+	}
+
+	private static int writeAndRelease(ByteBuf frame) {
+		int bytes = frame.readableBytes();
+		frame.release();
+		return bytes;
+	}
+}
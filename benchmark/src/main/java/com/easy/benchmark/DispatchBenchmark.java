@@ -0,0 +1,63 @@
+package com.easy.benchmark;
+
+import com.easy.codec.PayloadCodecs;
+import com.easy.config.RpcProperties;
+import com.easy.server.DispatchTable;
+import com.easy.server.MethodInvoker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import org.openjdk.jmh.annotations.*;
+import rpc.Rpc;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端分发: 查找调用器、参数反序列化、调用服务方法、返回值序列化，不含网络和帧编解码
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+	@Param({"128", "4096"})
+	private int payloadSize;
+
+	private DispatchTable dispatchTable;
+	private Rpc.RpcRequest echoRequest;
+	private Rpc.RpcRequest payloadRequest;
+
+	@Setup
+	public void setup() throws Exception {
+		ObjectMapper objectMapper = PayloadCodecs.createObjectMapper(new RpcProperties.Codec());
+		dispatchTable = DispatchTable.build(Map.of(Loopback.INTERFACE_NAME, new EchoServiceImpl()), objectMapper);
+		echoRequest = Rpc.RpcRequest.newBuilder()
+				.setInterfaceName(Loopback.INTERFACE_NAME)
+				.setMethodName(Loopback.ECHO.getName())
+				.addParams(ByteString.copyFrom(objectMapper.writeValueAsBytes("x".repeat(payloadSize))))
+				.build();
+		payloadRequest = Rpc.RpcRequest.newBuilder()
+				.setInterfaceName(Loopback.INTERFACE_NAME)
+				.setMethodName(Loopback.ECHO_PAYLOAD.getName())
+				.addParams(ByteString.copyFrom(objectMapper.writeValueAsBytes(Payload.ofSize(payloadSize))))
+				.build();
+	}
+
+	@Benchmark
+	public Object dispatchEcho() throws Throwable {
+		return dispatch(echoRequest);
+	}
+
+	@Benchmark
+	public Object dispatchPayload() throws Throwable {
+		return dispatch(payloadRequest);
+	}
+
+	private Object dispatch(Rpc.RpcRequest request) throws Throwable {
+		MethodInvoker invoker = dispatchTable.lookup(request.getInterfaceName(), request.getMethodName(), request.getParamsCount());
+		return invoker.encodeResult(invoker.invoke(invoker.decodeParams(request)));
+	}
+}
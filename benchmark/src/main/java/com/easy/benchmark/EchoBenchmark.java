@@ -0,0 +1,56 @@
+package com.easy.benchmark;
+
+import com.easy.config.RpcProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本机回环端到端同步调用，分别以1/16/256个并发调用方测试吞吐和延迟分布
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class EchoBenchmark {
+
+	@Param({"EVENT_LOOP", "WORKER"})
+	private RpcProperties.ExecutionMode executionMode;
+
+	@Param({"128", "4096"})
+	private int payloadSize;
+
+	private Loopback loopback;
+	private String message;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		loopback = Loopback.start(executionMode);
+		message = "x".repeat(payloadSize);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		loopback.close();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public String echo_1() {
+		return loopback.echo(message);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public String echo_16() {
+		return loopback.echo(message);
+	}
+
+	@Benchmark
+	@Threads(256)
+	public String echo_256() {
+		return loopback.echo(message);
+	}
+}
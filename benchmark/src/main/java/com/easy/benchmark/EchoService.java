@@ -0,0 +1,8 @@
+package com.easy.benchmark;
+
+public interface EchoService {
+
+	String echo(String message);
+
+	Payload echoPayload(Payload payload);
+}
@@ -0,0 +1,14 @@
+package com.easy.benchmark;
+
+public class EchoServiceImpl implements EchoService {
+
+	@Override
+	public String echo(String message) {
+		return message;
+	}
+
+	@Override
+	public Payload echoPayload(Payload payload) {
+		return payload;
+	}
+}
@@ -0,0 +1,112 @@
+package com.easy.benchmark;
+
+import com.easy.codec.PayloadCodecs;
+import com.easy.config.RpcProperties;
+import com.easy.consumer.RpcClient;
+import com.easy.registry.MemoryRegistry;
+import com.easy.server.DispatchTable;
+import com.easy.server.RpcServer;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本机回环的服务端和客户端，服务端导出EchoService，通过内存注册中心发现
+ */
+final class Loopback implements AutoCloseable {
+
+	static final String INTERFACE_NAME = EchoService.class.getName();
+	static final Method ECHO;
+	static final Method ECHO_PAYLOAD;
+
+	static {
+		try {
+			ECHO = EchoService.class.getMethod("echo", String.class);
+			ECHO_PAYLOAD = EchoService.class.getMethod("echoPayload", Payload.class);
+		} catch (NoSuchMethodException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final RpcServer server;
+	@Getter
+	private final RpcClient client;
+
+	private Loopback(RpcServer server, RpcClient client) {
+		this.server = server;
+		this.client = client;
+	}
+
+	/**
+	 * 启动服务端和客户端，返回前确认服务端已可调用
+	 * @param executionMode 服务端执行模型
+	 */
+	static Loopback start(RpcProperties.ExecutionMode executionMode) throws Exception {
+		RpcProperties properties = new RpcProperties();
+		RpcProperties.Registry registry = new RpcProperties.Registry();
+		registry.setType("memory");
+		properties.setRegistry(registry);
+		RpcProperties.ServiceInstance instance = new RpcProperties.ServiceInstance();
+		instance.setHost("127.0.0.1");
+		instance.setPort(freePort());
+		instance.setVersion("1");
+		properties.setInstance(instance);
+		properties.getProvider().setExecutionMode(executionMode);
+
+		DispatchTable dispatchTable = DispatchTable.build(Map.of(INTERFACE_NAME, new EchoServiceImpl()),
+				PayloadCodecs.createObjectMapper(properties.getCodec()));
+		RpcServer server = new RpcServer(properties, dispatchTable);
+		server.start(instance.getHost(), instance.getPort());
+		new MemoryRegistry().register(instance, INTERFACE_NAME);
+
+		RpcClient client = new RpcClient(properties);
+		Loopback loopback = new Loopback(server, client);
+		loopback.awaitReady();
+		return loopback;
+	}
+
+	String echo(String message) {
+		return client.callSync(INTERFACE_NAME, ECHO, new Object[]{message}, String.class);
+	}
+
+	Payload echoPayload(Payload payload) {
+		return client.callSync(INTERFACE_NAME, ECHO_PAYLOAD, new Object[]{payload}, Payload.class);
+	}
+
+	/**
+	 * 服务端异步监听，等待首个调用成功
+	 */
+	private void awaitReady() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (true) {
+			try {
+				echo("ready");
+				return;
+			} catch (RuntimeException e) {
+				if (System.nanoTime() > deadline) {
+					throw e;
+				}
+				Thread.sleep(50);
+			}
+		}
+	}
+
+	private static int freePort() {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() {
+		client.close();
+		server.close();
+	}
+}
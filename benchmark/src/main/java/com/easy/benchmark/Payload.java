@@ -0,0 +1,49 @@
+package com.easy.benchmark;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试使用的业务对象，大小由items数量决定
+ */
+@Data
+public class Payload {
+
+	private long id;
+	private String name;
+	private List<Item> items;
+
+	@Data
+	public static class Item {
+
+		private long sku;
+		private int quantity;
+		private double price;
+		private String remark;
+	}
+
+	/**
+	 * 创建JSON序列化后约为指定字节数的对象
+	 * @param size 目标字节数
+	 */
+	public static Payload ofSize(int size) {
+		Payload payload = new Payload();
+		payload.setId(1);
+		payload.setName("payload-" + size);
+		// 每个Item序列化后约64字节
+		int count = Math.max(1, size / 64);
+		List<Item> items = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Item item = new Item();
+			item.setSku(100_000L + i);
+			item.setQuantity(i % 10);
+			item.setPrice(i * 0.5);
+			item.setRemark("item-" + i);
+			items.add(item);
+		}
+		payload.setItems(items);
+		return payload;
+	}
+}
@@ -0,0 +1,124 @@
+package com.easy.benchmark;
+
+import com.easy.config.RpcProperties;
+import com.easy.util.VirtualThreads;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 大量并发同步调用方: 事件循环经worker线程池 vs 平台线程池 vs 虚拟线程
+ * 事件循环上的调用经WorkerExecutor.executeBlocking转到RpcClient的worker线程池，并发数受worker线程数限制；
+ * 其他线程在callSync中直接等待结果，虚拟线程等待期间让出载体线程，需要JDK 21及以上
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@OperationsPerInvocation(SyncCallerBenchmark.CALLS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SyncCallerBenchmark {
+
+	/**
+	 * 每次调用同时发起的同步调用数
+	 */
+	static final int CALLS = 1024;
+
+	public enum CallerType {
+		/**
+		 * Vert.x事件循环线程，每个事件循环一个上下文，调用经worker线程池执行
+		 */
+		EVENT_LOOP,
+		/**
+		 * 固定大小的平台线程池
+		 */
+		PLATFORM,
+		/**
+		 * 每个调用一个虚拟线程
+		 */
+		VIRTUAL
+	}
+
+	@Param({"EVENT_LOOP", "PLATFORM", "VIRTUAL"})
+	private CallerType callerType;
+
+	/**
+	 * 平台线程池的线程数，也是事件循环调用方的事件循环数
+	 */
+	@Param({"256"})
+	private int platformThreads;
+
+	private Loopback loopback;
+	private Executor callers;
+	/**
+	 * 事件循环调用方所在的Vert.x实例，与RpcClient内部的实例分开
+	 */
+	private Vertx callerVertx;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		switch (callerType) {
+			case EVENT_LOOP -> callers = eventLoopCallers();
+			case VIRTUAL -> {
+				if (!VirtualThreads.isSupported()) {
+					throw new IllegalStateException("Virtual threads require JDK 21+");
+				}
+				callers = VirtualThreads.newVirtualThreadPerTaskExecutor();
+			}
+			default -> callers = Executors.newFixedThreadPool(platformThreads);
+		}
+		loopback = Loopback.start(RpcProperties.ExecutionMode.EVENT_LOOP);
+	}
+
+	/**
+	 * 在事件循环上下文间轮询分发调用
+	 */
+	private Executor eventLoopCallers() {
+		// 事件循环在callSync中阻塞等待worker线程池是被测的做法本身，不检查阻塞
+		callerVertx = Vertx.vertx(new VertxOptions()
+				.setEventLoopPoolSize(platformThreads)
+				.setBlockedThreadCheckInterval(TimeUnit.HOURS.toMillis(1)));
+		Context[] contexts = new Context[platformThreads];
+		for (int i = 0; i < contexts.length; i++) {
+			// 在非Vert.x线程中每次创建新的事件循环上下文，按事件循环轮询分配
+			contexts[i] = callerVertx.getOrCreateContext();
+		}
+		AtomicInteger next = new AtomicInteger();
+		return task -> contexts[Math.floorMod(next.getAndIncrement(), contexts.length)].runOnContext(v -> task.run());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (callers instanceof ExecutorService executor) {
+			executor.shutdownNow();
+		}
+		if (callerVertx != null) {
+			callerVertx.close();
+		}
+		loopback.close();
+	}
+
+	@Benchmark
+	public void syncCalls() throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(CALLS);
+		for (int i = 0; i < CALLS; i++) {
+			callers.execute(() -> {
+				try {
+					loopback.echo("ping");
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		done.await();
+	}
+}
@@ -0,0 +1,29 @@
+package com.easy.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记在服务接口或实现类的方法上，提供者按请求参数缓存序列化后的结果
+ * 相同参数的请求直接返回缓存，不再反序列化参数、执行方法和序列化结果
+ * 数据变化时由服务代码通过ResponseCaches主动失效
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheResponse {
+
+	/**
+	 * 结果写入后的有效期(毫秒)
+	 */
+	long ttlMillis() default 60_000;
+
+	/**
+	 * 最大缓存条数
+	 */
+	long maxEntries() default 10_000;
+
+	/**
+	 * 最大缓存字节数(参数和结果序列化后的大小)，大于0时按字节数限制，忽略maxEntries
+	 */
+	long maxBytes() default 0;
+}
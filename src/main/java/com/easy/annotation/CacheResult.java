@@ -0,0 +1,28 @@
+package com.easy.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记在服务接口的方法上，消费者按序列化后的参数缓存调用结果，命中时不访问注册中心和网络
+ * 只缓存成功的结果，适用于很少变化的数据
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheResult {
+
+	/**
+	 * 结果写入后的有效期(毫秒)
+	 */
+	long ttlMillis() default 60_000;
+
+	/**
+	 * 最大缓存条数
+	 */
+	long maxEntries() default 10_000;
+
+	/**
+	 * 最大缓存字节数(参数和结果序列化后的大小)，大于0时按字节数限制，忽略maxEntries
+	 */
+	long maxBytes() default 0;
+}
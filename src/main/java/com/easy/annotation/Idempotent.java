@@ -0,0 +1,13 @@
+package com.easy.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记在服务接口的方法上，表示重复执行与执行一次的效果相同，允许对冲等重复发送
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Idempotent {
+
+}
@@ -8,5 +8,23 @@ import java.lang.annotation.*;
 @Documented
 public @interface Reference {
 
+	/**
+	 * 调用超时时间(毫秒)，作用于接口的所有方法，0表示使用easy.rpc.consumer配置
+	 */
+	long timeout() default 0;
 
+	/**
+	 * 是否对{@link Idempotent}方法开启对冲请求: 首次请求超过对冲延迟仍未响应时，向另一个实例再发一次，取先返回的结果
+	 */
+	boolean hedging() default false;
+
+	/**
+	 * 对{@link Idempotent}方法的最大重试次数，-1表示使用easy.rpc.consumer.retry配置，重试时换一个实例
+	 */
+	int retries() default -1;
+
+	/**
+	 * 是否合并{@link Idempotent}方法的并发调用: 参数相同的调用进行中时，后到的调用等待它的结果，不再发送请求
+	 */
+	boolean singleFlight() default false;
 }
@@ -3,8 +3,16 @@ package com.easy.autoconfigue;
 import com.easy.config.RpcProperties;
 import com.easy.consumer.ReferenceProcessor;
 import com.easy.consumer.RpcClient;
+import com.easy.metrics.MetricsRecorder;
+import com.easy.metrics.MetricsRecorderLoader;
+import com.easy.metrics.micrometer.CircuitBreakerMetricsBinder;
+import com.easy.metrics.micrometer.ResultCacheMetricsBinder;
+import com.easy.metrics.micrometer.RpcMetricsBinder;
+import com.easy.metrics.micrometer.SingleFlightMetricsBinder;
 import com.easy.provider.RpcProvider;
 import com.easy.provider.ServiceProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -21,18 +29,24 @@ public class RpcAutoConfiguration {
 		return new ServiceProcessor();
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	public static MetricsRecorder rpcMetricsRecorder(RpcProperties props) {
+		return MetricsRecorderLoader.load(props.getMetrics().getType());
+	}
+
 	@Bean(destroyMethod = "close")
 	@ConditionalOnMissingBean
 	@ConditionalOnProperty(name = "easy.rpc.enabled", havingValue = "true")
-	public static RpcProvider rpcProvider(RpcProperties props, ServiceProcessor serviceProcessor) {
-		return new RpcProvider(props, serviceProcessor);
+	public static RpcProvider rpcProvider(RpcProperties props, ServiceProcessor serviceProcessor, MetricsRecorder metricsRecorder) {
+		return new RpcProvider(props, serviceProcessor, metricsRecorder);
 	}
 
 	@Bean(destroyMethod = "close")
 	@ConditionalOnMissingBean
 	@ConditionalOnProperty(name = "easy.rpc.enabled", havingValue = "true")
-	public static RpcClient rpcClient(RpcProperties props) {
-		return new RpcClient(props);
+	public static RpcClient rpcClient(RpcProperties props, MetricsRecorder metricsRecorder) {
+		return new RpcClient(props, metricsRecorder);
 	}
 
 	@Bean
@@ -40,4 +54,58 @@ public class RpcAutoConfiguration {
 	public static ReferenceProcessor referenceProcessor() {
 		return new ReferenceProcessor();
 	}
+
+	/**
+	 * classpath中存在Micrometer时导出调用指标
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+	static class MicrometerConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public RpcMetricsBinder rpcMetricsBinder(MetricsRecorder metricsRecorder) {
+			return new RpcMetricsBinder(metricsRecorder);
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(name = "easy.rpc.enabled", havingValue = "true")
+		public CircuitBreakerMetricsBinder circuitBreakerMetricsBinder(ObjectProvider<RpcClient> rpcClient) {
+			return new CircuitBreakerMetricsBinder(() -> {
+				RpcClient client = rpcClient.getIfAvailable();
+				return client != null ? client.getCircuitBreakerRegistry() : null;
+			});
+		}
+
+		@Bean
+		@ConditionalOnMissingBean(name = "consumerResultCacheMetricsBinder")
+		@ConditionalOnProperty(name = "easy.rpc.enabled", havingValue = "true")
+		public ResultCacheMetricsBinder consumerResultCacheMetricsBinder(ObjectProvider<RpcClient> rpcClient) {
+			return new ResultCacheMetricsBinder("consumer", () -> {
+				RpcClient client = rpcClient.getIfAvailable();
+				return client != null ? client.getResultCaches() : null;
+			});
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(name = "easy.rpc.enabled", havingValue = "true")
+		public SingleFlightMetricsBinder singleFlightMetricsBinder(ObjectProvider<RpcClient> rpcClient) {
+			return new SingleFlightMetricsBinder(() -> {
+				RpcClient client = rpcClient.getIfAvailable();
+				return client != null ? client.getSingleFlight() : null;
+			});
+		}
+
+		@Bean
+		@ConditionalOnMissingBean(name = "providerResultCacheMetricsBinder")
+		@ConditionalOnProperty(name = "easy.rpc.enabled", havingValue = "true")
+		public ResultCacheMetricsBinder providerResultCacheMetricsBinder(ObjectProvider<RpcProvider> rpcProvider) {
+			return new ResultCacheMetricsBinder("provider", () -> {
+				RpcProvider provider = rpcProvider.getIfAvailable();
+				return provider != null ? provider.getResponseCaches().getCaches() : null;
+			});
+		}
+	}
 }
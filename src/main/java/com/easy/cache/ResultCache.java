@@ -0,0 +1,165 @@
+package com.easy.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.protobuf.ByteString;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个方法的结果缓存，key为序列化后的参数，value为序列化后的结果，均为不可变的ByteString
+ * 缓存序列化结果而不是对象，命中时重新反序列化，调用方之间不会共享可变对象
+ * 基于Caffeine，按W-TinyLFU淘汰，超过有效期的条目不再返回
+ */
+public class ResultCache {
+
+	private static final ByteString[] LENGTH_PREFIX_CACHE = new ByteString[256];
+
+	static {
+		for (int i = 0; i < LENGTH_PREFIX_CACHE.length; i++) {
+			LENGTH_PREFIX_CACHE[i] = lengthPrefix0(i);
+		}
+	}
+
+	/**
+	 * 缓存名称: 接口全限定名#方法名
+	 */
+	@Getter
+	private final String name;
+	private final Cache<ByteString, ByteString> cache;
+	/**
+	 * 失效次数，用于丢弃失效前开始计算的结果
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * @param name 缓存名称
+	 * @param ttlMillis 有效期(毫秒)
+	 * @param maxEntries 最大条数
+	 * @param maxBytes 最大字节数，大于0时按字节数限制，忽略maxEntries
+	 */
+	public ResultCache(String name, long ttlMillis, long maxEntries, long maxBytes) {
+		this.name = name;
+		Caffeine<Object, Object> builder = Caffeine.newBuilder()
+				.expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+				.recordStats();
+		if (maxBytes > 0) {
+			builder.maximumWeight(maxBytes)
+					.weigher((ByteString key, ByteString value) -> key.size() + value.size());
+		} else {
+			builder.maximumSize(maxEntries);
+		}
+		this.cache = builder.build();
+	}
+
+	/**
+	 * 由参数列表生成缓存key，多个参数以长度前缀拼接，不复制参数数据
+	 * @param params 序列化后的参数
+	 * @return 缓存key
+	 */
+	public static ByteString key(List<ByteString> params) {
+		int size = params.size();
+		if (size == 1) {
+			return params.get(0);
+		}
+		ByteString key = ByteString.EMPTY;
+		for (int i = 0; i < size; i++) {
+			ByteString param = params.get(i);
+			key = key.concat(lengthPrefix(param.size())).concat(param);
+		}
+		return key;
+	}
+
+	/**
+	 * 查询缓存
+	 * @param key 缓存key
+	 * @return 序列化后的结果，未命中时返回null
+	 */
+	public ByteString get(ByteString key) {
+		return cache.getIfPresent(key);
+	}
+
+	/**
+	 * 写入缓存，key和结果可能引用接收到的整帧数据，复制后再缓存，避免长期持有整帧
+	 * @param key 缓存key
+	 * @param value 序列化后的结果
+	 */
+	public void put(ByteString key, ByteString value) {
+		cache.put(copy(key), copy(value));
+	}
+
+	/**
+	 * 写入开始计算前查询的结果，计算期间发生过失效时结果可能已过时，写入后立即删除
+	 * 先写入再检查，与并发的失效操作无论先后都不会留下过时的条目
+	 * @param key 缓存key
+	 * @param value 序列化后的结果
+	 * @param generation 开始计算前的generation()
+	 */
+	public void put(ByteString key, ByteString value, long generation) {
+		put(key, value);
+		if (this.generation.get() != generation) {
+			cache.invalidate(key);
+		}
+	}
+
+	/**
+	 * 当前的失效代数，每次失效操作递增
+	 */
+	public long generation() {
+		return generation.get();
+	}
+
+	/**
+	 * 删除单个条目
+	 * @param key 缓存key
+	 */
+	public void invalidate(ByteString key) {
+		generation.incrementAndGet();
+		cache.invalidate(key);
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		cache.invalidateAll();
+	}
+
+	/**
+	 * 当前条目数(估算值)
+	 */
+	public long size() {
+		return cache.estimatedSize();
+	}
+
+	/**
+	 * 命中、未命中、淘汰等统计
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	/**
+	 * 底层的Caffeine缓存，用于指标导出
+	 */
+	public Cache<ByteString, ByteString> unwrap() {
+		return cache;
+	}
+
+	private static ByteString copy(ByteString bytes) {
+		return ByteString.copyFrom(bytes.asReadOnlyByteBuffer());
+	}
+
+	private static ByteString lengthPrefix(int length) {
+		return length < LENGTH_PREFIX_CACHE.length ? LENGTH_PREFIX_CACHE[length] : lengthPrefix0(length);
+	}
+
+	private static ByteString lengthPrefix0(int length) {
+		return ByteString.copyFrom(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+	}
+}
@@ -0,0 +1,70 @@
+package com.easy.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 结果缓存，每个方法一个，首次调用时按方法上的注解创建
+ * @param <K> 方法标识
+ */
+public class ResultCacheRegistry<K> {
+
+	private final Map<K, Optional<ResultCache>> caches = new ConcurrentHashMap<>();
+	private final List<Consumer<ResultCache>> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * 获取方法的结果缓存，不存在时创建
+	 * @param key 方法标识
+	 * @param factory 创建缓存，方法不需要缓存时返回null，每个key只调用一次
+	 * @return 结果缓存，方法不需要缓存时返回null
+	 */
+	public ResultCache get(K key, Function<K, ResultCache> factory) {
+		Optional<ResultCache> cache = caches.get(key);
+		if (cache == null) {
+			cache = create(key, factory);
+		}
+		return cache.orElse(null);
+	}
+
+	/**
+	 * 获取已创建的缓存，不会创建
+	 * @param key 方法标识
+	 * @return 结果缓存，未创建或方法不需要缓存时返回null
+	 */
+	public ResultCache find(K key) {
+		Optional<ResultCache> cache = caches.get(key);
+		return cache != null ? cache.orElse(null) : null;
+	}
+
+	private Optional<ResultCache> create(K key, Function<K, ResultCache> factory) {
+		Optional<ResultCache> created = Optional.ofNullable(factory.apply(key));
+		Optional<ResultCache> existing = caches.putIfAbsent(key, created);
+		if (existing != null) {
+			return existing;
+		}
+		created.ifPresent(cache -> listeners.forEach(listener -> listener.accept(cache)));
+		return created;
+	}
+
+	/**
+	 * 所有已创建的缓存
+	 */
+	public Collection<ResultCache> getCaches() {
+		return caches.values().stream().flatMap(Optional::stream).toList();
+	}
+
+	/**
+	 * 监听新创建的缓存，注册时对已有缓存立即回调
+	 * @param listener 回调
+	 */
+	public void addListener(Consumer<ResultCache> listener) {
+		listeners.add(listener);
+		getCaches().forEach(listener);
+	}
+}
@@ -0,0 +1,193 @@
+package com.easy.codec;
+
+import com.easy.config.RpcProperties;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import lombok.Getter;
+import rpc.Rpc;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 负载压缩，超过阈值的params/data按对端接受的算法压缩，压缩后没有变小时按原始数据发送
+ * 双方在每条消息的accept_compression字段声明自己接受的算法，只有对端声明接受本端算法后才压缩
+ */
+public final class Compression {
+
+	/**
+	 * 压缩数据中原始长度前缀的字节数
+	 */
+	static final int LENGTH_PREFIX = 4;
+	/**
+	 * compressed_params位图能标记的参数个数
+	 */
+	private static final int MAX_COMPRESSED_PARAMS = 64;
+
+	private static final List<Compressor> COMPRESSORS = List.of(new DeflateCompressor(), new Lz4Compressor());
+	private static final Map<Integer, Compressor> BY_ID = COMPRESSORS.stream()
+			.collect(Collectors.toUnmodifiableMap(Compressor::id, Function.identity()));
+	private static final Map<String, Compressor> BY_NAME = COMPRESSORS.stream()
+			.collect(Collectors.toUnmodifiableMap(Compressor::name, Function.identity()));
+
+	/**
+	 * 本端使用的算法，null表示不压缩
+	 */
+	private final Compressor compressor;
+	private final int threshold;
+	private final int maxRawSize;
+	@Getter
+	private final CompressionStats stats = new CompressionStats();
+
+	public Compression(RpcProperties.Transport transport) {
+		String name = transport.getCompression();
+		if (name == null || name.isEmpty() || "none".equalsIgnoreCase(name)) {
+			this.compressor = null;
+		} else {
+			this.compressor = BY_NAME.get(name.toLowerCase());
+			if (compressor == null) {
+				throw new IllegalArgumentException("Unknown compression: " + name + ", supported: " + BY_NAME.keySet());
+			}
+		}
+		this.threshold = Math.max(0, transport.getCompressionThreshold());
+		this.maxRawSize = transport.getMaxFrameSize();
+	}
+
+	/**
+	 * 本端接受的算法标识，0表示不接受压缩
+	 */
+	public int acceptId() {
+		return compressor == null ? 0 : compressor.id();
+	}
+
+	/**
+	 * 压缩请求参数
+	 * @param request 请求
+	 * @param peerAccept 对端接受的算法标识
+	 */
+	public void compressParams(Rpc.RpcRequest.Builder request, int peerAccept) {
+		request.setAcceptCompression(acceptId());
+		if (!canCompress(peerAccept)) {
+			return;
+		}
+		CompressionStats.MethodStats methodStats = null;
+		long mask = 0;
+		int count = Math.min(request.getParamsCount(), MAX_COMPRESSED_PARAMS);
+		for (int i = 0; i < count; i++) {
+			ByteString raw = request.getParams(i);
+			if (raw.size() < threshold) {
+				continue;
+			}
+			if (methodStats == null) {
+				methodStats = stats.get(request.getInterfaceName(), request.getMethodName());
+			}
+			ByteString compressed = compress(raw, methodStats);
+			if (compressed != null) {
+				request.setParams(i, compressed);
+				mask |= 1L << i;
+			}
+		}
+		if (mask != 0) {
+			request.setCompression(compressor.id()).setCompressedParams(mask);
+		}
+	}
+
+	/**
+	 * 解压请求参数
+	 * @param request 请求
+	 * @return 参数未压缩时返回原请求，否则返回参数已解压的请求
+	 */
+	public Rpc.RpcRequest decompressParams(Rpc.RpcRequest request) throws IOException {
+		long mask = request.getCompressedParams();
+		if (mask == 0) {
+			return request;
+		}
+		Compressor peerCompressor = lookup(request.getCompression());
+		CompressionStats.MethodStats methodStats = stats.get(request.getInterfaceName(), request.getMethodName());
+		Rpc.RpcRequest.Builder builder = request.toBuilder();
+		int count = Math.min(request.getParamsCount(), MAX_COMPRESSED_PARAMS);
+		for (int i = 0; i < count; i++) {
+			if ((mask & (1L << i)) != 0) {
+				builder.setParams(i, decompress(peerCompressor, request.getParams(i), methodStats));
+			}
+		}
+		return builder.setCompression(0).setCompressedParams(0).build();
+	}
+
+	/**
+	 * 压缩响应数据
+	 * @param response 响应
+	 * @param request 对应的请求，按其accept_compression决定是否压缩
+	 * @param data 原始数据
+	 */
+	public void compressData(Rpc.RpcResponse.Builder response, Rpc.RpcRequest request, ByteString data) {
+		if (canCompress(request.getAcceptCompression()) && data.size() >= threshold) {
+			ByteString compressed = compress(data, stats.get(request.getInterfaceName(), request.getMethodName()));
+			if (compressed != null) {
+				response.setData(compressed).setCompression(compressor.id());
+				return;
+			}
+		}
+		response.setData(data);
+	}
+
+	/**
+	 * 解压响应数据
+	 * @param response 响应
+	 * @param interfaceName 接口名称
+	 * @param methodName 方法名
+	 * @return 原始数据
+	 */
+	public ByteString decompressData(Rpc.RpcResponse response, String interfaceName, String methodName) throws IOException {
+		if (response.getCompression() == 0) {
+			return response.getData();
+		}
+		return decompress(lookup(response.getCompression()), response.getData(), stats.get(interfaceName, methodName));
+	}
+
+	private boolean canCompress(int peerAccept) {
+		return compressor != null && peerAccept == compressor.id();
+	}
+
+	/**
+	 * 压缩，结果没有变小时返回null
+	 */
+	private ByteString compress(ByteString raw, CompressionStats.MethodStats methodStats) {
+		long start = System.nanoTime();
+		byte[] compressed = compressor.compress(raw.toByteArray());
+		int rawSize = raw.size();
+		compressed[0] = (byte) (rawSize >>> 24);
+		compressed[1] = (byte) (rawSize >>> 16);
+		compressed[2] = (byte) (rawSize >>> 8);
+		compressed[3] = (byte) rawSize;
+		boolean used = compressed.length < rawSize;
+		methodStats.onCompress(rawSize, compressed.length, System.nanoTime() - start, used);
+		return used ? UnsafeByteOperations.unsafeWrap(compressed) : null;
+	}
+
+	private ByteString decompress(Compressor peerCompressor, ByteString compressed, CompressionStats.MethodStats methodStats) throws IOException {
+		if (compressed.size() < LENGTH_PREFIX) {
+			throw new IOException("Corrupted compressed payload");
+		}
+		long start = System.nanoTime();
+		byte[] bytes = compressed.toByteArray();
+		int rawSize = (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | (bytes[3] & 0xFF);
+		if (rawSize < 0 || rawSize > maxRawSize) {
+			throw new IOException("Decompressed size " + rawSize + " exceeds max frame size " + maxRawSize);
+		}
+		byte[] raw = peerCompressor.decompress(bytes, LENGTH_PREFIX, bytes.length - LENGTH_PREFIX, rawSize);
+		methodStats.onDecompress(System.nanoTime() - start);
+		return UnsafeByteOperations.unsafeWrap(raw);
+	}
+
+	private static Compressor lookup(int id) throws IOException {
+		Compressor peerCompressor = BY_ID.get(id);
+		if (peerCompressor == null) {
+			throw new IOException("Unknown compression id: " + id);
+		}
+		return peerCompressor;
+	}
+}
@@ -0,0 +1,109 @@
+package com.easy.codec;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按方法(接口#方法)统计压缩率和压缩、解压耗时，用于调整压缩阈值
+ */
+public class CompressionStats {
+
+	private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+
+	/**
+	 * 获取方法的统计数据
+	 * @param interfaceName 接口名称
+	 * @param methodName 方法名
+	 */
+	public MethodStats get(String interfaceName, String methodName) {
+		return methods.computeIfAbsent(interfaceName + "#" + methodName, k -> new MethodStats());
+	}
+
+	/**
+	 * 所有方法的统计数据快照，key为 接口#方法
+	 */
+	public Map<String, MethodStats> snapshot() {
+		return Map.copyOf(methods);
+	}
+
+	public static final class MethodStats {
+
+		private final LongAdder compressions = new LongAdder();
+		private final LongAdder skipped = new LongAdder();
+		private final LongAdder rawBytes = new LongAdder();
+		private final LongAdder compressedBytes = new LongAdder();
+		private final LongAdder compressNanos = new LongAdder();
+		private final LongAdder decompressions = new LongAdder();
+		private final LongAdder decompressNanos = new LongAdder();
+
+		void onCompress(int rawSize, int compressedSize, long nanos, boolean used) {
+			compressNanos.add(nanos);
+			if (used) {
+				compressions.increment();
+				rawBytes.add(rawSize);
+				compressedBytes.add(compressedSize);
+			} else {
+				skipped.increment();
+			}
+		}
+
+		void onDecompress(long nanos) {
+			decompressions.increment();
+			decompressNanos.add(nanos);
+		}
+
+		/**
+		 * 压缩后实际发送压缩结果的次数
+		 */
+		public long getCompressions() {
+			return compressions.sum();
+		}
+
+		/**
+		 * 超过阈值但压缩后没有变小，按原始数据发送的次数
+		 */
+		public long getSkipped() {
+			return skipped.sum();
+		}
+
+		public long getRawBytes() {
+			return rawBytes.sum();
+		}
+
+		public long getCompressedBytes() {
+			return compressedBytes.sum();
+		}
+
+		/**
+		 * 压缩耗时，包括压缩后未使用的情况
+		 */
+		public long getCompressNanos() {
+			return compressNanos.sum();
+		}
+
+		public long getDecompressions() {
+			return decompressions.sum();
+		}
+
+		public long getDecompressNanos() {
+			return decompressNanos.sum();
+		}
+
+		/**
+		 * 压缩率，压缩后字节数/原始字节数
+		 */
+		public double getRatio() {
+			long raw = getRawBytes();
+			return raw == 0 ? 1.0 : (double) getCompressedBytes() / raw;
+		}
+
+		@Override
+		public String toString() {
+			return "MethodStats{compressions=" + getCompressions() + ", skipped=" + getSkipped()
+					+ ", ratio=" + String.format("%.3f", getRatio())
+					+ ", compressNanos=" + getCompressNanos() + ", decompressions=" + getDecompressions()
+					+ ", decompressNanos=" + getDecompressNanos() + "}";
+		}
+	}
+}
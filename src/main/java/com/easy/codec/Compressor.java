@@ -0,0 +1,36 @@
+package com.easy.codec;
+
+import java.io.IOException;
+
+/**
+ * 压缩算法，压缩结果格式为 [4字节原始长度][压缩数据]
+ */
+public interface Compressor {
+
+	/**
+	 * 算法标识，写入RpcRequest/RpcResponse的compression字段，0保留表示不压缩
+	 */
+	int id();
+
+	/**
+	 * 算法名称
+	 */
+	String name();
+
+	/**
+	 * 压缩
+	 * @param raw 原始数据
+	 * @return 压缩数据
+	 */
+	byte[] compress(byte[] raw);
+
+	/**
+	 * 解压
+	 * @param compressed 压缩数据(不含长度前缀)
+	 * @param offset 压缩数据起始位置
+	 * @param length 压缩数据长度
+	 * @param rawLength 原始长度
+	 * @return 原始数据
+	 */
+	byte[] decompress(byte[] compressed, int offset, int length, int rawLength) throws IOException;
+}
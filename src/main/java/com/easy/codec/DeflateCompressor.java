@@ -0,0 +1,68 @@
+package com.easy.codec;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * JDK Deflater，压缩率较高
+ */
+public class DeflateCompressor implements Compressor {
+
+	@Override
+	public int id() {
+		return 1;
+	}
+
+	@Override
+	public String name() {
+		return "deflate";
+	}
+
+	@Override
+	public byte[] compress(byte[] raw) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+		try {
+			deflater.setInput(raw);
+			deflater.finish();
+			byte[] out = new byte[Compression.LENGTH_PREFIX + raw.length + (raw.length >>> 6) + 64];
+			int length = Compression.LENGTH_PREFIX;
+			while (!deflater.finished()) {
+				if (length == out.length) {
+					out = Arrays.copyOf(out, out.length * 2);
+				}
+				length += deflater.deflate(out, length, out.length - length);
+			}
+			return Arrays.copyOf(out, length);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	@Override
+	public byte[] decompress(byte[] compressed, int offset, int length, int rawLength) throws IOException {
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(compressed, offset, length);
+			byte[] raw = new byte[rawLength];
+			int n = 0;
+			while (n < rawLength) {
+				int inflated = inflater.inflate(raw, n, rawLength - n);
+				if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+					break;
+				}
+				n += inflated;
+			}
+			if (n != rawLength) {
+				throw new IOException("Corrupted deflate payload");
+			}
+			return raw;
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupted deflate payload", e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.easy.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+import java.io.IOException;
+
+/**
+ * JSON编解码，用于普通Java对象
+ * ObjectReader/ObjectWriter按泛型声明类型预先创建，List&lt;Order&gt;等类型可正确反序列化
+ */
+public class JacksonCodec implements PayloadCodec {
+
+	private final ObjectReader reader;
+	private final ObjectWriter writer;
+
+	public JacksonCodec(ObjectMapper objectMapper, JavaType type) {
+		this.reader = objectMapper.readerFor(type);
+		// 声明类型无法被子类化或为容器时按声明类型预解析序列化器，否则按运行时类型序列化，避免丢失子类字段
+		boolean staticType = !type.isPrimitive() && (type.isFinal() || type.isContainerType());
+		this.writer = staticType ? objectMapper.writerFor(type) : objectMapper.writer();
+	}
+
+	@Override
+	public ByteString encode(Object value) throws IOException {
+		// 序列化结果不会再被修改，直接包装避免复制
+		return UnsafeByteOperations.unsafeWrap(writer.writeValueAsBytes(value));
+	}
+
+	@Override
+	public Object decode(ByteString bytes) throws IOException {
+		if (bytes.isEmpty()) {
+			// 服务端返回null或void时不设置data
+			return null;
+		}
+		// 直接从ByteString读取，不复制为新数组
+		return reader.readValue(bytes.newInput());
+	}
+}
@@ -0,0 +1,52 @@
+package com.easy.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * LZ4块压缩，使用纯Java实现，速度快、CPU开销低
+ */
+public class Lz4Compressor implements Compressor {
+
+	private static final LZ4Factory FACTORY = LZ4Factory.safeInstance();
+
+	private final LZ4Compressor compressor = FACTORY.fastCompressor();
+	private final LZ4SafeDecompressor decompressor = FACTORY.safeDecompressor();
+
+	@Override
+	public int id() {
+		return 2;
+	}
+
+	@Override
+	public String name() {
+		return "lz4";
+	}
+
+	@Override
+	public byte[] compress(byte[] raw) {
+		int maxLength = compressor.maxCompressedLength(raw.length);
+		byte[] out = new byte[Compression.LENGTH_PREFIX + maxLength];
+		int length = compressor.compress(raw, 0, raw.length, out, Compression.LENGTH_PREFIX, maxLength);
+		return Arrays.copyOf(out, Compression.LENGTH_PREFIX + length);
+	}
+
+	@Override
+	public byte[] decompress(byte[] compressed, int offset, int length, int rawLength) throws IOException {
+		byte[] raw = new byte[rawLength];
+		try {
+			int n = decompressor.decompress(compressed, offset, length, raw, 0, rawLength);
+			if (n != rawLength) {
+				throw new IOException("Corrupted lz4 payload");
+			}
+		} catch (LZ4Exception e) {
+			throw new IOException("Corrupted lz4 payload", e);
+		}
+		return raw;
+	}
+}
@@ -0,0 +1,83 @@
+package com.easy.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+/**
+ * 方法级编解码器，按泛型签名为每个参数和返回值预先创建编解码器，按方法缓存复用
+ */
+public final class MethodCodec {
+
+	private final PayloadCodec[] paramCodecs;
+	private final PayloadCodec resultCodec;
+
+	public MethodCodec(Method method, ObjectMapper objectMapper) {
+		Type[] paramTypes = method.getGenericParameterTypes();
+		this.paramCodecs = new PayloadCodec[paramTypes.length];
+		for (int i = 0; i < paramTypes.length; i++) {
+			paramCodecs[i] = PayloadCodecs.forType(paramTypes[i], objectMapper);
+		}
+		this.resultCodec = PayloadCodecs.forType(resultType(method), objectMapper);
+	}
+
+	/**
+	 * 是否为异步方法，返回CompletableFuture或CompletionStage
+	 * @param method 方法
+	 */
+	public static boolean isAsync(Method method) {
+		Class<?> returnType = method.getReturnType();
+		return returnType == CompletableFuture.class || returnType == CompletionStage.class;
+	}
+
+	/**
+	 * 是否为流式方法，返回Flow.Publisher、Stream或Iterator，结果按元素逐个传输
+	 * @param method 方法
+	 */
+	public static boolean isStreaming(Method method) {
+		Class<?> returnType = method.getReturnType();
+		return returnType == Flow.Publisher.class || returnType == Stream.class || returnType == Iterator.class;
+	}
+
+	/**
+	 * 实际传输的结果类型，异步方法取泛型参数中的结果类型，流式方法取元素类型
+	 */
+	private static Type resultType(Method method) {
+		if (!isAsync(method) && !isStreaming(method)) {
+			return method.getGenericReturnType();
+		}
+		if (method.getGenericReturnType() instanceof ParameterizedType parameterizedType) {
+			return parameterizedType.getActualTypeArguments()[0];
+		}
+		return Object.class;
+	}
+
+	public int getParamCount() {
+		return paramCodecs.length;
+	}
+
+	public ByteString encodeParam(int index, Object value) throws IOException {
+		return paramCodecs[index].encode(value);
+	}
+
+	public Object decodeParam(int index, ByteString bytes) throws IOException {
+		return paramCodecs[index].decode(bytes);
+	}
+
+	public ByteString encodeResult(Object result) throws IOException {
+		return resultCodec.encode(result);
+	}
+
+	public Object decodeResult(ByteString bytes) throws IOException {
+		return resultCodec.decode(bytes);
+	}
+}
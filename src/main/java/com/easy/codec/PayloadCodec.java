@@ -0,0 +1,25 @@
+package com.easy.codec;
+
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+
+/**
+ * 参数和返回值编解码器，编码结果直接写入RpcRequest.params或RpcResponse.data
+ */
+public interface PayloadCodec {
+
+	/**
+	 * 编码
+	 * @param value 参数或返回值
+	 * @return 编码结果
+	 */
+	ByteString encode(Object value) throws IOException;
+
+	/**
+	 * 解码
+	 * @param bytes 编码结果
+	 * @return 参数或返回值
+	 */
+	Object decode(ByteString bytes) throws IOException;
+}
@@ -0,0 +1,70 @@
+package com.easy.codec;
+
+import com.easy.config.RpcProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.google.protobuf.Message;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+
+/**
+ * 根据声明类型选择编解码器
+ */
+public final class PayloadCodecs {
+
+	/**
+	 * protobuf消息类型 -> 编解码器，Parser只解析一次
+	 */
+	private static final ClassValue<ProtobufCodec> PROTOBUF_CODECS = new ClassValue<>() {
+		@Override
+		@SuppressWarnings("unchecked")
+		protected ProtobufCodec computeValue(Class<?> type) {
+			return new ProtobufCodec((Class<? extends Message>) type);
+		}
+	};
+
+	private PayloadCodecs() {
+	}
+
+	/**
+	 * 创建参数和返回值序列化使用的ObjectMapper
+	 * @param codec 序列化配置
+	 */
+	public static ObjectMapper createObjectMapper(RpcProperties.Codec codec) {
+		JsonMapper.Builder builder = JsonMapper.builder();
+		if (codec.isBlackbird()) {
+			builder.addModule(new BlackbirdModule());
+		}
+		return builder.build();
+	}
+
+	/**
+	 * 是否为可直接透传的protobuf消息类型(具体的生成类)
+	 * @param type 声明类型
+	 */
+	public static boolean isProtobuf(Class<?> type) {
+		return Message.class.isAssignableFrom(type) && !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+	}
+
+	/**
+	 * 获取protobuf消息的编解码器
+	 * @param type protobuf消息类型
+	 */
+	public static PayloadCodec protobuf(Class<?> type) {
+		return PROTOBUF_CODECS.get(type);
+	}
+
+	/**
+	 * 按声明类型创建编解码器，protobuf消息透传，其他类型使用JSON
+	 * @param type 声明类型
+	 * @param objectMapper JSON序列化使用的ObjectMapper
+	 */
+	public static PayloadCodec forType(Type type, ObjectMapper objectMapper) {
+		if (type instanceof Class<?> clazz && isProtobuf(clazz)) {
+			return protobuf(clazz);
+		}
+		return new JacksonCodec(objectMapper, objectMapper.getTypeFactory().constructType(type));
+	}
+}
@@ -0,0 +1,35 @@
+package com.easy.codec;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+
+import java.io.IOException;
+
+/**
+ * protobuf消息直接透传wire格式，不经过JSON
+ * null编码为空字节，解码为默认实例
+ */
+public class ProtobufCodec implements PayloadCodec {
+
+	private final Parser<? extends Message> parser;
+
+	ProtobufCodec(Class<? extends Message> messageType) {
+		try {
+			Message defaultInstance = (Message) messageType.getMethod("getDefaultInstance").invoke(null);
+			this.parser = defaultInstance.getParserForType();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("Not a generated protobuf message: " + messageType.getName(), e);
+		}
+	}
+
+	@Override
+	public ByteString encode(Object value) {
+		return value == null ? ByteString.EMPTY : ((Message) value).toByteString();
+	}
+
+	@Override
+	public Object decode(ByteString bytes) throws IOException {
+		return parser.parseFrom(bytes);
+	}
+}
@@ -1,8 +1,15 @@
 package com.easy.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +32,31 @@ public class RpcProperties {
 	 */
 	private ServiceInstance instance;
 
+	/**
+	 * 消费者配置
+	 */
+	private Consumer consumer = new Consumer();
+
+	/**
+	 * 提供者配置
+	 */
+	private Provider provider = new Provider();
+
+	/**
+	 * 传输层配置
+	 */
+	private Transport transport = new Transport();
+
+	/**
+	 * 序列化配置
+	 */
+	private Codec codec = new Codec();
+
+	/**
+	 * 指标配置
+	 */
+	private Metrics metrics = new Metrics();
+
 	@Data
 	public static class Registry{
 
@@ -66,5 +98,283 @@ public class RpcProperties {
 		 * 其他元数据信息
 		 */
 		private Map<String, String> metadata;
+		/**
+		 * 缓存的host:port，调用路径上按实例查找统计、熔断器和连接时不再拼接字符串
+		 */
+		@Getter(AccessLevel.NONE)
+		@Setter(AccessLevel.NONE)
+		@EqualsAndHashCode.Exclude
+		@ToString.Exclude
+		private transient volatile String address;
+
+		public void setHost(String host) {
+			this.host = host;
+			this.address = null;
+		}
+
+		public void setPort(int port) {
+			this.port = port;
+			this.address = null;
+		}
+
+		/**
+		 * 服务地址(host:port)
+		 */
+		@JsonIgnore
+		public String getAddress() {
+			String current = address;
+			if (current == null) {
+				current = host + ":" + port;
+				address = current;
+			}
+			return current;
+		}
+	}
+
+	@Data
+	public static class Consumer {
+
+		/**
+		 * 每个服务地址(host:port)保持的长连接数
+		 */
+		private int connections = 2;
+		/**
+		 * 建立连接超时时间(毫秒)
+		 */
+		private int connectTimeout = 3000;
+		/**
+		 * 默认负载均衡策略
+		 * 可选值：random, round-robin, least-outstanding, p2c-ewma
+		 */
+		private String loadBalancer = "random";
+		/**
+		 * 按接口指定负载均衡策略，key为接口全限定名
+		 */
+		private Map<String, String> loadBalancers = new HashMap<>();
+		/**
+		 * 默认调用超时时间(毫秒)，剩余时间随每次请求发送给提供者，0表示不限制
+		 */
+		private long timeout;
+		/**
+		 * 按接口或方法指定调用超时时间(毫秒)，key为 接口全限定名 或 接口全限定名#方法名，方法优先
+		 */
+		private Map<String, Long> timeouts = new HashMap<>();
+		/**
+		 * 服务实例熔断配置
+		 */
+		private CircuitBreaker circuitBreaker = new CircuitBreaker();
+		/**
+		 * 对冲请求配置，对@Reference(hedging = true)引用的@Idempotent方法生效
+		 */
+		private Hedging hedging = new Hedging();
+		/**
+		 * 重试配置，只对@Idempotent方法生效
+		 */
+		private Retry retry = new Retry();
+		/**
+		 * 流式调用的接收窗口(元素个数)，提供者最多发送这么多个未被消费的元素
+		 */
+		private int streamWindow = 32;
+	}
+
+	@Data
+	public static class Retry {
+
+		/**
+		 * 默认最大重试次数，0表示不重试
+		 */
+		private int maxRetries;
+		/**
+		 * 按接口或方法指定最大重试次数，key为 接口全限定名 或 接口全限定名#方法名
+		 * 优先级: 方法级配置 > 引用级配置(@Reference) > 接口级配置 > 默认配置
+		 */
+		private Map<String, Integer> overrides = new HashMap<>();
+		/**
+		 * 首次重试的退避时间上限(毫秒)，之后每次翻倍，实际退避时间在0到上限之间随机
+		 */
+		private long backoffMillis = 25;
+		/**
+		 * 退避时间上限的最大值(毫秒)
+		 */
+		private long maxBackoffMillis = 1000;
+		/**
+		 * 重试预算(百分比)，重试次数不超过调用数的该比例，避免故障时的重试风暴
+		 */
+		private double budgetPercent = 10;
+	}
+
+	@Data
+	public static class Hedging {
+
+		/**
+		 * 对冲延迟(毫秒)，首次请求超过该时间未响应时发送对冲请求，0表示使用该方法实测耗时的分位数
+		 */
+		private long delayMillis;
+		/**
+		 * 未配置对冲延迟时使用的耗时分位数
+		 */
+		private double percentile = 0.95;
+		/**
+		 * 对冲预算(百分比)，对冲请求数不超过调用数的该比例，限制对冲带来的额外负载
+		 */
+		private double budgetPercent = 10;
+	}
+
+	@Data
+	public static class CircuitBreaker {
+
+		/**
+		 * 是否启用熔断，按服务实例(host:port)独立统计，默认关闭
+		 */
+		private boolean enabled;
+		/**
+		 * 滑动窗口大小，统计最近的调用数
+		 */
+		private int windowSize = 100;
+		/**
+		 * 窗口内调用数达到该值后才计算失败率和慢调用率
+		 */
+		private int minimumCalls = 20;
+		/**
+		 * 失败率阈值(百分比)，达到时打开熔断
+		 */
+		private float failureRateThreshold = 50;
+		/**
+		 * 慢调用率阈值(百分比)，达到时打开熔断
+		 */
+		private float slowCallRateThreshold = 100;
+		/**
+		 * 慢调用耗时阈值(毫秒)
+		 */
+		private long slowCallDurationMillis = 3000;
+		/**
+		 * 熔断打开后等待多久(毫秒)进入半开状态
+		 */
+		private long openDurationMillis = 5000;
+		/**
+		 * 半开状态允许的探测调用数，全部完成后决定关闭或重新打开
+		 */
+		private int halfOpenCalls = 5;
+	}
+
+	@Data
+	public static class Provider {
+
+		/**
+		 * 服务方法执行模型
+		 */
+		private ExecutionMode executionMode = ExecutionMode.EVENT_LOOP;
+		/**
+		 * worker模式的线程数
+		 */
+		private int workerThreads = 200;
+		/**
+		 * worker模式的等待队列长度，队列满时直接拒绝请求
+		 */
+		private int workerQueueSize = 10000;
+		/**
+		 * 单个连接上同时执行的最大请求数，达到上限时暂停读取该连接
+		 */
+		private int maxInFlightPerConnection = 1024;
+		/**
+		 * 自适应并发限制的范围，超过限制的请求以429立即拒绝
+		 */
+		private ConcurrencyLimitScope concurrencyLimit = ConcurrencyLimitScope.NONE;
+		/**
+		 * 并发限制初始值
+		 */
+		private int initialConcurrencyLimit = 20;
+		/**
+		 * 并发限制下限
+		 */
+		private int minConcurrencyLimit = 4;
+		/**
+		 * 并发限制上限
+		 */
+		private int maxConcurrencyLimit = 1000;
+		/**
+		 * 可容忍的耗时增长倍数，短期耗时超过长期耗时的该倍数时收缩并发限制
+		 */
+		private double concurrencyRttTolerance = 1.5;
+	}
+
+	public enum ConcurrencyLimitScope {
+
+		/**
+		 * 不限制
+		 */
+		NONE,
+		/**
+		 * 所有接口共享一个限制
+		 */
+		GLOBAL,
+		/**
+		 * 每个接口独立限制
+		 */
+		SERVICE
+	}
+
+	public enum ExecutionMode {
+
+		/**
+		 * 在Vert.x事件循环线程执行，适用于非阻塞服务
+		 */
+		EVENT_LOOP,
+		/**
+		 * 在有界平台线程池执行
+		 */
+		WORKER,
+		/**
+		 * 每个请求一个虚拟线程(需要Java 21+，否则退化为WORKER)
+		 */
+		VIRTUAL_THREAD
+	}
+
+	@Data
+	public static class Transport {
+
+		/**
+		 * 单帧最大字节数，超过时拒绝编码或断开连接
+		 */
+		private int maxFrameSize = 16 * 1024 * 1024;
+		/**
+		 * 是否开启合并写，将同一事件循环周期内产生的多个帧合并为一次写入
+		 */
+		private boolean writeBatching;
+		/**
+		 * 合并写的字节数阈值，待写字节数达到该值时立即写出
+		 */
+		private int writeBatchMaxBytes = 64 * 1024;
+		/**
+		 * 合并写的最大延迟(毫秒)，0表示在当前事件循环任务结束后写出
+		 */
+		private long writeBatchMaxDelayMillis;
+		/**
+		 * 负载压缩算法: none, deflate, lz4，对端也开启同一算法时才会压缩
+		 */
+		private String compression = "none";
+		/**
+		 * 压缩阈值(字节)，单个参数或返回值序列化后不小于该值时才压缩
+		 */
+		private int compressionThreshold = 4096;
+	}
+
+	@Data
+	public static class Codec {
+
+		/**
+		 * 是否启用Blackbird模块，使用LambdaMetafactory生成的访问器加速POJO绑定
+		 */
+		private boolean blackbird;
+	}
+
+	@Data
+	public static class Metrics {
+
+		/**
+		 * 指标实现类型
+		 * 可选值：default, none
+		 */
+		private String type = "default";
 	}
 }
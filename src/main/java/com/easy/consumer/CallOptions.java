@@ -0,0 +1,21 @@
+package com.easy.consumer;
+
+/**
+ * 引用级调用选项，来自@Reference，每个代理对象持有一份
+ * @param timeoutMillis 引用级超时时间(毫秒)，0表示使用配置
+ * @param hedging 是否对@Idempotent方法开启对冲请求
+ * @param retries @Idempotent方法的最大重试次数，-1表示使用配置
+ * @param singleFlight 是否合并@Idempotent方法参数相同的并发调用
+ */
+public record CallOptions(long timeoutMillis, boolean hedging, int retries, boolean singleFlight) {
+
+	public static final CallOptions DEFAULT = new CallOptions(0, false, -1, false);
+
+	/**
+	 * 只指定超时时间的调用选项
+	 * @param timeoutMillis 引用级超时时间(毫秒)，0表示使用配置
+	 */
+	public static CallOptions timeout(long timeoutMillis) {
+		return timeoutMillis == 0 ? DEFAULT : new CallOptions(timeoutMillis, false, -1, false);
+	}
+}
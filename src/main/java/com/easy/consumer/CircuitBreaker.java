@@ -0,0 +1,255 @@
+package com.easy.consumer;
+
+import com.easy.config.RpcProperties;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 单个服务实例的熔断器: 关闭 -> 打开 -> 半开 -> 关闭/打开
+ * 关闭状态按最近N次调用的滑动窗口统计失败率和慢调用率，超过阈值时打开；
+ * 打开一段时间后进入半开状态，只放行固定数量的探测调用，按探测结果关闭或重新打开
+ * 状态和窗口放在不可变的阶段对象中整体替换，每次转换递增代数，上一阶段发出的调用结果直接丢弃
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED,
+		OPEN,
+		HALF_OPEN
+	}
+
+	/**
+	 * tryAcquire被拒绝时的返回值
+	 */
+	public static final int NOT_PERMITTED = -1;
+
+	@Getter
+	private final String instance;
+	private final int windowSize;
+	private final int minimumCalls;
+	private final float failureRateThreshold;
+	private final float slowCallRateThreshold;
+	private final long slowCallNanos;
+	private final long openNanos;
+	private final int halfOpenCalls;
+	private final CircuitBreakerListener listener;
+	private final AtomicReference<Phase> phase;
+
+	CircuitBreaker(String instance, RpcProperties.CircuitBreaker config, CircuitBreakerListener listener) {
+		this.instance = instance;
+		this.windowSize = Math.max(1, config.getWindowSize());
+		this.minimumCalls = Math.min(windowSize, Math.max(1, config.getMinimumCalls()));
+		this.failureRateThreshold = config.getFailureRateThreshold();
+		this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+		this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationMillis());
+		this.openNanos = TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMillis());
+		this.halfOpenCalls = Math.max(1, config.getHalfOpenCalls());
+		this.listener = listener;
+		this.phase = new AtomicReference<>(new Phase(State.CLOSED, 0, 0, new Window(windowSize), 0));
+	}
+
+	/**
+	 * 当前是否允许调用，不改变状态，用于实例选择前的过滤
+	 */
+	public boolean isCallPermitted() {
+		Phase current = phase.get();
+		return switch (current.state) {
+			case CLOSED -> true;
+			case OPEN -> System.nanoTime() - current.openedAt >= openNanos;
+			case HALF_OPEN -> current.permits.get() > 0;
+		};
+	}
+
+	/**
+	 * 获取调用许可，打开状态到期时转为半开状态
+	 * @return 许可代数，调用结束时传给onComplete；不允许调用时返回NOT_PERMITTED
+	 */
+	public int tryAcquire() {
+		while (true) {
+			Phase current = phase.get();
+			switch (current.state) {
+				case CLOSED:
+					return current.generation;
+				case OPEN:
+					if (System.nanoTime() - current.openedAt < openNanos) {
+						return NOT_PERMITTED;
+					}
+					transition(current, State.HALF_OPEN);
+					// 转换失败说明其他线程已转换，重新读取状态
+					continue;
+				default:
+					while (true) {
+						int permits = current.permits.get();
+						if (permits <= 0) {
+							return NOT_PERMITTED;
+						}
+						if (current.permits.compareAndSet(permits, permits - 1)) {
+							return current.generation;
+						}
+					}
+			}
+		}
+	}
+
+	/**
+	 * 记录调用结果，与成功的tryAcquire一一对应
+	 * @param generation tryAcquire返回的许可代数
+	 * @param latencyNanos 调用耗时
+	 * @param failure 是否失败
+	 */
+	public void onComplete(int generation, long latencyNanos, boolean failure) {
+		Phase current = phase.get();
+		if (current.generation != generation || current.state == State.OPEN) {
+			return;
+		}
+		Window window = current.window;
+		window.record(failure, latencyNanos >= slowCallNanos);
+		int calls = window.getCalls();
+		if (current.state == State.CLOSED) {
+			if (calls >= minimumCalls && isUnhealthy(window, calls)) {
+				transition(current, State.OPEN);
+			}
+		} else if (calls >= halfOpenCalls) {
+			transition(current, isUnhealthy(window, calls) ? State.OPEN : State.CLOSED);
+		}
+	}
+
+	/**
+	 * 获取许可后调用被取消，没有结果可记录，半开状态归还探测许可
+	 * @param generation tryAcquire返回的许可代数
+	 */
+	public void onCancel(int generation) {
+		Phase current = phase.get();
+		if (current.generation == generation && current.state == State.HALF_OPEN) {
+			current.permits.incrementAndGet();
+		}
+	}
+
+	private boolean isUnhealthy(Window window, int calls) {
+		return window.getFailures() * 100f / calls >= failureRateThreshold
+				|| window.getSlowCalls() * 100f / calls >= slowCallRateThreshold;
+	}
+
+	private void transition(Phase from, State to) {
+		Phase next = switch (to) {
+			case CLOSED -> new Phase(State.CLOSED, from.generation + 1, 0, new Window(windowSize), 0);
+			case OPEN -> new Phase(State.OPEN, from.generation + 1, System.nanoTime(), null, 0);
+			case HALF_OPEN -> new Phase(State.HALF_OPEN, from.generation + 1, 0, new Window(halfOpenCalls), halfOpenCalls);
+		};
+		if (phase.compareAndSet(from, next)) {
+			listener.onStateTransition(this, from.state, to);
+		}
+	}
+
+	public State getState() {
+		return phase.get().state;
+	}
+
+	/**
+	 * 当前窗口的失败率(百分比)，调用数不足时为-1
+	 */
+	public float getFailureRate() {
+		Phase current = phase.get();
+		return current.window == null ? -1 : current.window.rate(current.window.getFailures(), minimumCalls(current));
+	}
+
+	/**
+	 * 当前窗口的慢调用率(百分比)，调用数不足时为-1
+	 */
+	public float getSlowCallRate() {
+		Phase current = phase.get();
+		return current.window == null ? -1 : current.window.rate(current.window.getSlowCalls(), minimumCalls(current));
+	}
+
+	private int minimumCalls(Phase current) {
+		return current.state == State.CLOSED ? minimumCalls : halfOpenCalls;
+	}
+
+	/**
+	 * 熔断器的一个阶段，状态转换时整体替换
+	 */
+	private static final class Phase {
+
+		private final State state;
+		private final int generation;
+		/**
+		 * 打开的时间(纳秒)，仅OPEN状态有效
+		 */
+		private final long openedAt;
+		/**
+		 * 调用结果窗口，OPEN状态为null
+		 */
+		private final Window window;
+		/**
+		 * 剩余的探测许可，仅HALF_OPEN状态有效
+		 */
+		private final AtomicInteger permits;
+
+		private Phase(State state, int generation, long openedAt, Window window, int permits) {
+			this.state = state;
+			this.generation = generation;
+			this.openedAt = openedAt;
+			this.window = window;
+			this.permits = new AtomicInteger(permits);
+		}
+	}
+
+	/**
+	 * 基于计数的滑动窗口，环形数组保存最近N次调用的结果，新结果覆盖最旧的结果并增量维护计数
+	 */
+	private static final class Window {
+
+		private static final int RECORDED = 1;
+		private static final int FAILURE = 2;
+		private static final int SLOW = 4;
+
+		private final AtomicIntegerArray outcomes;
+		private final AtomicInteger cursor = new AtomicInteger();
+		private final AtomicInteger calls = new AtomicInteger();
+		private final AtomicInteger failures = new AtomicInteger();
+		private final AtomicInteger slowCalls = new AtomicInteger();
+
+		private Window(int size) {
+			this.outcomes = new AtomicIntegerArray(size);
+		}
+
+		private void record(boolean failure, boolean slow) {
+			int outcome = RECORDED | (failure ? FAILURE : 0) | (slow ? SLOW : 0);
+			int index = Math.floorMod(cursor.getAndIncrement(), outcomes.length());
+			int previous = outcomes.getAndSet(index, outcome);
+			if (previous == 0) {
+				calls.incrementAndGet();
+			}
+			adjust(failures, previous, outcome, FAILURE);
+			adjust(slowCalls, previous, outcome, SLOW);
+		}
+
+		private static void adjust(AtomicInteger counter, int previous, int outcome, int flag) {
+			int delta = ((outcome & flag) != 0 ? 1 : 0) - ((previous & flag) != 0 ? 1 : 0);
+			if (delta != 0) {
+				counter.addAndGet(delta);
+			}
+		}
+
+		private int getCalls() {
+			return calls.get();
+		}
+
+		private int getFailures() {
+			return failures.get();
+		}
+
+		private int getSlowCalls() {
+			return slowCalls.get();
+		}
+
+		private float rate(int count, int minimumCalls) {
+			int total = calls.get();
+			return total < minimumCalls ? -1 : count * 100f / total;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.easy.consumer;
+
+/**
+ * 熔断器事件监听，回调在触发状态转换的调用线程(通常为事件循环线程)执行，不应阻塞
+ */
+public interface CircuitBreakerListener {
+
+	/**
+	 * 新的服务实例第一次被调用时创建熔断器
+	 * @param breaker 熔断器
+	 */
+	default void onCreated(CircuitBreaker breaker) {
+	}
+
+	/**
+	 * 服务实例下线后移除熔断器
+	 * @param breaker 熔断器
+	 */
+	default void onRemoved(CircuitBreaker breaker) {
+	}
+
+	/**
+	 * 熔断器状态转换
+	 * @param breaker 熔断器
+	 * @param from 原状态
+	 * @param to 新状态
+	 */
+	void onStateTransition(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to);
+}
@@ -0,0 +1,137 @@
+package com.easy.consumer;
+
+import com.easy.config.RpcProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 服务实例熔断器，按服务实例的host:port区分，实例元数据变化后重新注册时保留原有状态
+ * 实例从服务发现中下线后移除其熔断器
+ */
+@Slf4j
+public class CircuitBreakerRegistry implements CircuitBreakerListener {
+
+	private final RpcProperties.CircuitBreaker config;
+	private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+	private final List<CircuitBreakerListener> listeners = new CopyOnWriteArrayList<>();
+
+	public CircuitBreakerRegistry(RpcProperties.CircuitBreaker config) {
+		this.config = config;
+	}
+
+	/**
+	 * 获取实例的熔断器，不存在时创建
+	 * @param instance 服务实例
+	 * @return 熔断器
+	 */
+	public CircuitBreaker get(RpcProperties.ServiceInstance instance) {
+		String address = address(instance);
+		CircuitBreaker breaker = breakers.get(address);
+		return breaker != null ? breaker : create(address);
+	}
+
+	private CircuitBreaker create(String address) {
+		CircuitBreaker created = new CircuitBreaker(address, config, this);
+		CircuitBreaker existing = breakers.putIfAbsent(address, created);
+		if (existing != null) {
+			return existing;
+		}
+		onCreated(created);
+		return created;
+	}
+
+	/**
+	 * 过滤掉熔断打开的实例
+	 * @param instances 实例列表
+	 * @return 所有实例都允许调用时返回原列表，否则返回新列表
+	 */
+	public List<RpcProperties.ServiceInstance> filter(List<RpcProperties.ServiceInstance> instances) {
+		int size = instances.size();
+		for (int i = 0; i < size; i++) {
+			if (!get(instances.get(i)).isCallPermitted()) {
+				List<RpcProperties.ServiceInstance> permitted = new ArrayList<>(size - 1);
+				for (int j = 0; j < size; j++) {
+					RpcProperties.ServiceInstance instance = instances.get(j);
+					if (j < i || (j > i && get(instance).isCallPermitted())) {
+						permitted.add(instance);
+					}
+				}
+				return permitted;
+			}
+		}
+		return instances;
+	}
+
+	/**
+	 * 移除已下线实例的熔断器
+	 * @param addresses 仍在服务发现中的实例地址(host:port)
+	 */
+	public void retain(Set<String> addresses) {
+		for (CircuitBreaker breaker : breakers.values()) {
+			if (!addresses.contains(breaker.getInstance()) && breakers.remove(breaker.getInstance(), breaker)) {
+				onRemoved(breaker);
+			}
+		}
+	}
+
+	private static String address(RpcProperties.ServiceInstance instance) {
+		return instance.getAddress();
+	}
+
+	/**
+	 * 所有实例的熔断器
+	 */
+	public Collection<CircuitBreaker> getCircuitBreakers() {
+		return List.copyOf(breakers.values());
+	}
+
+	/**
+	 * 注册熔断器事件监听，注册时对已有熔断器立即回调onCreated
+	 * @param listener 监听
+	 */
+	public void addListener(CircuitBreakerListener listener) {
+		listeners.add(listener);
+		breakers.values().forEach(listener::onCreated);
+	}
+
+	@Override
+	public void onCreated(CircuitBreaker breaker) {
+		for (CircuitBreakerListener listener : listeners) {
+			listener.onCreated(breaker);
+		}
+	}
+
+	@Override
+	public void onRemoved(CircuitBreaker breaker) {
+		for (CircuitBreakerListener listener : listeners) {
+			try {
+				listener.onRemoved(breaker);
+			} catch (RuntimeException e) {
+				log.warn("Circuit breaker listener failed", e);
+			}
+		}
+	}
+
+	@Override
+	public void onStateTransition(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to) {
+		if (to == CircuitBreaker.State.OPEN) {
+			log.warn("Circuit breaker of {} {} -> {}", breaker.getInstance(), from, to);
+		} else {
+			log.info("Circuit breaker of {} {} -> {}", breaker.getInstance(), from, to);
+		}
+		for (CircuitBreakerListener listener : listeners) {
+			try {
+				listener.onStateTransition(breaker, from, to);
+			} catch (RuntimeException e) {
+				log.warn("Circuit breaker listener failed", e);
+			}
+		}
+	}
+}
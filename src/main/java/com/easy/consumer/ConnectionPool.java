@@ -0,0 +1,130 @@
+package com.easy.consumer;
+
+import com.easy.codec.Compression;
+import com.easy.config.RpcProperties;
+import com.easy.transport.FrameCodec;
+import com.easy.transport.FrameWriter;
+import com.easy.transport.WriteBatchStats;
+import io.vertx.core.Vertx;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetClientOptions;
+import io.vertx.core.net.NetSocket;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 长连接池，每个服务地址(host:port)维护固定数量的连接，请求在连接间轮询复用
+ * 实例从服务发现中下线后移除其连接
+ */
+public class ConnectionPool implements AutoCloseable {
+
+	private final NetClient netClient;
+	private final FrameCodec frameCodec;
+	private final RpcProperties.Transport transport;
+	private final WriteBatchStats writeBatchStats;
+	private final Compression compression;
+	private final int connections;
+	private final Map<String, Slots> slotsMap = new ConcurrentHashMap<>();
+
+	public ConnectionPool(Vertx vertx, RpcProperties.Consumer consumer, RpcProperties.Transport transport,
+			WriteBatchStats writeBatchStats, Compression compression) {
+		this.frameCodec = new FrameCodec(transport.getMaxFrameSize());
+		this.transport = transport;
+		this.writeBatchStats = writeBatchStats;
+		this.compression = compression;
+		this.connections = Math.max(1, consumer.getConnections());
+		this.netClient = vertx.createNetClient(new NetClientOptions()
+				.setConnectTimeout(consumer.getConnectTimeout())
+				.setTcpNoDelay(true)
+				.setTcpKeepAlive(true));
+	}
+
+	/**
+	 * 获取到服务实例的连接，连接不存在或已断开时重新建立
+	 * @param instance 服务实例
+	 * @return 连接
+	 */
+	public CompletableFuture<RpcConnection> acquire(RpcProperties.ServiceInstance instance) {
+		Slots slots = slotsMap.computeIfAbsent(instance.getAddress(), k -> new Slots(connections));
+		int index = Math.floorMod(slots.next.getAndIncrement(), connections);
+		while (true) {
+			CompletableFuture<RpcConnection> current = slots.connections.get(index);
+			if (current != null && !isBroken(current)) {
+				return current;
+			}
+			CompletableFuture<RpcConnection> created = new CompletableFuture<>();
+			if (slots.connections.compareAndSet(index, current, created)) {
+				connect(instance, created);
+				return created;
+			}
+		}
+	}
+
+	private void connect(RpcProperties.ServiceInstance instance, CompletableFuture<RpcConnection> future) {
+		netClient.connect(instance.getPort(), instance.getHost(), ar -> {
+			if (ar.succeeded()) {
+				NetSocket socket = ar.result();
+				FrameWriter frameWriter = new FrameWriter(socket, Vertx.currentContext(), transport, writeBatchStats);
+				future.complete(new RpcConnection(socket, frameCodec, frameWriter, compression));
+			} else {
+				future.completeExceptionally(new RuntimeException("Connect failed: " + ar.cause()));
+			}
+		});
+	}
+
+	private boolean isBroken(CompletableFuture<RpcConnection> future) {
+		if (!future.isDone()) {
+			return false;
+		}
+		return future.isCompletedExceptionally() || !future.join().isActive();
+	}
+
+	/**
+	 * 移除已下线实例的连接，连接上进行中的请求完成后关闭
+	 * @param addresses 仍在服务发现中的实例地址(host:port)
+	 */
+	public void retain(Set<String> addresses) {
+		for (Map.Entry<String, Slots> entry : slotsMap.entrySet()) {
+			if (!addresses.contains(entry.getKey()) && slotsMap.remove(entry.getKey(), entry.getValue())) {
+				entry.getValue().forEach(RpcConnection::closeWhenIdle);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		for (Slots slots : slotsMap.values()) {
+			slots.forEach(RpcConnection::close);
+		}
+		slotsMap.clear();
+		netClient.close();
+	}
+
+	private static final class Slots {
+
+		private final AtomicInteger next = new AtomicInteger();
+		private final AtomicReferenceArray<CompletableFuture<RpcConnection>> connections;
+
+		private Slots(int size) {
+			this.connections = new AtomicReferenceArray<>(size);
+		}
+
+		/**
+		 * 对已建立或正在建立的连接执行操作
+		 */
+		private void forEach(Consumer<RpcConnection> action) {
+			for (int i = 0; i < connections.length(); i++) {
+				CompletableFuture<RpcConnection> future = connections.get(i);
+				if (future != null) {
+					future.thenAccept(action);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.easy.consumer;
+
+import com.easy.config.RpcProperties;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 各接口最近一次服务发现的实例列表，列表变化时给出仍在服务发现中的实例地址(host:port)，
+ * 客户端据此清理已下线实例的连接、统计、熔断器和调用记录器
+ */
+final class DiscoveredInstances {
+
+	/**
+	 * 接口 -> 最近一次发现的实例列表
+	 */
+	private final Map<String, List<RpcProperties.ServiceInstance>> discovered = new ConcurrentHashMap<>();
+
+	/**
+	 * 记录接口的实例列表，服务发现在实例未变化时应返回同一个列表对象
+	 * @param interfaceName 接口名称
+	 * @param instances 服务发现返回的实例列表
+	 * @return 列表变化时返回所有接口的实例地址，未变化时返回null
+	 */
+	Set<String> update(String interfaceName, List<RpcProperties.ServiceInstance> instances) {
+		if (discovered.get(interfaceName) == instances) {
+			return null;
+		}
+		synchronized (this) {
+			if (discovered.put(interfaceName, instances) == instances) {
+				return null;
+			}
+			Set<String> addresses = new HashSet<>();
+			for (List<RpcProperties.ServiceInstance> list : discovered.values()) {
+				for (RpcProperties.ServiceInstance instance : list) {
+					addresses.add(instance.getAddress());
+				}
+			}
+			return addresses;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.easy.consumer;
+
+import com.easy.config.RpcProperties;
+import com.easy.metrics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个方法的对冲延迟，配置了固定延迟时直接使用，否则取最近一段时间实测耗时的分位数
+ * 分位数每秒从直方图重新计算一次，直方图定期替换以跟随耗时变化
+ */
+final class HedgeDelay {
+
+	private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final long RESET_NANOS = TimeUnit.SECONDS.toNanos(30);
+	/**
+	 * 样本数达到该值后才计算分位数，之前不对冲
+	 */
+	private static final int MIN_SAMPLES = 100;
+
+	private final long fixedDelayMillis;
+	private final double percentile;
+	private volatile LatencyHistogram histogram = new LatencyHistogram();
+	private volatile long histogramStart = System.nanoTime();
+	private final AtomicLong nextRefresh = new AtomicLong(System.nanoTime() + REFRESH_NANOS);
+	private volatile long delayMillis = -1;
+
+	HedgeDelay(RpcProperties.Hedging hedging) {
+		this.fixedDelayMillis = hedging.getDelayMillis();
+		this.percentile = Math.min(1.0, Math.max(0.0, hedging.getPercentile()));
+	}
+
+	/**
+	 * 当前的对冲延迟(毫秒)，样本不足时为-1，表示不对冲
+	 */
+	long delayMillis() {
+		return fixedDelayMillis > 0 ? fixedDelayMillis : delayMillis;
+	}
+
+	/**
+	 * 记录一次成功调用的耗时
+	 * @param latencyNanos 耗时
+	 */
+	void record(long latencyNanos) {
+		if (fixedDelayMillis > 0) {
+			return;
+		}
+		histogram.record(latencyNanos);
+		long now = System.nanoTime();
+		long next = nextRefresh.get();
+		if (now >= next && nextRefresh.compareAndSet(next, now + REFRESH_NANOS)) {
+			refresh(now);
+		}
+	}
+
+	private void refresh(long now) {
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		if (snapshot.getCount() >= MIN_SAMPLES) {
+			delayMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(snapshot.percentile(percentile)));
+			if (now - histogramStart >= RESET_NANOS) {
+				// 新直方图样本不足期间沿用当前延迟
+				histogram = new LatencyHistogram();
+				histogramStart = now;
+			}
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package com.easy.consumer;
 
 import com.easy.annotation.Reference;
+import com.easy.codec.MethodCodec;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.ApplicationContext;
@@ -15,7 +16,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ReferenceProcessor implements BeanPostProcessor, ApplicationContextAware {
 
 	private ApplicationContext applicationContext;
-	private final Map<Class<?>, Object> referenceProxyCache = new ConcurrentHashMap<>();
+	private final Map<ReferenceKey, Object> referenceProxyCache = new ConcurrentHashMap<>();
 
 	@Override
 	public void setApplicationContext(@NonNull ApplicationContext applicationContext) throws BeansException {
@@ -25,17 +26,15 @@ public class ReferenceProcessor implements BeanPostProcessor, ApplicationContext
 	@Override
 	public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) throws BeansException {
 		for (Field field : bean.getClass().getDeclaredFields()) {
-			if (field.isAnnotationPresent(Reference.class)) {
+			Reference reference = field.getAnnotation(Reference.class);
+			if (reference != null) {
 				field.setAccessible(true);
-				// 代理对象复用
-				referenceProxyCache.computeIfAbsent(field.getType(), k -> Proxy.newProxyInstance(k.getClassLoader(), new Class[]{k},
-						(proxy, method, args) -> {
-							// 使用RPC客户端调用远程服务
-							RpcClient rpcClient = applicationContext.getBean(RpcClient.class);
-							return rpcClient.callSync(k.getName(), method, args, method.getReturnType());
-						}));
+				// 相同接口和引用配置的代理对象复用
+				CallOptions options = new CallOptions(reference.timeout(), reference.hedging(), reference.retries(),
+						reference.singleFlight());
+				Object proxy = referenceProxyCache.computeIfAbsent(new ReferenceKey(field.getType(), options), this::createProxy);
 				try {
-					field.set(bean, referenceProxyCache.get(field.getType()));
+					field.set(bean, proxy);
 				} catch (IllegalAccessException e) {
 					throw new RuntimeException(e);
 				}
@@ -43,4 +42,38 @@ public class ReferenceProcessor implements BeanPostProcessor, ApplicationContext
 		}
 		return bean;
 	}
+
+	private Object createProxy(ReferenceKey key) {
+		Class<?> k = key.type();
+		return Proxy.newProxyInstance(k.getClassLoader(), new Class[]{k},
+				(proxy, method, args) -> {
+					if (method.getDeclaringClass() == Object.class) {
+						// equals/hashCode/toString在本地处理，不发起远程调用
+						return switch (method.getName()) {
+							case "equals" -> proxy == args[0];
+							case "hashCode" -> System.identityHashCode(proxy);
+							default -> "EasyRpc reference to " + k.getName() + " " + key.options();
+						};
+					}
+					// 使用RPC客户端调用远程服务
+					RpcClient rpcClient = applicationContext.getBean(RpcClient.class);
+					if (MethodCodec.isStreaming(method)) {
+						// 流式方法返回结果流，元素到达后即可消费
+						return rpcClient.callStream(k.getName(), method, args, key.options()).as(method.getReturnType());
+					}
+					if (MethodCodec.isAsync(method)) {
+						// 异步方法直接返回future，不阻塞调用线程
+						return rpcClient.callAsync(k.getName(), method, args, key.options());
+					}
+					return rpcClient.callSync(k.getName(), method, args, method.getReturnType(), key.options());
+				});
+	}
+
+	/**
+	 * 代理缓存key
+	 * @param type 接口类型
+	 * @param options 引用级调用选项
+	 */
+	private record ReferenceKey(Class<?> type, CallOptions options) {
+	}
 }
@@ -0,0 +1,62 @@
+package com.easy.consumer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 额外请求(对冲、重试)的令牌预算: 每次调用存入percent/100个令牌，每个额外请求取出一个令牌
+ * 长期来看额外请求数不超过调用数的percent%，余额上限限制了空闲之后的突发
+ */
+final class RequestBudget {
+
+	/**
+	 * 令牌以1/1000为单位存储，避免浮点数CAS
+	 */
+	private static final long UNIT = 1000;
+	/**
+	 * 最多累积的额外请求数
+	 */
+	private static final long MAX_BURST = 10;
+
+	private final long deposit;
+	private final long capacity;
+	private final AtomicLong balance = new AtomicLong();
+
+	RequestBudget(double percent) {
+		this.deposit = Math.max(0, Math.round(percent * UNIT / 100));
+		this.capacity = MAX_BURST * UNIT;
+	}
+
+	/**
+	 * 一次调用，存入令牌
+	 */
+	void deposit() {
+		if (deposit == 0) {
+			return;
+		}
+		while (true) {
+			long current = balance.get();
+			if (current >= capacity) {
+				return;
+			}
+			if (balance.compareAndSet(current, Math.min(capacity, current + deposit))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 尝试为一个额外请求取出令牌
+	 * @return 是否取出成功，失败时不应发送额外请求
+	 */
+	boolean tryWithdraw() {
+		while (true) {
+			long current = balance.get();
+			if (current < UNIT) {
+				return false;
+			}
+			if (balance.compareAndSet(current, current - UNIT)) {
+				return true;
+			}
+		}
+	}
+}
@@ -1,21 +1,47 @@
 package com.easy.consumer;
 
+import com.easy.annotation.CacheResult;
+import com.easy.annotation.Idempotent;
+import com.easy.cache.ResultCache;
+import com.easy.cache.ResultCacheRegistry;
+import com.easy.codec.Compression;
+import com.easy.codec.CompressionStats;
+import com.easy.codec.MethodCodec;
+import com.easy.codec.PayloadCodecs;
 import com.easy.config.RpcProperties;
+import com.easy.loadbalance.InstanceStats;
+import com.easy.loadbalance.InstanceStatsRegistry;
+import com.easy.loadbalance.LoadBalancer;
+import com.easy.loadbalance.LoadBalancerLoader;
+import com.easy.metrics.CallRecorder;
+import com.easy.metrics.MetricsRecorder;
+import com.easy.metrics.MetricsRecorderLoader;
+import com.easy.metrics.Side;
 import com.easy.registry.Registry;
 import com.easy.registry.RegistryLoader;
+import com.easy.transport.ResponseCode;
+import com.easy.transport.WriteBatchStats;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.protobuf.ByteString;
 import io.vertx.core.Vertx;
 import io.vertx.core.WorkerExecutor;
-import io.vertx.core.buffer.Buffer;
-import io.vertx.core.net.NetClient;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import rpc.Rpc;
 
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 public class RpcClient implements AutoCloseable{
@@ -23,18 +49,63 @@ public class RpcClient implements AutoCloseable{
 	private final Registry registry;
 	private final Vertx vertx = Vertx.vertx();
 	private final RpcProperties rpcProperties;
-	private final Random random = new Random();
-	public static final int SUCCESS_CODE = 200;
-	private final ObjectMapper objectMapper = new ObjectMapper();
+	public static final int SUCCESS_CODE = ResponseCode.SUCCESS;
+	private final ObjectMapper objectMapper;
+	/**
+	 * 接口 -> 方法 -> 调用路径上使用的方法状态，继承自同一父接口的方法在不同接口上各有一份
+	 */
+	private final Map<String, Map<Method, MethodState>> methodStates = new ConcurrentHashMap<>();
 	private final WorkerExecutor worker = vertx.createSharedWorkerExecutor("rpc-worker-pool");
+	private final ConnectionPool connectionPool;
+	private final DiscoveredInstances discoveredInstances = new DiscoveredInstances();
+	/**
+	 * 接口 -> 负载均衡策略
+	 */
+	private final Map<String, LoadBalancer> loadBalancers = new ConcurrentHashMap<>();
+	private final InstanceStatsRegistry instanceStatsRegistry = new InstanceStatsRegistry();
+	@Getter
+	private final WriteBatchStats writeBatchStats = new WriteBatchStats();
+	private final Compression compression;
+	private final MetricsRecorder metricsRecorder;
+	/**
+	 * 服务实例熔断器，未启用熔断时为null
+	 */
+	@Getter
+	private final CircuitBreakerRegistry circuitBreakerRegistry;
+	private final RequestBudget hedgeBudget;
+	private final RequestBudget retryBudget;
+	/**
+	 * 接口方法 -> 结果缓存，只有@CacheResult方法有缓存，继承自同一父接口的方法在不同接口上各有一份
+	 */
+	private final ResultCacheRegistry<MethodState> resultCaches = new ResultCacheRegistry<>();
+	/**
+	 * 进行中的可合并调用
+	 */
+	@Getter
+	private final SingleFlight singleFlight = new SingleFlight();
 
 	public RpcClient(RpcProperties props) {
+		this(props, MetricsRecorderLoader.load(props.getMetrics().getType()));
+	}
+
+	public RpcClient(RpcProperties props, MetricsRecorder metricsRecorder) {
 		this.rpcProperties = props;
+		this.metricsRecorder = metricsRecorder;
 		this.registry = RegistryLoader.load(rpcProperties.getRegistry());
+		this.objectMapper = PayloadCodecs.createObjectMapper(rpcProperties.getCodec());
+		this.compression = new Compression(rpcProperties.getTransport());
+		this.connectionPool = new ConnectionPool(vertx, rpcProperties.getConsumer(), rpcProperties.getTransport(),
+				writeBatchStats, compression);
+		RpcProperties.CircuitBreaker circuitBreaker = rpcProperties.getConsumer().getCircuitBreaker();
+		this.circuitBreakerRegistry = circuitBreaker.isEnabled() ? new CircuitBreakerRegistry(circuitBreaker) : null;
+		this.hedgeBudget = new RequestBudget(rpcProperties.getConsumer().getHedging().getBudgetPercent());
+		this.retryBudget = new RequestBudget(rpcProperties.getConsumer().getRetry().getBudgetPercent());
 	}
 
 	/**
 	 * 同步调用RPC服务，线程安全，可在Vert.x事件循环线程调用
+	 * 只有事件循环线程上的调用经过worker线程池，其他线程直接等待结果，
+	 * 虚拟线程不会处于事件循环上下文，等待期间让出载体线程
 	 * @param interfaceName 接口名称
 	 * @param method 方法对象
 	 * @param args 参数数组
@@ -43,9 +114,27 @@ public class RpcClient implements AutoCloseable{
 	 * @return 调用结果
 	 */
 	public <T> T callSync(String interfaceName, Method method, Object[] args, Class<T> returnType) {
+		return callSync(interfaceName, method, args, returnType, CallOptions.DEFAULT);
+	}
+
+	/**
+	 * 同步调用RPC服务，指定引用级超时时间
+	 * @param timeoutMillis 引用级超时时间(毫秒)，0表示使用配置
+	 * @see #callAsync(String, Method, Object[], CallOptions)
+	 */
+	public <T> T callSync(String interfaceName, Method method, Object[] args, Class<T> returnType, long timeoutMillis) {
+		return callSync(interfaceName, method, args, returnType, CallOptions.timeout(timeoutMillis));
+	}
+
+	/**
+	 * 同步调用RPC服务，指定引用级调用选项
+	 * @param options 引用级调用选项
+	 * @see #callAsync(String, Method, Object[], CallOptions)
+	 */
+	public <T> T callSync(String interfaceName, Method method, Object[] args, Class<T> returnType, CallOptions options) {
 		if (Vertx.currentContext() != null && Vertx.currentContext().isEventLoopContext()) {
 			CompletableFuture<T> future = new CompletableFuture<>();
-			worker.executeBlocking(() -> callSyncInternal(interfaceName, method, args, returnType), res -> {
+			worker.executeBlocking(() -> callSyncInternal(interfaceName, method, args, returnType, options), res -> {
 				if (res.succeeded()) {
 					future.complete(res.result());
 				} else {
@@ -59,20 +148,28 @@ public class RpcClient implements AutoCloseable{
 				throw new RuntimeException("EasyRpc call failed", e);
 			}
 		} else {
-			return callSyncInternal(interfaceName, method, args, returnType);
+			return callSyncInternal(interfaceName, method, args, returnType, options);
 		}
 	}
 
 	/**
 	 * 内部同步调用逻辑，不涉及事件循环线程判断
+	 * CompletableFuture.get基于LockSupport.park，虚拟线程等待时不会固定载体线程
 	 */
-	private <T> T callSyncInternal(String interfaceName, Method method, Object[] args, Class<T> returnType) {
+	private <T> T callSyncInternal(String interfaceName, Method method, Object[] args, Class<T> returnType, CallOptions options) {
 		try {
-			CompletableFuture<Object> future = callAsync(interfaceName, method, args);
+			// 超过截止时间时future以TimeoutException完成，无需限时等待
+			CompletableFuture<Object> future = callAsync(interfaceName, method, args, options);
 			Object result = future.get();
 			if (returnType == Void.class || result == null) {
 				return null;
 			}
+			if (returnType.isPrimitive()) {
+				// 基本类型按包装类型检查，由代理自动拆箱；int.class的类型参数即为Integer
+				@SuppressWarnings("unchecked")
+				T value = (T) MethodType.methodType(returnType).wrap().returnType().cast(result);
+				return value;
+			}
 			return returnType.cast(result);
 		} catch (Exception e) {
 			throw new RuntimeException("EasyRpc call failed", e);
@@ -81,70 +178,749 @@ public class RpcClient implements AutoCloseable{
 
 	/**
 	 * 异步调用RPC服务
+	 * 返回类型为CompletableFuture/CompletionStage的方法按泛型参数解码结果，
+	 * future在客户端事件循环线程完成，回调中不应执行阻塞操作
 	 * @param interfaceName 接口名称
 	 * @param method 方法名称
 	 * @param args 参数
 	 * @return CompletableFuture对象，包含调用结果或异常
 	 */
 	public <T> CompletableFuture<T> callAsync(String interfaceName, Method method, Object[] args) {
+		return callAsync(interfaceName, method, args, CallOptions.DEFAULT);
+	}
+
+	/**
+	 * 异步调用RPC服务，指定引用级超时时间
+	 * @param timeoutMillis 引用级超时时间(毫秒)，0表示使用配置
+	 * @see #callAsync(String, Method, Object[], CallOptions)
+	 */
+	public <T> CompletableFuture<T> callAsync(String interfaceName, Method method, Object[] args, long timeoutMillis) {
+		return callAsync(interfaceName, method, args, CallOptions.timeout(timeoutMillis));
+	}
+
+	/**
+	 * 异步调用RPC服务，超时时间在调用方转换为本地截止时间，每次发送请求时携带剩余的超时时间，
+	 * 提供者以收到请求的时间为起点计算截止时间并丢弃已过期的请求，不依赖双方时钟一致
+	 * 超时时间优先级: 方法级配置 > 引用级超时(@Reference) > 接口级配置 > 默认配置
+	 * 开启对冲时，@Idempotent方法的请求超过对冲延迟未响应则向另一个实例再发一次，取先返回的结果并取消另一个
+	 * 配置了重试的@Idempotent方法在连接失败、过载拒绝或服务端异常时退避后换一个实例重试，重试次数受预算限制
+	 * @CacheResult方法先按序列化后的参数查询结果缓存，成功的结果写入缓存
+	 * 开启合并时，@Idempotent方法参数相同的调用进行中则等待它的结果，不再发送请求，超时时间以进行中的调用为准
+	 * @param options 引用级调用选项
+	 */
+	public <T> CompletableFuture<T> callAsync(String interfaceName, Method method, Object[] args, CallOptions options) {
 		CompletableFuture<T> future = new CompletableFuture<>();
-		// 可用的服务实例
-		List<RpcProperties.ServiceInstance> instances = registry.discover(rpcProperties.getInstance(), interfaceName);
-		if (instances == null || instances.isEmpty()) {
-			future.completeExceptionally(new RuntimeException("No available service instance for " + interfaceName));
-			return future;
-		}
-		// 简化处理，实际应用中可使用负载均衡策略
-		RpcProperties.ServiceInstance serviceInstance = instances.get(random.nextInt(instances.size()));
+		SingleFlight.Flight flight = null;
 		// 封装请求参数
 		try {
 			Rpc.RpcRequest.Builder request = Rpc.RpcRequest.newBuilder()
 					.setInterfaceName(interfaceName)
 					.setMethodName(method.getName());
+			MethodState state = state(interfaceName, method);
+			MethodCodec codec = state.codec;
+			long bytes = 0;
 			if (args != null) {
-				for (Object a : args) {
-					byte[] bs = objectMapper.writeValueAsBytes(a);
-					request.addParams(ByteString.copyFrom(bs));
+				for (int i = 0; i < args.length; i++) {
+					ByteString param = codec.encodeParam(i, args[i]);
+					bytes += param.size();
+					request.addParams(param);
 				}
 			}
-			// 创建NetClient连接到服务实例, 获取异步结果
-			Class<?> returnType = method.getReturnType();
-			NetClient client = vertx.createNetClient();
-			client.connect(serviceInstance.getPort(), serviceInstance.getHost(), asyncResult -> {
-				if (!asyncResult.succeeded()) {
-					future.completeExceptionally(new RuntimeException("Connect failed: " + asyncResult.cause()));
+			// 命中结果缓存时直接返回，不选择实例也不发送请求
+			ResultCache cache = resultCaches.get(state, this::createResultCache);
+			ByteString cacheKey = null;
+			if (cache != null) {
+				cacheKey = ResultCache.key(request.getParamsList());
+				ByteString cached = cache.get(cacheKey);
+				if (cached != null) {
+					deliver(future, codec, cached);
+					return future;
+				}
+			}
+			// 合并参数相同的进行中调用
+			if (options.singleFlight() && state.isSingleFlight()) {
+				flight = singleFlight.join(interfaceName, method, cacheKey != null ? cacheKey : ResultCache.key(request.getParamsList()));
+				if (!flight.isLeader()) {
+					// 相同调用进行中，等待它的结果各自反序列化，不选择实例也不发送请求
+					flight.result().whenComplete((data, ex) -> {
+						if (ex != null) {
+							future.completeExceptionally(unwrap(ex));
+						} else {
+							deliver(future, codec, data);
+						}
+					});
+					return future;
+				}
+			}
+			RpcProperties.ServiceInstance serviceInstance = select(interfaceName, null);
+			long timeout = state.timeout(options.timeoutMillis());
+			long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+			int retries = state.retries(options.retries());
+			HedgeDelay hedgeDelay = options.hedging() ? state.hedgeDelay() : null;
+			Call<T> call = new Call<>(state, request, bytes, timeout, deadlineNanos, retries, hedgeDelay,
+					cache, cacheKey, flight, future);
+			if (retries > 0) {
+				retryBudget.deposit();
+			}
+			execute(call, serviceInstance, 0);
+		} catch (Exception e) {
+			if (flight != null && flight.isLeader()) {
+				flight.fail(e);
+			}
+			future.completeExceptionally(e);
+		}
+
+		return future;
+	}
+
+	/**
+	 * 调用流式方法(返回Flow.Publisher、Stream或Iterator)，提供者逐个发送元素，调用方按消费进度归还额度
+	 * 截止时间约束流的开始，阻塞读取时每个元素的等待时间也不超过超时时间；流式调用不使用结果缓存、合并、对冲和重试
+	 * @param interfaceName 接口名称
+	 * @param method 方法对象
+	 * @param args 参数数组
+	 * @param options 引用级调用选项
+	 * @return 结果流，请求失败时以错误结束
+	 */
+	public <T> RpcStream<T> callStream(String interfaceName, Method method, Object[] args, CallOptions options) {
+		MethodState state = state(interfaceName, method);
+		MethodCodec codec = state.codec;
+		long timeout = state.timeout(options.timeoutMillis());
+		long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		RpcStream<T> stream = new RpcStream<>(interfaceName, method.getName(), codec, compression,
+				rpcProperties.getConsumer().getStreamWindow(), timeout);
+		try {
+			Rpc.RpcRequest.Builder request = Rpc.RpcRequest.newBuilder()
+					.setInterfaceName(interfaceName)
+					.setMethodName(method.getName());
+			long bytes = 0;
+			if (args != null) {
+				for (int i = 0; i < args.length; i++) {
+					ByteString param = codec.encodeParam(i, args[i]);
+					bytes += param.size();
+					request.addParams(param);
+				}
+			}
+			RpcProperties.ServiceInstance instance = select(interfaceName, null);
+			CallRecorder recorder = state.recorder(instance);
+			long start = System.nanoTime();
+			long requestBytes = bytes;
+			recorder.onStart();
+			stream.completion().whenComplete((v, ex) -> recorder.onComplete(System.nanoTime() - start, ex == null,
+					requestBytes, stream.getResponseBytes()));
+			connectionPool.acquire(instance).whenComplete((connection, ex) -> {
+				if (ex != null) {
+					stream.onError(unwrap(ex));
+				} else if (!applyTimeout(request, timeout, deadlineNanos)) {
+					stream.onError(new TimeoutException("Deadline exceeded after " + timeout + "ms: " + interfaceName + "#" + method.getName()));
+				} else {
+					connection.openStream(request, stream);
+				}
+			});
+		} catch (Exception e) {
+			stream.onError(e);
+		}
+		return stream;
+	}
+
+	/**
+	 * 向选定的实例执行一次调用(开启对冲时可能发出两个请求)，失败时按重试策略换一个实例重试
+	 * @param call 调用
+	 * @param instance 服务实例
+	 * @param retry 已重试次数
+	 */
+	private <T> void execute(Call<T> call, RpcProperties.ServiceInstance instance, int retry) {
+		CompletableFuture<Rpc.RpcResponse> response = call.hedgeDelay() != null
+				? hedge(call, instance) : attempt(call, instance, false).response();
+		response.whenComplete((resp, ex) -> {
+			if (retry < call.maxRetries() && isRetryable(resp, unwrap(ex))) {
+				long backoff = backoff(retry);
+				// 退避结束前已到截止时间的调用不再重试，预算不足时放弃重试
+				if ((call.timeout() <= 0 || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) - call.deadlineNanos() < 0)
+						&& retryBudget.tryWithdraw()) {
+					vertx.setTimer(backoff, id -> retry(call, instance, retry + 1));
 					return;
 				}
-				asyncResult.result().handler(buffer -> {
-					try {
-						Rpc.RpcResponse resp = Rpc.RpcResponse.parseFrom(buffer.getBytes());
-						if (resp.getCode() == SUCCESS_CODE) {
-							if (returnType.equals(Void.class)) {
-								future.complete(null);
-							} else {
-								T result = objectMapper.readValue(resp.getData().toByteArray(), (Class<T>) returnType);
-								future.complete(result);
-							}
+			}
+			complete(call, resp, ex);
+		});
+	}
+
+	/**
+	 * 换一个实例重试，只有一个可用实例时在原实例上重试
+	 */
+	private <T> void retry(Call<T> call, RpcProperties.ServiceInstance previous, int retry) {
+		RpcProperties.ServiceInstance next;
+		try {
+			next = select(call.interfaceName(), previous);
+		} catch (RuntimeException e) {
+			try {
+				next = select(call.interfaceName(), null);
+			} catch (RuntimeException noInstance) {
+				call.future().completeExceptionally(noInstance);
+				return;
+			}
+		}
+		execute(call, next, retry);
+	}
+
+	/**
+	 * 带随机抖动的指数退避: 在0到 min(最大退避, 初始退避 * 2^重试次数) 之间均匀随机
+	 * @param retry 已重试次数
+	 * @return 退避时间(毫秒)，不小于1
+	 */
+	private long backoff(int retry) {
+		RpcProperties.Retry config = rpcProperties.getConsumer().getRetry();
+		long cap = Math.min(config.getMaxBackoffMillis(), config.getBackoffMillis() << Math.min(retry, 20));
+		return Math.max(1, ThreadLocalRandom.current().nextLong(Math.max(1, cap) + 1));
+	}
+
+	/**
+	 * 请求失败后是否可以重试: 连接失败、连接断开、熔断打开、过载拒绝及服务端异常
+	 * 超时说明截止时间已过，不再重试
+	 */
+	private static boolean isRetryable(Rpc.RpcResponse resp, Throwable cause) {
+		if (cause != null) {
+			return !(cause instanceof TimeoutException) && !(cause instanceof CancellationException);
+		}
+		int code = resp.getCode();
+		return ResponseCode.isRejected(code) || code == ResponseCode.INTERNAL_ERROR;
+	}
+
+	/**
+	 * 选择服务实例，跳过熔断打开的实例，服务发现的实例列表变化时清理已下线实例的状态
+	 * @param interfaceName 接口名称
+	 * @param exclude 需要排除的实例，为null时不排除
+	 * @return 选中的实例
+	 */
+	private RpcProperties.ServiceInstance select(String interfaceName, RpcProperties.ServiceInstance exclude) {
+		List<RpcProperties.ServiceInstance> instances = registry.discover(rpcProperties.getInstance(), interfaceName);
+		if (instances == null) {
+			throw new RuntimeException("No available service instance for " + interfaceName);
+		}
+		// 实例全部下线时也要清理
+		Set<String> addresses = discoveredInstances.update(interfaceName, instances);
+		if (addresses != null) {
+			retain(addresses);
+		}
+		if (instances.isEmpty()) {
+			throw new RuntimeException("No available service instance for " + interfaceName);
+		}
+		if (circuitBreakerRegistry != null) {
+			instances = circuitBreakerRegistry.filter(instances);
+			if (instances.isEmpty()) {
+				throw new RpcException(ResponseCode.OVERLOADED, "Circuit breakers of all instances are open for " + interfaceName);
+			}
+		}
+		if (exclude != null) {
+			instances = new ArrayList<>(instances);
+			instances.remove(exclude);
+			if (instances.isEmpty()) {
+				throw new RuntimeException("No available service instance for " + interfaceName);
+			}
+		}
+		return loadBalancers.computeIfAbsent(interfaceName, this::createLoadBalancer).select(instances, instanceStatsRegistry);
+	}
+
+	/**
+	 * 移除已下线实例的连接、调用统计、调用记录器和熔断器
+	 * @param addresses 仍在服务发现中的实例地址(host:port)
+	 */
+	private void retain(Set<String> addresses) {
+		connectionPool.retain(addresses);
+		instanceStatsRegistry.retain(addresses);
+		for (Map<Method, MethodState> states : methodStates.values()) {
+			for (MethodState state : states.values()) {
+				state.recorders.keySet().retainAll(addresses);
+			}
+		}
+		metricsRecorder.retain(Side.CONSUMER, addresses);
+		if (circuitBreakerRegistry != null) {
+			circuitBreakerRegistry.retain(addresses);
+		}
+	}
+
+	/**
+	 * 向选定的实例发送一次请求，记录实例统计、熔断和调用指标
+	 * @param call 调用
+	 * @param instance 服务实例
+	 * @param cancellable 请求是否可能被取消
+	 * @return 本次请求
+	 */
+	private Attempt attempt(Call<?> call, RpcProperties.ServiceInstance instance, boolean cancellable) {
+		// 可能多次发送的调用每次复制一份请求，各自按对端协商结果压缩参数
+		Rpc.RpcRequest.Builder request = call.isResendable() ? call.request().clone() : call.request();
+		if (cancellable) {
+			request.setCancellable(true);
+		}
+		long requestId = RpcConnection.nextRequestId();
+		CircuitBreaker breaker = circuitBreakerRegistry != null ? circuitBreakerRegistry.get(instance) : null;
+		int permit = breaker != null ? breaker.tryAcquire() : 0;
+		if (permit == CircuitBreaker.NOT_PERMITTED) {
+			// 半开状态的探测许可已被并发调用用完
+			return new Attempt(requestId, null, CompletableFuture.failedFuture(
+					new RpcException(ResponseCode.OVERLOADED, "Circuit breaker is open for " + breaker.getInstance())), System.nanoTime());
+		}
+		// 从连接池获取到服务实例的长连接, 获取异步结果
+		InstanceStats stats = instanceStatsRegistry.get(instance);
+		CallRecorder recorder = call.state().recorder(instance);
+		long start = System.nanoTime();
+		stats.onStart();
+		recorder.onStart();
+		CompletableFuture<RpcConnection> connection = connectionPool.acquire(instance);
+		CompletableFuture<Rpc.RpcResponse> response = connection
+				.thenCompose(c -> applyTimeout(request, call.timeout(), call.deadlineNanos())
+						? c.send(request, requestId) : CompletableFuture.failedFuture(new TimeoutException()))
+				.whenComplete((resp, ex) -> {
+					long latency = System.nanoTime() - start;
+					Throwable cause = unwrap(ex);
+					if (breaker != null) {
+						if (cause instanceof CancellationException) {
+							// 被取消的请求不代表实例状态
+							breaker.onCancel(permit);
 						} else {
-							future.completeExceptionally(new RuntimeException(resp.getMsg()));
+							breaker.onComplete(permit, latency, isInstanceFailure(resp, cause));
 						}
-					} catch (Exception e) {
-						future.completeExceptionally(e);
-					} finally {
-						asyncResult.result().close();
 					}
-				}).write(Buffer.buffer(request.build().toByteArray()));
-			});
+					// 被拒绝的请求耗时极短，不计入实例延迟，避免负载均衡把更多请求导向过载实例
+					stats.onComplete(latency, ex == null && !ResponseCode.isRejected(resp.getCode()));
+					recorder.onComplete(latency, ex == null && resp.getCode() == SUCCESS_CODE,
+							call.requestBytes(), ex == null ? resp.getData().size() : 0);
+				});
+		return new Attempt(requestId, connection, response, start);
+	}
+
+	/**
+	 * 对冲调用: 首次请求超过对冲延迟仍未完成时，在预算允许的情况下向另一个实例发送对冲请求
+	 * 对冲延迟未知(样本不足)时只发送首次请求，其耗时用于计算对冲延迟
+	 * @return 第一个有效响应，或所有请求都失败时最后一个请求的结果
+	 */
+	private CompletableFuture<Rpc.RpcResponse> hedge(Call<?> call, RpcProperties.ServiceInstance first) {
+		hedgeBudget.deposit();
+		long delay = call.hedgeDelay().delayMillis();
+		Hedge hedge = new Hedge(call.hedgeDelay());
+		hedge.add(attempt(call, first, delay > 0));
+		if (delay <= 0) {
+			return hedge.result;
+		}
+		hedge.timerId = vertx.setTimer(delay, id -> {
+			if (hedge.isDone()) {
+				return;
+			}
+			RpcProperties.ServiceInstance second;
+			try {
+				second = select(call.interfaceName(), first);
+			} catch (RuntimeException e) {
+				// 没有其他可用实例，继续等待首次请求
+				return;
+			}
+			if (hedgeBudget.tryWithdraw()) {
+				hedge.add(attempt(call, second, true));
+			}
+		});
+		return hedge.result;
+	}
+
+	/**
+	 * 以请求结果完成调用
+	 */
+	private <T> void complete(Call<T> call, Rpc.RpcResponse resp, Throwable ex) {
+		if (ex != null) {
+			Throwable cause = unwrap(ex);
+			if (cause instanceof TimeoutException) {
+				cause = new TimeoutException("Deadline exceeded after " + call.timeout() + "ms: " + call.interfaceName() + "#" + call.method().getName());
+			}
+			fail(call, cause);
+			return;
+		}
+		if (resp.getCode() != SUCCESS_CODE) {
+			fail(call, new RpcException(resp.getCode(), resp.getMsg()));
+			return;
+		}
+		// void方法没有结果数据
+		ByteString data = null;
+		Class<?> returnType = call.method().getReturnType();
+		if (returnType != void.class && returnType != Void.class) {
+			try {
+				data = compression.decompressData(resp, call.interfaceName(), call.method().getName());
+			} catch (Exception e) {
+				fail(call, e);
+				return;
+			}
+		}
+		// 先写入缓存再结束合并，之后到达的相同调用直接命中缓存
+		if (call.cache() != null) {
+			call.cache().put(call.cacheKey(), data);
+		}
+		if (call.flight() != null) {
+			call.flight().complete(data);
+		}
+		deliver(call.future(), call.codec(), data);
+	}
+
+	private <T> void fail(Call<T> call, Throwable cause) {
+		if (call.flight() != null) {
+			call.flight().fail(cause);
+		}
+		call.future().completeExceptionally(cause);
+	}
+
+	/**
+	 * 反序列化结果数据并完成调用
+	 * @param data 解压后的结果数据，void方法为null
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> void deliver(CompletableFuture<T> future, MethodCodec codec, ByteString data) {
+		try {
+			future.complete(data == null ? null : (T) codec.decodeResult(data));
 		} catch (Exception e) {
 			future.completeExceptionally(e);
 		}
+	}
 
-		return future;
+	/**
+	 * 按@CacheResult创建方法的结果缓存，没有注解或没有返回值的方法不缓存，返回null
+	 */
+	private ResultCache createResultCache(MethodState state) {
+		Method method = state.method;
+		CacheResult cacheResult = method.getAnnotation(CacheResult.class);
+		if (cacheResult == null) {
+			return null;
+		}
+		Class<?> returnType = method.getReturnType();
+		if (returnType == void.class || returnType == Void.class) {
+			log.warn("@CacheResult is ignored for void method {}#{}", state.interfaceName, method.getName());
+			return null;
+		}
+		return new ResultCache(state.interfaceName + "#" + method.getName(),
+				cacheResult.ttlMillis(), cacheResult.maxEntries(), cacheResult.maxBytes());
+	}
+
+	/**
+	 * 为即将发送的请求设置截止时间前剩余的超时时间，不足1毫秒按1毫秒发送
+	 * @param timeout 调用的超时时间(毫秒)，0表示不限制
+	 * @param deadlineNanos 调用方本地截止时间(System.nanoTime)
+	 * @return 已到截止时间时返回false，请求不应再发送
+	 */
+	private static boolean applyTimeout(Rpc.RpcRequest.Builder request, long timeout, long deadlineNanos) {
+		if (timeout <= 0) {
+			return true;
+		}
+		long remaining = deadlineNanos - System.nanoTime();
+		if (remaining <= 0) {
+			return false;
+		}
+		request.setTimeout(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+		return true;
+	}
+
+	private static Throwable unwrap(Throwable ex) {
+		return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+	}
+
+	/**
+	 * 一次调用，对冲和重试时对应多次请求
+	 * @param state 调用的接口方法
+	 * @param request 编码后的请求，未压缩
+	 * @param timeout 解析后的超时时间(毫秒)，0表示不限制
+	 * @param deadlineNanos 调用方本地截止时间(System.nanoTime)，所有请求共用
+	 * @param maxRetries 最大重试次数
+	 * @param hedgeDelay 对冲延迟，不对冲时为null
+	 * @param cache 结果缓存，不缓存时为null
+	 * @param cacheKey 结果缓存key
+	 * @param flight 合并的调用，不合并时为null
+	 * @param future 调用结果
+	 */
+	private record Call<T>(MethodState state, Rpc.RpcRequest.Builder request,
+			long requestBytes, long timeout, long deadlineNanos, int maxRetries, HedgeDelay hedgeDelay, ResultCache cache, ByteString cacheKey,
+			SingleFlight.Flight flight, CompletableFuture<T> future) {
+
+		String interfaceName() {
+			return state.interfaceName;
+		}
+
+		Method method() {
+			return state.method;
+		}
+
+		MethodCodec codec() {
+			return state.codec;
+		}
+
+		/**
+		 * 请求是否可能发送多次
+		 */
+		boolean isResendable() {
+			return maxRetries > 0 || hedgeDelay != null;
+		}
+	}
+
+	/**
+	 * 发往某个实例的一次请求
+	 * @param requestId 请求id，用于取消
+	 * @param connection 使用的连接，未发送时为null
+	 * @param response 请求结果
+	 * @param startNanos 开始时间
+	 */
+	private record Attempt(long requestId, CompletableFuture<RpcConnection> connection,
+			CompletableFuture<Rpc.RpcResponse> response, long startNanos) {
+
+		/**
+		 * 取消请求，已完成的请求不受影响
+		 */
+		void cancel() {
+			if (connection != null && !response.isDone()) {
+				connection.thenAccept(c -> c.cancel(requestId));
+			}
+		}
+	}
+
+	/**
+	 * 对冲调用的状态，取第一个有效响应并取消其余请求
+	 * 实例故障(连接失败、超时、过载拒绝)只在还有请求未完成时被忽略
+	 */
+	private final class Hedge {
+
+		private final CompletableFuture<Rpc.RpcResponse> result = new CompletableFuture<>();
+		private final HedgeDelay hedgeDelay;
+		private final List<Attempt> attempts = new ArrayList<>(2);
+		private int outstanding;
+		private boolean done;
+		private volatile long timerId = -1;
+
+		private Hedge(HedgeDelay hedgeDelay) {
+			this.hedgeDelay = hedgeDelay;
+		}
+
+		private synchronized boolean isDone() {
+			return done;
+		}
+
+		private void add(Attempt attempt) {
+			synchronized (this) {
+				if (done) {
+					attempt.cancel();
+					return;
+				}
+				attempts.add(attempt);
+				outstanding++;
+			}
+			attempt.response().whenComplete((resp, ex) -> onComplete(attempt, resp, ex));
+		}
+
+		private void onComplete(Attempt attempt, Rpc.RpcResponse resp, Throwable ex) {
+			Throwable cause = unwrap(ex);
+			boolean failure = isInstanceFailure(resp, cause);
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				outstanding--;
+				if (failure && outstanding > 0) {
+					// 等待另一个请求
+					return;
+				}
+				done = true;
+			}
+			if (timerId >= 0) {
+				vertx.cancelTimer(timerId);
+			}
+			if (!failure) {
+				hedgeDelay.record(System.nanoTime() - attempt.startNanos());
+			}
+			// done之后不再添加请求
+			for (Attempt other : attempts) {
+				if (other != attempt) {
+					other.cancel();
+				}
+			}
+			if (ex != null) {
+				result.completeExceptionally(cause);
+			} else {
+				result.complete(resp);
+			}
+		}
+	}
+
+	/**
+	 * 是否计为实例故障: 连接失败、超时、过载拒绝，服务方法本身的异常不计入
+	 */
+	private static boolean isInstanceFailure(Rpc.RpcResponse resp, Throwable ex) {
+		if (ex != null) {
+			return true;
+		}
+		int code = resp.getCode();
+		return ResponseCode.isRejected(code) || code == ResponseCode.DEADLINE_EXCEEDED;
+	}
+
+	/**
+	 * 各接口方法的结果缓存
+	 */
+	public ResultCacheRegistry<?> getResultCaches() {
+		return resultCaches;
+	}
+
+	/**
+	 * 按方法统计的压缩数据
+	 */
+	public CompressionStats getCompressionStats() {
+		return compression.getStats();
+	}
+
+	/**
+	 * 接口上某个方法的状态，首次调用时创建
+	 */
+	private MethodState state(String interfaceName, Method method) {
+		Map<Method, MethodState> states = methodStates.get(interfaceName);
+		if (states == null) {
+			states = methodStates.computeIfAbsent(interfaceName, k -> new ConcurrentHashMap<>());
+		}
+		MethodState state = states.get(method);
+		return state != null ? state : states.computeIfAbsent(method, m -> new MethodState(interfaceName, m));
 	}
 
+	/**
+	 * 某个接口上的一个方法在调用路径上使用的状态，按接口名和方法区分
+	 * 父接口的方法被多个接口继承时Method相同，配置和统计仍按调用的接口各自独立
+	 */
+	private final class MethodState {
+
+		private final String interfaceName;
+		private final Method method;
+		/**
+		 * 编解码器，按泛型签名解析一次后复用
+		 */
+		private final MethodCodec codec;
+
+		/**
+		 * 实例地址 -> 调用记录器，调用路径上不再创建指标维度，实例下线后移除
+		 */
+		private final Map<String, CallRecorder> recorders = new ConcurrentHashMap<>();
+		/**
+		 * 方法级超时配置，未配置时为null
+		 */
+		private final Long methodTimeout;
+		/**
+		 * 接口级超时配置或默认配置
+		 */
+		private final long fallbackTimeout;
+		/**
+		 * 方法级重试配置，未配置时为null
+		 */
+		private final Integer methodRetries;
+		/**
+		 * 接口级重试配置或默认配置
+		 */
+		private final int fallbackRetries;
+		private final boolean idempotent;
+		/**
+		 * 对冲延迟，首次对冲调用时创建，对冲延迟按接口各自统计
+		 */
+		private volatile HedgeDelay hedgeDelay;
+		/**
+		 * 非@Idempotent方法的对冲配置已被忽略，只告警一次
+		 */
+		private volatile boolean hedgingIgnored;
+		/**
+		 * 非@Idempotent方法的合并配置已被忽略，只告警一次
+		 */
+		private volatile boolean singleFlightIgnored;
+
+		private MethodState(String interfaceName, Method method) {
+			this.interfaceName = interfaceName;
+			this.method = method;
+			this.codec = new MethodCodec(method, objectMapper);
+			this.idempotent = method.isAnnotationPresent(Idempotent.class);
+			RpcProperties.Consumer consumer = rpcProperties.getConsumer();
+			Long interfaceTimeout = consumer.getTimeouts().get(interfaceName);
+			this.methodTimeout = consumer.getTimeouts().get(interfaceName + "#" + method.getName());
+			this.fallbackTimeout = interfaceTimeout != null ? interfaceTimeout : consumer.getTimeout();
+			RpcProperties.Retry retry = consumer.getRetry();
+			Integer interfaceRetries = retry.getOverrides().get(interfaceName);
+			this.methodRetries = retry.getOverrides().get(interfaceName + "#" + method.getName());
+			this.fallbackRetries = interfaceRetries != null ? interfaceRetries : retry.getMaxRetries();
+		}
+
+		/**
+		 * 解析调用的超时时间: 方法级配置 > 引用级超时 > 接口级配置 > 默认配置
+		 * @param referenceTimeout 引用级超时时间(毫秒)，0表示未指定
+		 * @return 超时时间(毫秒)，0表示不限制
+		 */
+		private long timeout(long referenceTimeout) {
+			if (methodTimeout != null) {
+				return methodTimeout;
+			}
+			return referenceTimeout > 0 ? referenceTimeout : fallbackTimeout;
+		}
+
+		/**
+		 * 解析调用的最大重试次数: 方法级配置 > 引用级配置 > 接口级配置 > 默认配置
+		 * @param referenceRetries 引用级重试次数，负数表示未指定
+		 * @return 最大重试次数，非@Idempotent方法不重试，忽略所有配置
+		 */
+		private int retries(int referenceRetries) {
+			if (!idempotent) {
+				return 0;
+			}
+			if (methodRetries != null) {
+				return methodRetries;
+			}
+			return referenceRetries >= 0 ? referenceRetries : fallbackRetries;
+		}
+
+		/**
+		 * 方法是否可以合并调用，非@Idempotent方法不合并
+		 */
+		private boolean isSingleFlight() {
+			if (!idempotent && !singleFlightIgnored) {
+				singleFlightIgnored = true;
+				log.warn("Single-flight is ignored for non-idempotent method {}#{}", interfaceName, method.getName());
+			}
+			return idempotent;
+		}
+
+		/**
+		 * 方法的对冲延迟，非@Idempotent方法不对冲，返回null
+		 */
+		private HedgeDelay hedgeDelay() {
+			if (!idempotent) {
+				if (!hedgingIgnored) {
+					hedgingIgnored = true;
+					log.warn("Hedging is ignored for non-idempotent method {}#{}", interfaceName, method.getName());
+				}
+				return null;
+			}
+			HedgeDelay delay = hedgeDelay;
+			if (delay == null) {
+				synchronized (this) {
+					delay = hedgeDelay;
+					if (delay == null) {
+						hedgeDelay = delay = new HedgeDelay(rpcProperties.getConsumer().getHedging());
+					}
+				}
+			}
+			return delay;
+		}
+
+		/**
+		 * 方法在服务实例上的调用记录器，首次调用时获取后缓存
+		 */
+		private CallRecorder recorder(RpcProperties.ServiceInstance instance) {
+			String address = instance.getAddress();
+			CallRecorder recorder = recorders.get(address);
+			return recorder != null ? recorder : recorders.computeIfAbsent(address,
+					a -> metricsRecorder.recorder(Side.CONSUMER, interfaceName, method.getName(), a));
+		}
+	}
+
+	private LoadBalancer createLoadBalancer(String interfaceName) {
+		RpcProperties.Consumer consumer = rpcProperties.getConsumer();
+		return LoadBalancerLoader.load(consumer.getLoadBalancers().getOrDefault(interfaceName, consumer.getLoadBalancer()));
+	}
 
 	@Override
 	public void close() {
+		connectionPool.close();
 		registry.close();
 	}
 }
@@ -0,0 +1,278 @@
+package com.easy.consumer;
+
+import com.easy.codec.Compression;
+import com.easy.transport.FrameCodec;
+import com.easy.transport.FrameWriter;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+import lombok.extern.slf4j.Slf4j;
+import rpc.Rpc;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 到某个服务实例的一条长连接，多个请求通过requestId在同一连接上复用，响应可乱序返回
+ */
+@Slf4j
+public class RpcConnection {
+
+	private static final AtomicLong REQUEST_ID = new AtomicLong();
+
+	private final NetSocket socket;
+	private final FrameCodec frameCodec;
+	private final FrameWriter frameWriter;
+	private final Compression compression;
+	private final FrameCodec.Decoder decoder;
+	/**
+	 * 对端接受的压缩算法，从响应中获知，收到第一个响应前不压缩
+	 */
+	private volatile int peerCompression;
+	/**
+	 * 存储requestId和对应的等待结果
+	 */
+	private final Map<Long, CompletableFuture<Rpc.RpcResponse>> pending = new ConcurrentHashMap<>();
+	/**
+	 * 进行中的流式调用: requestId -> 流
+	 */
+	private final Map<Long, RpcStream<?>> streams = new ConcurrentHashMap<>();
+	private volatile boolean closed;
+	/**
+	 * 等待进行中的请求完成后关闭，不再从连接池中获取
+	 */
+	private volatile boolean draining;
+
+	RpcConnection(NetSocket socket, FrameCodec frameCodec, FrameWriter frameWriter, Compression compression) {
+		this.socket = socket;
+		this.frameCodec = frameCodec;
+		this.frameWriter = frameWriter;
+		this.compression = compression;
+		this.decoder = frameCodec.decoder(this::onMessage, e -> {
+			log.warn("Invalid frame from {}, closing connection", socket.remoteAddress(), e);
+			socket.close();
+		});
+		socket.handler(decoder);
+		socket.exceptionHandler(e -> log.warn("RPC connection {} error", socket.remoteAddress(), e));
+		socket.closeHandler(v -> onClose());
+	}
+
+	/**
+	 * 发送请求，为请求分配requestId，在调用线程中按协商结果压缩参数
+	 * 请求带有超时时间时，超时未收到响应则以TimeoutException完成
+	 * @param request 请求
+	 * @return 对应的响应
+	 */
+	public CompletableFuture<Rpc.RpcResponse> send(Rpc.RpcRequest.Builder request) {
+		return send(request, nextRequestId());
+	}
+
+	/**
+	 * 使用预先分配的requestId发送请求，调用方可用该requestId取消请求
+	 * @param request 请求
+	 * @param requestId 通过nextRequestId分配的请求id
+	 * @return 对应的响应
+	 */
+	public CompletableFuture<Rpc.RpcResponse> send(Rpc.RpcRequest.Builder request, long requestId) {
+		CompletableFuture<Rpc.RpcResponse> future = new CompletableFuture<>();
+		if (closed) {
+			future.completeExceptionally(new IllegalStateException("Connection closed: " + socket.remoteAddress()));
+			return future;
+		}
+		ByteBuf frame;
+		try {
+			compression.compressParams(request, peerCompression);
+			frame = frameCodec.encode(request.setRequestId(requestId).build());
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+			return future;
+		}
+		pending.put(requestId, future);
+		if (request.getTimeout() > 0) {
+			future.orTimeout(request.getTimeout(), TimeUnit.MILLISECONDS).whenComplete((resp, e) -> {
+				if (e instanceof TimeoutException) {
+					// 不再等待响应，迟到的响应按未知请求丢弃
+					pending.remove(requestId);
+					closeIfDrained();
+				}
+			});
+		}
+		// 写失败时连接随之关闭，由closeHandler通知等待中的请求
+		frameWriter.write(frame);
+		// 连接可能在put之后被关闭，此时closeHandler可能已经执行完毕
+		if (closed) {
+			fail(requestId, new IllegalStateException("Connection closed: " + socket.remoteAddress()));
+		}
+		return future;
+	}
+
+	/**
+	 * 取消请求，不再等待响应并通知提供者，请求以CancellationException完成
+	 * 请求已完成时不做任何事
+	 * @param requestId 请求id
+	 */
+	public void cancel(long requestId) {
+		CompletableFuture<Rpc.RpcResponse> future = pending.remove(requestId);
+		if (future == null) {
+			return;
+		}
+		if (!closed) {
+			frameWriter.write(frameCodec.encode(Rpc.RpcRequest.newBuilder().setRequestId(requestId).setCancel(true).build()));
+		}
+		future.completeExceptionally(new CancellationException("Request cancelled"));
+		closeIfDrained();
+	}
+
+	/**
+	 * 发起流式调用，流元素和结束响应转交给stream，请求中带有stream的接收窗口作为初始额度
+	 * 超时时间只约束流的开始，提供者丢弃已过期的请求，流开始后不再限时
+	 * @param request 请求
+	 * @param stream 接收流
+	 */
+	void openStream(Rpc.RpcRequest.Builder request, RpcStream<?> stream) {
+		if (closed) {
+			stream.onError(new IllegalStateException("Connection closed: " + socket.remoteAddress()));
+			return;
+		}
+		long requestId = nextRequestId();
+		ByteBuf frame;
+		try {
+			compression.compressParams(request, peerCompression);
+			frame = frameCodec.encode(request.setRequestId(requestId).setCredits(stream.getWindow()).setCancellable(true).build());
+		} catch (Exception e) {
+			stream.onError(e);
+			return;
+		}
+		streams.put(requestId, stream);
+		stream.attach(this, requestId);
+		frameWriter.write(frame);
+		if (closed) {
+			failStream(requestId, new IllegalStateException("Connection closed: " + socket.remoteAddress()));
+		}
+	}
+
+	/**
+	 * 为流追加额度，流已结束时不做任何事
+	 * @param requestId 请求id
+	 * @param credits 追加的额度
+	 */
+	void credit(long requestId, int credits) {
+		if (!closed && streams.containsKey(requestId)) {
+			frameWriter.write(frameCodec.encode(Rpc.RpcRequest.newBuilder().setRequestId(requestId)
+					.setCredit(true).setCredits(credits).build()));
+		}
+	}
+
+	/**
+	 * 取消流，不再接收元素并通知提供者停止发送，流已结束时不做任何事
+	 * @param requestId 请求id
+	 */
+	void cancelStream(long requestId) {
+		if (streams.remove(requestId) != null && !closed) {
+			frameWriter.write(frameCodec.encode(Rpc.RpcRequest.newBuilder().setRequestId(requestId).setCancel(true).build()));
+			closeIfDrained();
+		}
+	}
+
+	/**
+	 * 分配全局唯一的请求id
+	 */
+	public static long nextRequestId() {
+		return REQUEST_ID.incrementAndGet();
+	}
+
+	/**
+	 * 连接是否可用，等待关闭的连接不可用
+	 */
+	public boolean isActive() {
+		return !closed && !draining;
+	}
+
+	/**
+	 * 正在等待响应的请求数
+	 */
+	public int pendingCount() {
+		return pending.size() + streams.size();
+	}
+
+	public void close() {
+		socket.close();
+	}
+
+	/**
+	 * 进行中的请求和流全部完成后关闭连接，用于服务实例下线后释放连接
+	 */
+	void closeWhenIdle() {
+		draining = true;
+		closeIfDrained();
+	}
+
+	private void closeIfDrained() {
+		if (draining && !closed && pending.isEmpty() && streams.isEmpty()) {
+			socket.close();
+		}
+	}
+
+	private void onMessage(Buffer buffer) {
+		Rpc.RpcResponse resp;
+		try {
+			resp = Rpc.RpcResponse.parseFrom(FrameCodec.input(buffer));
+		} catch (Exception e) {
+			// 无法得知响应属于哪个请求，关闭连接让所有等待中的请求失败
+			log.warn("Invalid response from {}, closing connection", socket.remoteAddress(), e);
+			decoder.stop();
+			socket.close();
+			return;
+		}
+		peerCompression = resp.getAcceptCompression();
+		if (resp.getStreamElement()) {
+			RpcStream<?> stream = streams.get(resp.getRequestId());
+			if (stream != null) {
+				stream.onElement(resp);
+			}
+			return;
+		}
+		RpcStream<?> stream = streams.remove(resp.getRequestId());
+		if (stream != null) {
+			stream.onEnd(resp);
+			closeIfDrained();
+			return;
+		}
+		CompletableFuture<Rpc.RpcResponse> future = pending.remove(resp.getRequestId());
+		if (future == null) {
+			log.debug("Discard response of unknown request {} from {}", resp.getRequestId(), socket.remoteAddress());
+			return;
+		}
+		future.complete(resp);
+		closeIfDrained();
+	}
+
+	private void onClose() {
+		closed = true;
+		for (Long requestId : pending.keySet()) {
+			fail(requestId, new IllegalStateException("Connection closed: " + socket.remoteAddress()));
+		}
+		for (Long requestId : streams.keySet()) {
+			failStream(requestId, new IllegalStateException("Connection closed: " + socket.remoteAddress()));
+		}
+	}
+
+	private void failStream(long requestId, Throwable cause) {
+		RpcStream<?> stream = streams.remove(requestId);
+		if (stream != null) {
+			stream.onError(cause);
+		}
+	}
+
+	private void fail(long requestId, Throwable cause) {
+		CompletableFuture<Rpc.RpcResponse> future = pending.remove(requestId);
+		if (future != null) {
+			future.completeExceptionally(cause);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.easy.consumer;
+
+import com.easy.transport.ResponseCode;
+import lombok.Getter;
+
+/**
+ * 提供者返回的错误响应
+ */
+@Getter
+public class RpcException extends RuntimeException {
+
+	/**
+	 * RpcResponse.code
+	 */
+	private final int code;
+
+	public RpcException(int code, String message) {
+		super(message);
+		this.code = code;
+	}
+
+	/**
+	 * 请求是否被提供者拒绝而未执行，可在其他实例重试
+	 */
+	public boolean isRejected() {
+		return ResponseCode.isRejected(code);
+	}
+}
@@ -0,0 +1,414 @@
+package com.easy.consumer;
+
+import com.easy.codec.Compression;
+import com.easy.codec.MethodCodec;
+import com.easy.transport.ResponseCode;
+import rpc.Rpc;
+
+import java.lang.ref.Cleaner;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 流式调用的结果，元素按到达顺序逐个交给调用方，只能以一种方式消费一次:
+ * 作为Flow.Publisher订阅，或通过stream()/iterator()阻塞读取
+ * 基于额度的流量控制: 请求携带接收窗口作为初始额度，每消费半个窗口的元素向提供者归还相应额度，
+ * 已到达但未被消费的元素不超过一个窗口
+ * 元素数据在事件循环线程入队，在消费线程解压和反序列化；订阅者的回调可能在事件循环线程执行，不应阻塞
+ * @param <T> 元素类型
+ */
+public class RpcStream<T> implements Flow.Publisher<T> {
+
+	/**
+	 * 取消未关闭就被丢弃的迭代器对应的流
+	 */
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	private final String interfaceName;
+	private final String methodName;
+	private final MethodCodec codec;
+	private final Compression compression;
+	private final int window;
+	/**
+	 * 阻塞读取时等待下一个元素的最长时间(毫秒)，0表示不限
+	 */
+	private final long idleTimeout;
+	/**
+	 * 已到达的流元素帧，最后是一个Terminal
+	 */
+	private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+	private final AtomicBoolean terminated = new AtomicBoolean();
+	/**
+	 * 流结束时完成，取消或失败时异常完成
+	 */
+	private final CompletableFuture<Void> done = new CompletableFuture<>();
+	private final LongAdder responseBytes = new LongAdder();
+	private volatile RpcConnection connection;
+	private volatile long requestId;
+	private volatile boolean cancelled;
+	/**
+	 * 已消费但尚未归还的额度，只在消费线程中访问
+	 */
+	private int consumed;
+	private volatile Delivery delivery;
+
+	RpcStream(String interfaceName, String methodName, MethodCodec codec, Compression compression, int window,
+			long idleTimeout) {
+		this.interfaceName = interfaceName;
+		this.methodName = methodName;
+		this.codec = codec;
+		this.compression = compression;
+		this.window = Math.max(1, window);
+		this.idleTimeout = Math.max(0, idleTimeout);
+	}
+
+	/**
+	 * 阻塞读取流元素的Stream，关闭时取消未读完的流，未读完就放弃时需关闭，否则提供者会一直等待额度
+	 * 流以错误结束或等待下一个元素超时时抛出RuntimeException，超时后流被取消
+	 */
+	public Stream<T> stream() {
+		consume();
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new BlockingIterator(false), Spliterator.ORDERED), false)
+				.onClose(this::cancel);
+	}
+
+	/**
+	 * 阻塞读取流元素的迭代器，close时取消未读完的流，未关闭就被丢弃的迭代器在被回收后取消流
+	 * 流以错误结束或等待下一个元素超时时抛出RuntimeException，超时后流被取消
+	 */
+	public BlockingIterator iterator() {
+		consume();
+		return new BlockingIterator(true);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("RpcStream can only be consumed once"));
+			return;
+		}
+		Delivery created = new Delivery(subscriber);
+		delivery = created;
+		subscriber.onSubscribe(created);
+		created.drain();
+	}
+
+	/**
+	 * 取消流，通知提供者停止发送，已结束的流不受影响
+	 */
+	public void cancel() {
+		cancelled = true;
+		RpcConnection current = connection;
+		if (current != null) {
+			current.cancelStream(requestId);
+		}
+		terminate(new CancellationException("Stream cancelled"));
+	}
+
+	/**
+	 * 流结束时完成，取消或失败时异常完成
+	 */
+	public CompletableFuture<Void> completion() {
+		return done;
+	}
+
+	/**
+	 * 按方法的返回类型提供结果: Flow.Publisher返回自身，Stream和Iterator阻塞读取
+	 * 返回的Iterator实现了AutoCloseable，调用方未读完就放弃时关闭它以取消流
+	 * @param type 方法的返回类型
+	 */
+	Object as(Class<?> type) {
+		if (type == Stream.class) {
+			return stream();
+		}
+		if (type == Iterator.class) {
+			return iterator();
+		}
+		return this;
+	}
+
+	int getWindow() {
+		return window;
+	}
+
+	/**
+	 * 已接收的元素字节数
+	 */
+	long getResponseBytes() {
+		return responseBytes.sum();
+	}
+
+	/**
+	 * 请求已发出，之后可以归还额度和取消
+	 */
+	void attach(RpcConnection connection, long requestId) {
+		this.requestId = requestId;
+		this.connection = connection;
+		if (cancelled) {
+			connection.cancelStream(requestId);
+		}
+	}
+
+	/**
+	 * 收到一个流元素，在连接的事件循环线程调用
+	 */
+	void onElement(Rpc.RpcResponse element) {
+		if (terminated.get()) {
+			return;
+		}
+		responseBytes.add(element.getData().size());
+		queue.offer(element);
+		signal();
+	}
+
+	/**
+	 * 收到流结束响应
+	 */
+	void onEnd(Rpc.RpcResponse response) {
+		terminate(response.getCode() == ResponseCode.SUCCESS ? null : new RpcException(response.getCode(), response.getMsg()));
+	}
+
+	/**
+	 * 流因连接失败或请求发送失败而结束
+	 */
+	void onError(Throwable cause) {
+		terminate(cause);
+	}
+
+	private void terminate(Throwable error) {
+		if (!terminated.compareAndSet(false, true)) {
+			return;
+		}
+		// 先完成future，读到流结束的消费者看到的completion()已完成
+		if (error == null) {
+			done.complete(null);
+		} else {
+			done.completeExceptionally(error);
+		}
+		queue.offer(new Terminal(error));
+		signal();
+	}
+
+	private void signal() {
+		Delivery current = delivery;
+		if (current != null) {
+			current.drain();
+		}
+	}
+
+	private void consume() {
+		if (!subscribed.compareAndSet(false, true)) {
+			throw new IllegalStateException("RpcStream can only be consumed once");
+		}
+	}
+
+	/**
+	 * 解压和反序列化一个元素，每消费半个窗口归还一次额度
+	 */
+	@SuppressWarnings("unchecked")
+	private T decode(Rpc.RpcResponse element) throws Exception {
+		if (++consumed >= Math.max(1, window / 2)) {
+			connection.credit(requestId, consumed);
+			consumed = 0;
+		}
+		return (T) codec.decodeResult(compression.decompressData(element, interfaceName, methodName));
+	}
+
+	/**
+	 * 流的结束标记
+	 * @param error 流的错误，正常结束时为null
+	 */
+	private record Terminal(Throwable error) {
+	}
+
+	/**
+	 * 阻塞读取流元素的迭代器，关闭时取消未读完的流
+	 */
+	public final class BlockingIterator implements Iterator<T>, AutoCloseable {
+
+		/**
+		 * 已取出但尚未返回的元素或结束标记
+		 */
+		private Object next;
+		/**
+		 * 迭代器被回收时取消流，由Stream包装时为null，由Stream的onClose取消
+		 */
+		private final Cleaner.Cleanable cleanable;
+
+		private BlockingIterator(boolean tracked) {
+			// 清理动作只引用流，不引用迭代器本身
+			this.cleanable = tracked ? CLEANER.register(this, RpcStream.this::cancel) : null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next == null) {
+				try {
+					next = idleTimeout > 0 ? queue.poll(idleTimeout, TimeUnit.MILLISECONDS) : queue.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					cancel();
+					throw new RuntimeException("Interrupted while reading stream", e);
+				}
+				if (next == null) {
+					cancel();
+					throw new RuntimeException("EasyRpc stream failed", new TimeoutException(
+							"No stream element within " + idleTimeout + "ms: " + interfaceName + "#" + methodName));
+				}
+			}
+			if (next instanceof Terminal terminal) {
+				if (terminal.error() != null) {
+					throw new RuntimeException("EasyRpc stream failed", terminal.error());
+				}
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Rpc.RpcResponse element = (Rpc.RpcResponse) next;
+			next = null;
+			try {
+				return decode(element);
+			} catch (Exception e) {
+				cancel();
+				throw new RuntimeException("Failed to decode stream element", e);
+			}
+		}
+
+		/**
+		 * 取消流，已结束的流不受影响
+		 */
+		@Override
+		public void close() {
+			if (cleanable != null) {
+				cleanable.clean();
+			} else {
+				cancel();
+			}
+		}
+	}
+
+	/**
+	 * 向订阅者按请求数投递元素，同一时刻只有一个线程投递
+	 */
+	private final class Delivery implements Flow.Subscription {
+
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		/**
+		 * 订阅者请求了非正数个元素，由投递线程以onError通知
+		 */
+		private volatile Throwable invalidRequest;
+		private boolean finished;
+
+		private Delivery(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				// 错误与其他信号一样经drain串行投递，之后不再有onComplete或onError
+				if (invalidRequest == null) {
+					invalidRequest = new IllegalArgumentException("Non-positive request: " + n);
+				}
+				RpcStream.this.cancel();
+				drain();
+				return;
+			}
+			demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			RpcStream.this.cancel();
+		}
+
+		private void drain() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			do {
+				while (!finished) {
+					Throwable error = invalidRequest;
+					if (error != null) {
+						finished = true;
+						queue.clear();
+						subscriber.onError(error);
+						break;
+					}
+					if (cancelled) {
+						finished = true;
+						queue.clear();
+						break;
+					}
+					Object head = queue.peek();
+					if (head == null) {
+						break;
+					}
+					if (head instanceof Terminal terminal) {
+						queue.poll();
+						finished = true;
+						if (terminal.error() == null) {
+							subscriber.onComplete();
+						} else {
+							subscriber.onError(terminal.error());
+						}
+						break;
+					}
+					if (demand.get() == 0) {
+						break;
+					}
+					queue.poll();
+					if (demand.get() != Long.MAX_VALUE) {
+						demand.decrementAndGet();
+					}
+					T value;
+					try {
+						value = decode((Rpc.RpcResponse) head);
+					} catch (Exception e) {
+						RpcStream.this.cancel();
+						finished = true;
+						subscriber.onError(e);
+						break;
+					}
+					subscriber.onNext(value);
+				}
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+	}
+}
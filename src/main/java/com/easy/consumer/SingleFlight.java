@@ -0,0 +1,173 @@
+package com.easy.consumer;
+
+import com.google.protobuf.ByteString;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 合并相同的并发调用: 同一接口方法、序列化参数相同的调用进行中时，后到的调用等待它的结果而不再发送请求
+ * 继承自同一父接口的方法通过不同接口调用时由不同的服务处理，不合并
+ * 共享的是解压后的结果数据，每个调用方各自反序列化，不会共享可变对象
+ */
+public class SingleFlight {
+
+	/**
+	 * 进行中的调用 -> 结果数据，void方法的结果为null
+	 */
+	private final Map<Key, CompletableFuture<ByteString>> flights = new ConcurrentHashMap<>();
+	/**
+	 * 接口 -> 方法 -> 合并统计
+	 */
+	private final Map<String, Map<Method, Stats>> stats = new ConcurrentHashMap<>();
+	private final List<Consumer<Stats>> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * 加入进行中的相同调用，没有时登记为新的调用
+	 * @param interfaceName 接口名称
+	 * @param method 方法
+	 * @param params 序列化后的参数，由ResultCache.key生成
+	 * @return 调用，isLeader为true时调用方需发送请求并在结束后完成它
+	 */
+	Flight join(String interfaceName, Method method, ByteString params) {
+		Key key = new Key(interfaceName, method, params);
+		CompletableFuture<ByteString> result = new CompletableFuture<>();
+		CompletableFuture<ByteString> existing = flights.putIfAbsent(key, result);
+		Stats methodStats = stats(interfaceName, method);
+		if (existing != null) {
+			methodStats.coalesced.increment();
+			return new Flight(key, existing, false);
+		}
+		methodStats.flights.increment();
+		return new Flight(key, result, true);
+	}
+
+	private Stats stats(String interfaceName, Method method) {
+		Map<Method, Stats> methods = stats.get(interfaceName);
+		if (methods == null) {
+			methods = stats.computeIfAbsent(interfaceName, k -> new ConcurrentHashMap<>());
+		}
+		Stats methodStats = methods.get(method);
+		if (methodStats != null) {
+			return methodStats;
+		}
+		Stats created = new Stats(interfaceName, method.getName());
+		methodStats = methods.putIfAbsent(method, created);
+		if (methodStats != null) {
+			return methodStats;
+		}
+		listeners.forEach(listener -> listener.accept(created));
+		return created;
+	}
+
+	/**
+	 * 所有方法的统计数据
+	 */
+	public Collection<Stats> getStats() {
+		return stats.values().stream().flatMap(methods -> methods.values().stream()).toList();
+	}
+
+	/**
+	 * 监听新方法的统计数据，注册时对已有的立即回调
+	 * @param listener 回调
+	 */
+	public void addListener(Consumer<Stats> listener) {
+		listeners.add(listener);
+		getStats().forEach(listener);
+	}
+
+	private record Key(String interfaceName, Method method, ByteString params) {
+	}
+
+	/**
+	 * 一次合并后的调用
+	 */
+	final class Flight {
+
+		private final Key key;
+		private final CompletableFuture<ByteString> result;
+		private final boolean leader;
+
+		private Flight(Key key, CompletableFuture<ByteString> result, boolean leader) {
+			this.key = key;
+			this.result = result;
+			this.leader = leader;
+		}
+
+		/**
+		 * 是否由当前调用发送请求
+		 */
+		boolean isLeader() {
+			return leader;
+		}
+
+		/**
+		 * 调用结果，非发送方在其上等待
+		 */
+		CompletableFuture<ByteString> result() {
+			return result;
+		}
+
+		/**
+		 * 发送方收到结果，先移除登记，之后到达的调用重新发送请求
+		 * @param data 解压后的结果数据
+		 */
+		void complete(ByteString data) {
+			flights.remove(key, result);
+			result.complete(data);
+		}
+
+		/**
+		 * 发送方调用失败，等待的调用以相同的异常失败
+		 */
+		void fail(Throwable cause) {
+			flights.remove(key, result);
+			result.completeExceptionally(cause);
+		}
+	}
+
+	/**
+	 * 单个方法的合并统计
+	 */
+	public static final class Stats {
+
+		private final String interfaceName;
+		private final String methodName;
+		private final LongAdder flights = new LongAdder();
+		private final LongAdder coalesced = new LongAdder();
+
+		private Stats(String interfaceName, String methodName) {
+			this.interfaceName = interfaceName;
+			this.methodName = methodName;
+		}
+
+		public String getInterfaceName() {
+			return interfaceName;
+		}
+
+		public String getMethodName() {
+			return methodName;
+		}
+
+		/**
+		 * 实际发送请求的调用次数
+		 */
+		public long getFlights() {
+			return flights.sum();
+		}
+
+		/**
+		 * 合并到进行中调用、没有发送请求的调用次数
+		 */
+		public long getCoalesced() {
+			return coalesced.sum();
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.easy.loadbalance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个服务实例的调用统计: 正在进行的请求数和按时间衰减的延迟EWMA
+ */
+public class InstanceStats {
+
+	/**
+	 * EWMA衰减时间常数(纳秒)，越小越快反映最近的延迟
+	 */
+	private static final double DECAY_NANOS = 10_000_000_000d;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	/**
+	 * 延迟EWMA(纳秒)，以double的位存储
+	 */
+	private final AtomicLong ewmaBits = new AtomicLong(Double.doubleToRawLongBits(0d));
+	private volatile long lastUpdateNanos = System.nanoTime();
+
+	/**
+	 * 请求开始
+	 */
+	public void onStart() {
+		inFlight.incrementAndGet();
+	}
+
+	/**
+	 * 请求结束
+	 * @param latencyNanos 请求耗时
+	 * @param success 是否成功，失败的请求不计入延迟
+	 */
+	public void onComplete(long latencyNanos, boolean success) {
+		inFlight.decrementAndGet();
+		if (success) {
+			observe(latencyNanos);
+		}
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * 延迟EWMA(纳秒)，没有样本时为0
+	 */
+	public double getEwmaNanos() {
+		return Double.longBitsToDouble(ewmaBits.get());
+	}
+
+	private void observe(long latencyNanos) {
+		long now = System.nanoTime();
+		double weight = Math.exp(-(now - lastUpdateNanos) / DECAY_NANOS);
+		lastUpdateNanos = now;
+		while (true) {
+			long bits = ewmaBits.get();
+			double ewma = Double.longBitsToDouble(bits);
+			// 延迟升高时立即采用(peak)，降低时按时间衰减
+			double next = ewma == 0d || latencyNanos > ewma ? latencyNanos : ewma * weight + latencyNanos * (1 - weight);
+			if (ewmaBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+				return;
+			}
+		}
+	}
+}
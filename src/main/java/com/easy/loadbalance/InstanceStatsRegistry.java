@@ -0,0 +1,34 @@
+package com.easy.loadbalance;
+
+import com.easy.config.RpcProperties;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 服务实例调用统计，按host:port区分，实例下线后移除
+ */
+public class InstanceStatsRegistry {
+
+	private final Map<String, InstanceStats> statsMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 获取实例的调用统计，不存在时创建
+	 * @param instance 服务实例
+	 * @return 调用统计
+	 */
+	public InstanceStats get(RpcProperties.ServiceInstance instance) {
+		String address = instance.getAddress();
+		InstanceStats stats = statsMap.get(address);
+		return stats != null ? stats : statsMap.computeIfAbsent(address, k -> new InstanceStats());
+	}
+
+	/**
+	 * 移除已下线实例的调用统计
+	 * @param addresses 仍在服务发现中的实例地址(host:port)
+	 */
+	public void retain(Set<String> addresses) {
+		statsMap.keySet().retainAll(addresses);
+	}
+}
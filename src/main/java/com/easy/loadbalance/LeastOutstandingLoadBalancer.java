@@ -0,0 +1,37 @@
+package com.easy.loadbalance;
+
+import com.easy.config.RpcProperties;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 最少未完成请求数，从随机位置开始遍历，避免并发调用集中到同一个实例
+ */
+public class LeastOutstandingLoadBalancer implements LoadBalancer {
+
+	@Override
+	public RpcProperties.ServiceInstance select(List<RpcProperties.ServiceInstance> instances, InstanceStatsRegistry statsRegistry) {
+		int size = instances.size();
+		int start = ThreadLocalRandom.current().nextInt(size);
+		RpcProperties.ServiceInstance best = null;
+		int bestInFlight = Integer.MAX_VALUE;
+		for (int i = 0; i < size; i++) {
+			RpcProperties.ServiceInstance instance = instances.get((start + i) % size);
+			int inFlight = statsRegistry.get(instance).getInFlight();
+			if (inFlight < bestInFlight) {
+				best = instance;
+				bestInFlight = inFlight;
+				if (inFlight == 0) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	@Override
+	public String type() {
+		return "least-outstanding";
+	}
+}
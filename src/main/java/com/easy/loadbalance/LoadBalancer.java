@@ -0,0 +1,25 @@
+package com.easy.loadbalance;
+
+import com.easy.config.RpcProperties;
+
+import java.util.List;
+
+/**
+ * 负载均衡策略，通过SPI加载，每个接口持有独立实例
+ */
+public interface LoadBalancer {
+
+	/**
+	 * 选择服务实例
+	 * @param instances 可用的服务实例，非空
+	 * @param statsRegistry 实例调用统计
+	 * @return 选中的实例
+	 */
+	RpcProperties.ServiceInstance select(List<RpcProperties.ServiceInstance> instances, InstanceStatsRegistry statsRegistry);
+
+	/**
+	 * 获取负载均衡类型
+	 * @return 负载均衡类型
+	 */
+	String type();
+}
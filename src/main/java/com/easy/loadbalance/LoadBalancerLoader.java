@@ -0,0 +1,24 @@
+package com.easy.loadbalance;
+
+import java.util.ServiceLoader;
+
+public final class LoadBalancerLoader {
+
+	private LoadBalancerLoader() {
+	}
+
+	/**
+	 * 加载负载均衡策略，每次调用返回新实例
+	 * @param type 负载均衡类型
+	 * @return 负载均衡策略
+	 */
+	public static LoadBalancer load(String type) {
+		ServiceLoader<LoadBalancer> loader = ServiceLoader.load(LoadBalancer.class);
+		for (LoadBalancer lb : loader) {
+			if (lb.type().equals(type)) {
+				return lb;
+			}
+		}
+		throw new IllegalStateException("No LoadBalancer found for type: " + type);
+	}
+}
@@ -0,0 +1,44 @@
+package com.easy.loadbalance;
+
+import com.easy.config.RpcProperties;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 随机选择两个实例(power of two choices)，取 延迟EWMA * (未完成请求数 + 1) 较小者
+ */
+public class P2cEwmaLoadBalancer implements LoadBalancer {
+
+	@Override
+	public RpcProperties.ServiceInstance select(List<RpcProperties.ServiceInstance> instances, InstanceStatsRegistry statsRegistry) {
+		int size = instances.size();
+		if (size == 1) {
+			return instances.get(0);
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int a = random.nextInt(size);
+		int b = random.nextInt(size - 1);
+		if (b >= a) {
+			b++;
+		}
+		RpcProperties.ServiceInstance first = instances.get(a);
+		RpcProperties.ServiceInstance second = instances.get(b);
+		return cost(statsRegistry.get(first)) <= cost(statsRegistry.get(second)) ? first : second;
+	}
+
+	private double cost(InstanceStats stats) {
+		double ewma = stats.getEwmaNanos();
+		int inFlight = stats.getInFlight();
+		if (ewma == 0d) {
+			// 没有延迟样本的实例优先探测，但仍受并发数约束
+			return inFlight;
+		}
+		return ewma * (inFlight + 1);
+	}
+
+	@Override
+	public String type() {
+		return "p2c-ewma";
+	}
+}
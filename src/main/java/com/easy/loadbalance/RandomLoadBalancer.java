@@ -0,0 +1,22 @@
+package com.easy.loadbalance;
+
+import com.easy.config.RpcProperties;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 随机
+ */
+public class RandomLoadBalancer implements LoadBalancer {
+
+	@Override
+	public RpcProperties.ServiceInstance select(List<RpcProperties.ServiceInstance> instances, InstanceStatsRegistry statsRegistry) {
+		return instances.get(ThreadLocalRandom.current().nextInt(instances.size()));
+	}
+
+	@Override
+	public String type() {
+		return "random";
+	}
+}
@@ -0,0 +1,24 @@
+package com.easy.loadbalance;
+
+import com.easy.config.RpcProperties;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 轮询
+ */
+public class RoundRobinLoadBalancer implements LoadBalancer {
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	@Override
+	public RpcProperties.ServiceInstance select(List<RpcProperties.ServiceInstance> instances, InstanceStatsRegistry statsRegistry) {
+		return instances.get(Math.floorMod(next.getAndIncrement(), instances.size()));
+	}
+
+	@Override
+	public String type() {
+		return "round-robin";
+	}
+}
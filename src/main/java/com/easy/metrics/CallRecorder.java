@@ -0,0 +1,21 @@
+package com.easy.metrics;
+
+/**
+ * 单个维度(方向/接口/方法/实例)的调用记录器，需线程安全且不加锁
+ */
+public interface CallRecorder {
+
+	/**
+	 * 调用开始
+	 */
+	void onStart();
+
+	/**
+	 * 调用结束，与onStart一一对应
+	 * @param latencyNanos 耗时(纳秒)
+	 * @param success 是否成功
+	 * @param requestBytes 请求负载字节数
+	 * @param responseBytes 响应负载字节数
+	 */
+	void onComplete(long latencyNanos, boolean success, long requestBytes, long responseBytes);
+}
@@ -0,0 +1,79 @@
+package com.easy.metrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 默认指标实现，在进程内按维度聚合，可通过snapshot读取或由Micrometer绑定导出
+ */
+public class DefaultMetricsRecorder implements MetricsRecorder {
+
+	private final Map<MetricKey, MethodMetrics> metricsMap = new ConcurrentHashMap<>();
+	private final List<Consumer<MethodMetrics>> listeners = new CopyOnWriteArrayList<>();
+	private final List<Consumer<MethodMetrics>> removalListeners = new CopyOnWriteArrayList<>();
+
+	@Override
+	public CallRecorder recorder(Side side, String interfaceName, String methodName, String instance) {
+		MetricKey key = new MetricKey(side, interfaceName, methodName, instance);
+		MethodMetrics metrics = metricsMap.get(key);
+		return metrics != null ? metrics : create(key);
+	}
+
+	private MethodMetrics create(MetricKey key) {
+		MethodMetrics created = new MethodMetrics(key);
+		MethodMetrics existing = metricsMap.putIfAbsent(key, created);
+		if (existing != null) {
+			return existing;
+		}
+		for (Consumer<MethodMetrics> listener : listeners) {
+			listener.accept(created);
+		}
+		return created;
+	}
+
+	@Override
+	public void retain(Side side, Set<String> instances) {
+		for (MethodMetrics metrics : metricsMap.values()) {
+			MetricKey key = metrics.getKey();
+			if (key.side() == side && !instances.contains(key.instance()) && metricsMap.remove(key, metrics)) {
+				for (Consumer<MethodMetrics> listener : removalListeners) {
+					listener.accept(metrics);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 所有维度的指标
+	 */
+	public Collection<MethodMetrics> snapshot() {
+		return List.copyOf(metricsMap.values());
+	}
+
+	/**
+	 * 监听新出现的维度，注册时对已有维度立即回调
+	 * @param listener 回调
+	 */
+	public void addListener(Consumer<MethodMetrics> listener) {
+		listeners.add(listener);
+		metricsMap.values().forEach(listener);
+	}
+
+	/**
+	 * 监听因实例下线而移除的维度
+	 * @param listener 回调
+	 */
+	public void addRemovalListener(Consumer<MethodMetrics> listener) {
+		removalListeners.add(listener);
+	}
+
+	@Override
+	public String type() {
+		return "default";
+	}
+}
@@ -0,0 +1,157 @@
+package com.easy.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的对数分桶直方图(与HdrHistogram相同的分桶方式)
+ * 每个2的幂区间再等分为16个子桶，相对误差不超过1/16，固定960个桶覆盖全部long取值
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * 记录一个值
+	 * @param value 值(纳秒)，负数按0记录
+	 */
+	public void record(long value) {
+		long v = Math.max(0, value);
+		counts.incrementAndGet(index(v));
+		count.increment();
+		sum.add(v);
+		max.accumulate(v);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * 所有值之和(纳秒)
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * 当前数据的快照，记录与快照可并发进行
+	 */
+	public Snapshot snapshot() {
+		long[] copy = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = counts.get(i);
+			total += copy[i];
+		}
+		return new Snapshot(copy, total, sum.sum(), max.get());
+	}
+
+	static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+	}
+
+	/**
+	 * 桶的上界(包含)
+	 */
+	static long upperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >> SUB_BUCKET_BITS) - 1;
+		long mantissa = (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return snapshot().toString();
+	}
+
+	public static final class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		private Snapshot(long[] counts, long count, long sum, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * 所有值之和(纳秒)
+		 */
+		public long getSum() {
+			return sum;
+		}
+
+		public long getMax() {
+			return max;
+		}
+
+		public double getMean() {
+			return count == 0 ? 0 : (double) sum / count;
+		}
+
+		/**
+		 * 合并两个快照
+		 */
+		Snapshot merge(Snapshot other) {
+			long[] merged = new long[counts.length];
+			for (int i = 0; i < merged.length; i++) {
+				merged[i] = counts[i] + other.counts[i];
+			}
+			return new Snapshot(merged, count + other.count, sum + other.sum, Math.max(max, other.max));
+		}
+
+		/**
+		 * 分位数，返回所在桶的上界，不超过最大值
+		 * @param quantile 分位，取值0~1
+		 * @return 分位数(纳秒)，无数据时返回0
+		 */
+		public long percentile(double quantile) {
+			if (count == 0) {
+				return 0;
+			}
+			long rank = Math.max(1, (long) Math.ceil(quantile * count));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return Math.min(upperBound(i), max);
+				}
+			}
+			return max;
+		}
+
+		@Override
+		public String toString() {
+			return "{count=" + count
+					+ ", mean=" + TimeUnit.NANOSECONDS.toMicros((long) getMean()) + "us"
+					+ ", p50=" + TimeUnit.NANOSECONDS.toMicros(percentile(0.5)) + "us"
+					+ ", p99=" + TimeUnit.NANOSECONDS.toMicros(percentile(0.99)) + "us"
+					+ ", max=" + TimeUnit.NANOSECONDS.toMicros(max) + "us}";
+		}
+	}
+}
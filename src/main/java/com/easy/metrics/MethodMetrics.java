@@ -0,0 +1,85 @@
+package com.easy.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个维度的调用指标，计数使用分段累加的LongAdder，耗时使用对数分桶直方图
+ * 累计耗时用于总数和平均值，分位数另按最近一到两分钟的数据计算
+ */
+public class MethodMetrics implements CallRecorder {
+
+	@Getter
+	private final MetricKey key;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder inFlight = new LongAdder();
+	private final LongAdder requestBytes = new LongAdder();
+	private final LongAdder responseBytes = new LongAdder();
+	@Getter
+	private final LatencyHistogram latency = new LatencyHistogram();
+	/**
+	 * 最近的耗时，每分钟轮换
+	 */
+	@Getter
+	private final RollingLatencyHistogram recentLatency = new RollingLatencyHistogram(TimeUnit.MINUTES.toNanos(1));
+
+	public MethodMetrics(MetricKey key) {
+		this.key = key;
+	}
+
+	@Override
+	public void onStart() {
+		inFlight.increment();
+	}
+
+	@Override
+	public void onComplete(long latencyNanos, boolean success, long requestBytes, long responseBytes) {
+		inFlight.decrement();
+		calls.increment();
+		if (!success) {
+			errors.increment();
+		}
+		this.requestBytes.add(requestBytes);
+		this.responseBytes.add(responseBytes);
+		latency.record(latencyNanos);
+		recentLatency.record(latencyNanos);
+	}
+
+	/**
+	 * 已完成的调用数
+	 */
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	/**
+	 * 失败的调用数
+	 */
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	/**
+	 * 正在执行的调用数
+	 */
+	public long getInFlight() {
+		return inFlight.sum();
+	}
+
+	public long getRequestBytes() {
+		return requestBytes.sum();
+	}
+
+	public long getResponseBytes() {
+		return responseBytes.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "MethodMetrics{" + key + ", calls=" + getCalls() + ", errors=" + getErrors() + ", inFlight=" + getInFlight()
+				+ ", requestBytes=" + getRequestBytes() + ", responseBytes=" + getResponseBytes() + ", latency=" + latency + "}";
+	}
+}
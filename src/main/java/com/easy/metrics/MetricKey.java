@@ -0,0 +1,11 @@
+package com.easy.metrics;
+
+/**
+ * 指标维度
+ * @param side 调用方向
+ * @param interfaceName 接口名称
+ * @param methodName 方法名
+ * @param instance 服务实例地址(host:port)，消费者为被调用的实例，提供者为本机实例
+ */
+public record MetricKey(Side side, String interfaceName, String methodName, String instance) {
+}
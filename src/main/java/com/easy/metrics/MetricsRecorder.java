@@ -0,0 +1,33 @@
+package com.easy.metrics;
+
+import java.util.Set;
+
+/**
+ * 调用指标SPI，通过META-INF/services注册，按easy.rpc.metrics.type选择
+ */
+public interface MetricsRecorder {
+
+	/**
+	 * 获取某个维度的记录器，调用方按方法和实例缓存返回的记录器，同一维度通常只获取一次
+	 * @param side 调用方向
+	 * @param interfaceName 接口名称
+	 * @param methodName 方法名
+	 * @param instance 服务实例地址(host:port)
+	 * @return 记录器
+	 */
+	CallRecorder recorder(Side side, String interfaceName, String methodName, String instance);
+
+	/**
+	 * 移除已下线实例的记录器，实例重新上线时重新获取
+	 * @param side 调用方向
+	 * @param instances 仍在服务发现中的实例地址(host:port)
+	 */
+	default void retain(Side side, Set<String> instances) {
+	}
+
+	/**
+	 * 获取指标类型
+	 * @return 指标类型
+	 */
+	String type();
+}
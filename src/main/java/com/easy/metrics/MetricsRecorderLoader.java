@@ -0,0 +1,24 @@
+package com.easy.metrics;
+
+import java.util.ServiceLoader;
+
+public final class MetricsRecorderLoader {
+
+	private MetricsRecorderLoader() {
+	}
+
+	/**
+	 * 加载指标记录实现，每次调用返回新实例
+	 * @param type 指标类型
+	 * @return 指标记录实现
+	 */
+	public static MetricsRecorder load(String type) {
+		ServiceLoader<MetricsRecorder> loader = ServiceLoader.load(MetricsRecorder.class);
+		for (MetricsRecorder recorder : loader) {
+			if (recorder.type().equals(type)) {
+				return recorder;
+			}
+		}
+		throw new IllegalStateException("No MetricsRecorder found for type: " + type);
+	}
+}
@@ -0,0 +1,27 @@
+package com.easy.metrics;
+
+/**
+ * 不记录任何指标
+ */
+public class NoopMetricsRecorder implements MetricsRecorder {
+
+	public static final CallRecorder NOOP = new CallRecorder() {
+		@Override
+		public void onStart() {
+		}
+
+		@Override
+		public void onComplete(long latencyNanos, boolean success, long requestBytes, long responseBytes) {
+		}
+	};
+
+	@Override
+	public CallRecorder recorder(Side side, String interfaceName, String methodName, String instance) {
+		return NOOP;
+	}
+
+	@Override
+	public String type() {
+		return "none";
+	}
+}
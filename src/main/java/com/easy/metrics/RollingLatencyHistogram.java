@@ -0,0 +1,51 @@
+package com.easy.metrics;
+
+/**
+ * 按时间轮换的耗时直方图，只保留最近一到两个周期的数据，分位数随负载变化恢复
+ * 在读取快照时轮换，记录路径与LatencyHistogram相同，没有额外开销
+ */
+public class RollingLatencyHistogram {
+
+	private final long periodNanos;
+	private volatile LatencyHistogram current = new LatencyHistogram();
+	private volatile LatencyHistogram previous = new LatencyHistogram();
+	/**
+	 * 上次轮换的时间，只在持有锁时访问
+	 */
+	private long rotatedAt = System.nanoTime();
+
+	/**
+	 * @param periodNanos 轮换周期(纳秒)
+	 */
+	public RollingLatencyHistogram(long periodNanos) {
+		this.periodNanos = periodNanos;
+	}
+
+	/**
+	 * 记录一个值
+	 * @param value 值(纳秒)，负数按0记录
+	 */
+	public void record(long value) {
+		current.record(value);
+	}
+
+	/**
+	 * 最近一到两个周期的数据快照，超过两个周期没有读取时只包含之后记录的值
+	 */
+	public synchronized LatencyHistogram.Snapshot snapshot() {
+		long now = System.nanoTime();
+		long elapsed = now - rotatedAt;
+		if (elapsed >= periodNanos) {
+			// 轮换后仍在写旧直方图的记录计入上一周期
+			previous = elapsed >= 2 * periodNanos ? new LatencyHistogram() : current;
+			current = new LatencyHistogram();
+			rotatedAt = now;
+		}
+		return previous.snapshot().merge(current.snapshot());
+	}
+
+	@Override
+	public String toString() {
+		return snapshot().toString();
+	}
+}
@@ -0,0 +1,16 @@
+package com.easy.metrics;
+
+/**
+ * 调用方向
+ */
+public enum Side {
+
+	/**
+	 * 消费者，从发起调用到收到响应
+	 */
+	CONSUMER,
+	/**
+	 * 提供者，从解析请求到写出响应
+	 */
+	PROVIDER
+}
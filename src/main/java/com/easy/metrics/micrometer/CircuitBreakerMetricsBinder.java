@@ -0,0 +1,82 @@
+package com.easy.metrics.micrometer;
+
+import com.easy.consumer.CircuitBreaker;
+import com.easy.consumer.CircuitBreakerListener;
+import com.easy.consumer.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+
+import java.util.function.Supplier;
+
+/**
+ * 将服务实例熔断器的状态和状态转换导出到Micrometer，每个实例在首次调用时注册，下线时移除
+ */
+public class CircuitBreakerMetricsBinder implements MeterBinder {
+
+	private final Supplier<CircuitBreakerRegistry> circuitBreakerRegistry;
+
+	public CircuitBreakerMetricsBinder(CircuitBreakerRegistry circuitBreakerRegistry) {
+		this(() -> circuitBreakerRegistry);
+	}
+
+	/**
+	 * @param circuitBreakerRegistry 绑定时才获取熔断器，未启用熔断时返回null
+	 */
+	public CircuitBreakerMetricsBinder(Supplier<CircuitBreakerRegistry> circuitBreakerRegistry) {
+		this.circuitBreakerRegistry = circuitBreakerRegistry;
+	}
+
+	@Override
+	public void bindTo(@NonNull MeterRegistry registry) {
+		CircuitBreakerRegistry breakers = circuitBreakerRegistry.get();
+		if (breakers == null) {
+			return;
+		}
+		breakers.addListener(new CircuitBreakerListener() {
+			@Override
+			public void onCreated(CircuitBreaker breaker) {
+				bind(registry, breaker);
+			}
+
+			@Override
+			public void onRemoved(CircuitBreaker breaker) {
+				unbind(registry, breaker);
+			}
+
+			@Override
+			public void onStateTransition(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to) {
+				Counter.builder("easy.rpc.circuit.breaker.transitions")
+						.tags("instance", breaker.getInstance(), "from", name(from), "to", name(to))
+						.description("Circuit breaker state transitions").register(registry).increment();
+			}
+		});
+	}
+
+	private void bind(MeterRegistry registry, CircuitBreaker breaker) {
+		Tags tags = Tags.of("instance", breaker.getInstance());
+		// 每个状态一个取值0/1的指标，便于按状态聚合
+		for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+			Gauge.builder("easy.rpc.circuit.breaker.state", breaker, b -> b.getState() == state ? 1 : 0)
+					.tags(tags).tag("state", name(state)).description("Circuit breaker state").register(registry);
+		}
+		Gauge.builder("easy.rpc.circuit.breaker.failure.rate", breaker, CircuitBreaker::getFailureRate)
+				.tags(tags).baseUnit("percent").description("Failure rate in the sliding window, -1 when not enough calls").register(registry);
+		Gauge.builder("easy.rpc.circuit.breaker.slow.call.rate", breaker, CircuitBreaker::getSlowCallRate)
+				.tags(tags).baseUnit("percent").description("Slow call rate in the sliding window, -1 when not enough calls").register(registry);
+	}
+
+	private void unbind(MeterRegistry registry, CircuitBreaker breaker) {
+		for (String name : new String[]{"easy.rpc.circuit.breaker.state", "easy.rpc.circuit.breaker.failure.rate",
+				"easy.rpc.circuit.breaker.slow.call.rate", "easy.rpc.circuit.breaker.transitions"}) {
+			registry.find(name).tag("instance", breaker.getInstance()).meters().forEach(registry::remove);
+		}
+	}
+
+	private static String name(CircuitBreaker.State state) {
+		return state.name().toLowerCase();
+	}
+}
@@ -0,0 +1,38 @@
+package com.easy.metrics.micrometer;
+
+import com.easy.cache.ResultCacheRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.lang.NonNull;
+
+import java.util.function.Supplier;
+
+/**
+ * 将结果缓存的命中、未命中、淘汰和条目数导出到Micrometer，每个缓存在创建时注册
+ */
+public class ResultCacheMetricsBinder implements MeterBinder {
+
+	private final String side;
+	private final Supplier<ResultCacheRegistry<?>> cacheRegistry;
+
+	/**
+	 * @param side 调用方向，作为side标签
+	 * @param cacheRegistry 绑定时才获取缓存，不存在时返回null
+	 */
+	public ResultCacheMetricsBinder(String side, Supplier<ResultCacheRegistry<?>> cacheRegistry) {
+		this.side = side;
+		this.cacheRegistry = cacheRegistry;
+	}
+
+	@Override
+	public void bindTo(@NonNull MeterRegistry registry) {
+		ResultCacheRegistry<?> caches = cacheRegistry.get();
+		if (caches == null) {
+			return;
+		}
+		caches.addListener(cache -> CaffeineCacheMetrics.monitor(registry, cache.unwrap(), cache.getName(),
+				Tags.of("side", side)));
+	}
+}
@@ -0,0 +1,81 @@
+package com.easy.metrics.micrometer;
+
+import com.easy.metrics.DefaultMetricsRecorder;
+import com.easy.metrics.MethodMetrics;
+import com.easy.metrics.MetricKey;
+import com.easy.metrics.MetricsRecorder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将默认指标实现的数据导出到Micrometer，每个维度在首次调用时注册，实例下线后移除
+ * 计数和耗时由框架内部的记录器累积，Micrometer只在采集时读取
+ */
+@Slf4j
+public class RpcMetricsBinder implements MeterBinder {
+
+	private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+	private static final String[] METER_NAMES = {"easy.rpc.calls", "easy.rpc.errors", "easy.rpc.in.flight",
+			"easy.rpc.request.bytes", "easy.rpc.response.bytes", "easy.rpc.latency", "easy.rpc.latency.percentile"};
+
+	private final MetricsRecorder metricsRecorder;
+
+	public RpcMetricsBinder(MetricsRecorder metricsRecorder) {
+		this.metricsRecorder = metricsRecorder;
+	}
+
+	@Override
+	public void bindTo(@NonNull MeterRegistry registry) {
+		if (!(metricsRecorder instanceof DefaultMetricsRecorder defaultRecorder)) {
+			log.info("Metrics recorder {} does not support Micrometer export", metricsRecorder.type());
+			return;
+		}
+		defaultRecorder.addListener(metrics -> bind(registry, metrics));
+		defaultRecorder.addRemovalListener(metrics -> unbind(registry, metrics));
+	}
+
+	private void bind(MeterRegistry registry, MethodMetrics metrics) {
+		Tags tags = tags(metrics.getKey());
+		FunctionCounter.builder("easy.rpc.calls", metrics, MethodMetrics::getCalls)
+				.tags(tags).description("Completed RPC calls").register(registry);
+		FunctionCounter.builder("easy.rpc.errors", metrics, MethodMetrics::getErrors)
+				.tags(tags).description("Failed RPC calls").register(registry);
+		Gauge.builder("easy.rpc.in.flight", metrics, MethodMetrics::getInFlight)
+				.tags(tags).description("RPC calls in progress").register(registry);
+		FunctionCounter.builder("easy.rpc.request.bytes", metrics, MethodMetrics::getRequestBytes)
+				.tags(tags).baseUnit("bytes").register(registry);
+		FunctionCounter.builder("easy.rpc.response.bytes", metrics, MethodMetrics::getResponseBytes)
+				.tags(tags).baseUnit("bytes").register(registry);
+		FunctionTimer.builder("easy.rpc.latency", metrics,
+						m -> m.getLatency().getCount(), m -> m.getLatency().getSum(), TimeUnit.NANOSECONDS)
+				.tags(tags).description("RPC call latency").register(registry);
+		for (double quantile : QUANTILES) {
+			Gauge.builder("easy.rpc.latency.percentile", metrics,
+							m -> m.getRecentLatency().snapshot().percentile(quantile) / 1_000_000.0)
+					.tags(tags).tag("quantile", String.valueOf(quantile))
+					.baseUnit("milliseconds").description("RPC call latency percentile over the last 1-2 minutes").register(registry);
+		}
+	}
+
+	private void unbind(MeterRegistry registry, MethodMetrics metrics) {
+		Tags tags = tags(metrics.getKey());
+		for (String name : METER_NAMES) {
+			registry.find(name).tags(tags).meters().forEach(registry::remove);
+		}
+	}
+
+	private static Tags tags(MetricKey key) {
+		return Tags.of("side", key.side().name().toLowerCase(),
+				"interface", key.interfaceName(),
+				"method", key.methodName(),
+				"instance", key.instance());
+	}
+}
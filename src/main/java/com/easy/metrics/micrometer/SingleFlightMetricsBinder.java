@@ -0,0 +1,40 @@
+package com.easy.metrics.micrometer;
+
+import com.easy.consumer.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+
+import java.util.function.Supplier;
+
+/**
+ * 将合并调用的统计导出到Micrometer，每个方法在首次合并调用时注册
+ */
+public class SingleFlightMetricsBinder implements MeterBinder {
+
+	private final Supplier<SingleFlight> singleFlight;
+
+	/**
+	 * @param singleFlight 绑定时才获取，不存在时返回null
+	 */
+	public SingleFlightMetricsBinder(Supplier<SingleFlight> singleFlight) {
+		this.singleFlight = singleFlight;
+	}
+
+	@Override
+	public void bindTo(@NonNull MeterRegistry registry) {
+		SingleFlight flights = singleFlight.get();
+		if (flights == null) {
+			return;
+		}
+		flights.addListener(stats -> {
+			Tags tags = Tags.of("interface", stats.getInterfaceName(), "method", stats.getMethodName());
+			FunctionCounter.builder("easy.rpc.single.flight.calls", stats, SingleFlight.Stats::getFlights)
+					.tags(tags).tag("result", "sent").description("Calls that sent a request").register(registry);
+			FunctionCounter.builder("easy.rpc.single.flight.calls", stats, SingleFlight.Stats::getCoalesced)
+					.tags(tags).tag("result", "coalesced").description("Calls that waited for an identical call in flight").register(registry);
+		});
+	}
+}
@@ -59,6 +59,92 @@ public final class Rpc {
      * @return The params at the given index.
      */
     com.google.protobuf.ByteString getParams(int index);
+
+    /**
+     * <code>int64 request_id = 4;</code>
+     * @return The requestId.
+     */
+    long getRequestId();
+
+    /**
+     * <pre>
+     * params使用的压缩算法, 0表示不压缩
+     * </pre>
+     *
+     * <code>int32 compression = 5;</code>
+     * @return The compression.
+     */
+    int getCompression();
+
+    /**
+     * <pre>
+     * 被压缩的params下标位图
+     * </pre>
+     *
+     * <code>uint64 compressed_params = 6;</code>
+     * @return The compressedParams.
+     */
+    long getCompressedParams();
+
+    /**
+     * <pre>
+     * 发送方接受的压缩算法, 0表示不接受压缩
+     * </pre>
+     *
+     * <code>int32 accept_compression = 7;</code>
+     * @return The acceptCompression.
+     */
+    int getAcceptCompression();
+
+    /**
+     * <pre>
+     * 取消帧, 取消同一连接上request_id对应的请求, 其他字段为空
+     * </pre>
+     *
+     * <code>bool cancel = 9;</code>
+     * @return The cancel.
+     */
+    boolean getCancel();
+
+    /**
+     * <pre>
+     * 请求可能被取消, 提供者需要跟踪该请求
+     * </pre>
+     *
+     * <code>bool cancellable = 10;</code>
+     * @return The cancellable.
+     */
+    boolean getCancellable();
+
+    /**
+     * <pre>
+     * 流式调用: 请求中为初始额度, 额度帧中为追加的额度, 单位为元素个数
+     * </pre>
+     *
+     * <code>int32 credits = 11;</code>
+     * @return The credits.
+     */
+    int getCredits();
+
+    /**
+     * <pre>
+     * 额度帧, 为同一连接上request_id对应的流追加credits个额度, 其他字段为空
+     * </pre>
+     *
+     * <code>bool credit = 12;</code>
+     * @return The credit.
+     */
+    boolean getCredit();
+
+    /**
+     * <pre>
+     * 发送时剩余的超时时间(毫秒), 提供者以收到请求的时间为起点计算截止时间, 0表示不限制
+     * </pre>
+     *
+     * <code>int64 timeout = 13;</code>
+     * @return The timeout.
+     */
+    long getTimeout();
   }
   /**
    * Protobuf type {@code rpc.RpcRequest}
@@ -205,6 +291,137 @@ public final class Rpc {
       return params_.get(index);
     }
 
+    public static final int REQUEST_ID_FIELD_NUMBER = 4;
+    private long requestId_ = 0L;
+    /**
+     * <code>int64 request_id = 4;</code>
+     * @return The requestId.
+     */
+    @java.lang.Override
+    public long getRequestId() {
+      return requestId_;
+    }
+
+    public static final int COMPRESSION_FIELD_NUMBER = 5;
+    private int compression_ = 0;
+    /**
+     * <pre>
+     * params使用的压缩算法, 0表示不压缩
+     * </pre>
+     *
+     * <code>int32 compression = 5;</code>
+     * @return The compression.
+     */
+    @java.lang.Override
+    public int getCompression() {
+      return compression_;
+    }
+
+    public static final int COMPRESSED_PARAMS_FIELD_NUMBER = 6;
+    private long compressedParams_ = 0L;
+    /**
+     * <pre>
+     * 被压缩的params下标位图
+     * </pre>
+     *
+     * <code>uint64 compressed_params = 6;</code>
+     * @return The compressedParams.
+     */
+    @java.lang.Override
+    public long getCompressedParams() {
+      return compressedParams_;
+    }
+
+    public static final int ACCEPT_COMPRESSION_FIELD_NUMBER = 7;
+    private int acceptCompression_ = 0;
+    /**
+     * <pre>
+     * 发送方接受的压缩算法, 0表示不接受压缩
+     * </pre>
+     *
+     * <code>int32 accept_compression = 7;</code>
+     * @return The acceptCompression.
+     */
+    @java.lang.Override
+    public int getAcceptCompression() {
+      return acceptCompression_;
+    }
+
+    public static final int CANCEL_FIELD_NUMBER = 9;
+    private boolean cancel_ = false;
+    /**
+     * <pre>
+     * 取消帧, 取消同一连接上request_id对应的请求, 其他字段为空
+     * </pre>
+     *
+     * <code>bool cancel = 9;</code>
+     * @return The cancel.
+     */
+    @java.lang.Override
+    public boolean getCancel() {
+      return cancel_;
+    }
+
+    public static final int CANCELLABLE_FIELD_NUMBER = 10;
+    private boolean cancellable_ = false;
+    /**
+     * <pre>
+     * 请求可能被取消, 提供者需要跟踪该请求
+     * </pre>
+     *
+     * <code>bool cancellable = 10;</code>
+     * @return The cancellable.
+     */
+    @java.lang.Override
+    public boolean getCancellable() {
+      return cancellable_;
+    }
+
+    public static final int CREDITS_FIELD_NUMBER = 11;
+    private int credits_ = 0;
+    /**
+     * <pre>
+     * 流式调用: 请求中为初始额度, 额度帧中为追加的额度, 单位为元素个数
+     * </pre>
+     *
+     * <code>int32 credits = 11;</code>
+     * @return The credits.
+     */
+    @java.lang.Override
+    public int getCredits() {
+      return credits_;
+    }
+
+    public static final int CREDIT_FIELD_NUMBER = 12;
+    private boolean credit_ = false;
+    /**
+     * <pre>
+     * 额度帧, 为同一连接上request_id对应的流追加credits个额度, 其他字段为空
+     * </pre>
+     *
+     * <code>bool credit = 12;</code>
+     * @return The credit.
+     */
+    @java.lang.Override
+    public boolean getCredit() {
+      return credit_;
+    }
+
+    public static final int TIMEOUT_FIELD_NUMBER = 13;
+    private long timeout_ = 0L;
+    /**
+     * <pre>
+     * 发送时剩余的超时时间(毫秒), 提供者以收到请求的时间为起点计算截止时间, 0表示不限制
+     * </pre>
+     *
+     * <code>int64 timeout = 13;</code>
+     * @return The timeout.
+     */
+    @java.lang.Override
+    public long getTimeout() {
+      return timeout_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -228,6 +445,33 @@ public final class Rpc {
       for (int i = 0; i < params_.size(); i++) {
         output.writeBytes(3, params_.get(i));
       }
+      if (requestId_ != 0L) {
+        output.writeInt64(4, requestId_);
+      }
+      if (compression_ != 0) {
+        output.writeInt32(5, compression_);
+      }
+      if (compressedParams_ != 0L) {
+        output.writeUInt64(6, compressedParams_);
+      }
+      if (acceptCompression_ != 0) {
+        output.writeInt32(7, acceptCompression_);
+      }
+      if (cancel_ != false) {
+        output.writeBool(9, cancel_);
+      }
+      if (cancellable_ != false) {
+        output.writeBool(10, cancellable_);
+      }
+      if (credits_ != 0) {
+        output.writeInt32(11, credits_);
+      }
+      if (credit_ != false) {
+        output.writeBool(12, credit_);
+      }
+      if (timeout_ != 0L) {
+        output.writeInt64(13, timeout_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -252,6 +496,42 @@ public final class Rpc {
         size += dataSize;
         size += 1 * getParamsList().size();
       }
+      if (requestId_ != 0L) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(4, requestId_);
+      }
+      if (compression_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(5, compression_);
+      }
+      if (compressedParams_ != 0L) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt64Size(6, compressedParams_);
+      }
+      if (acceptCompression_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(7, acceptCompression_);
+      }
+      if (cancel_ != false) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(9, cancel_);
+      }
+      if (cancellable_ != false) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(10, cancellable_);
+      }
+      if (credits_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(11, credits_);
+      }
+      if (credit_ != false) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(12, credit_);
+      }
+      if (timeout_ != 0L) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(13, timeout_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSize = size;
       return size;
@@ -273,6 +553,24 @@ public final class Rpc {
           .equals(other.getMethodName())) return false;
       if (!getParamsList()
           .equals(other.getParamsList())) return false;
+      if (getRequestId()
+          != other.getRequestId()) return false;
+      if (getCompression()
+          != other.getCompression()) return false;
+      if (getCompressedParams()
+          != other.getCompressedParams()) return false;
+      if (getAcceptCompression()
+          != other.getAcceptCompression()) return false;
+      if (getCancel()
+          != other.getCancel()) return false;
+      if (getCancellable()
+          != other.getCancellable()) return false;
+      if (getCredits()
+          != other.getCredits()) return false;
+      if (getCredit()
+          != other.getCredit()) return false;
+      if (getTimeout()
+          != other.getTimeout()) return false;
       if (!getUnknownFields().equals(other.getUnknownFields())) return false;
       return true;
     }
@@ -292,6 +590,30 @@ public final class Rpc {
         hash = (37 * hash) + PARAMS_FIELD_NUMBER;
         hash = (53 * hash) + getParamsList().hashCode();
       }
+      hash = (37 * hash) + REQUEST_ID_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+          getRequestId());
+      hash = (37 * hash) + COMPRESSION_FIELD_NUMBER;
+      hash = (53 * hash) + getCompression();
+      hash = (37 * hash) + COMPRESSED_PARAMS_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+          getCompressedParams());
+      hash = (37 * hash) + ACCEPT_COMPRESSION_FIELD_NUMBER;
+      hash = (53 * hash) + getAcceptCompression();
+      hash = (37 * hash) + CANCEL_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+          getCancel());
+      hash = (37 * hash) + CANCELLABLE_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+          getCancellable());
+      hash = (37 * hash) + CREDITS_FIELD_NUMBER;
+      hash = (53 * hash) + getCredits();
+      hash = (37 * hash) + CREDIT_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+          getCredit());
+      hash = (37 * hash) + TIMEOUT_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+          getTimeout());
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -426,6 +748,15 @@ public final class Rpc {
         interfaceName_ = "";
         methodName_ = "";
         params_ = emptyList(com.google.protobuf.ByteString.class);
+        requestId_ = 0L;
+        compression_ = 0;
+        compressedParams_ = 0L;
+        acceptCompression_ = 0;
+        cancel_ = false;
+        cancellable_ = false;
+        credits_ = 0;
+        credit_ = false;
+        timeout_ = 0L;
         return this;
       }
 
@@ -469,6 +800,33 @@ public final class Rpc {
           params_.makeImmutable();
           result.params_ = params_;
         }
+        if (((from_bitField0_ & 0x00000008) != 0)) {
+          result.requestId_ = requestId_;
+        }
+        if (((from_bitField0_ & 0x00000010) != 0)) {
+          result.compression_ = compression_;
+        }
+        if (((from_bitField0_ & 0x00000020) != 0)) {
+          result.compressedParams_ = compressedParams_;
+        }
+        if (((from_bitField0_ & 0x00000040) != 0)) {
+          result.acceptCompression_ = acceptCompression_;
+        }
+        if (((from_bitField0_ & 0x00000080) != 0)) {
+          result.cancel_ = cancel_;
+        }
+        if (((from_bitField0_ & 0x00000100) != 0)) {
+          result.cancellable_ = cancellable_;
+        }
+        if (((from_bitField0_ & 0x00000200) != 0)) {
+          result.credits_ = credits_;
+        }
+        if (((from_bitField0_ & 0x00000400) != 0)) {
+          result.credit_ = credit_;
+        }
+        if (((from_bitField0_ & 0x00000800) != 0)) {
+          result.timeout_ = timeout_;
+        }
       }
 
       @java.lang.Override
@@ -536,6 +894,33 @@ public final class Rpc {
           }
           onChanged();
         }
+        if (other.getRequestId() != 0L) {
+          setRequestId(other.getRequestId());
+        }
+        if (other.getCompression() != 0) {
+          setCompression(other.getCompression());
+        }
+        if (other.getCompressedParams() != 0L) {
+          setCompressedParams(other.getCompressedParams());
+        }
+        if (other.getAcceptCompression() != 0) {
+          setAcceptCompression(other.getAcceptCompression());
+        }
+        if (other.getCancel() != false) {
+          setCancel(other.getCancel());
+        }
+        if (other.getCancellable() != false) {
+          setCancellable(other.getCancellable());
+        }
+        if (other.getCredits() != 0) {
+          setCredits(other.getCredits());
+        }
+        if (other.getCredit() != false) {
+          setCredit(other.getCredit());
+        }
+        if (other.getTimeout() != 0L) {
+          setTimeout(other.getTimeout());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         onChanged();
         return this;
@@ -578,6 +963,51 @@ public final class Rpc {
                 params_.add(v);
                 break;
               } // case 26
+              case 32: {
+                requestId_ = input.readInt64();
+                bitField0_ |= 0x00000008;
+                break;
+              } // case 32
+              case 40: {
+                compression_ = input.readInt32();
+                bitField0_ |= 0x00000010;
+                break;
+              } // case 40
+              case 48: {
+                compressedParams_ = input.readUInt64();
+                bitField0_ |= 0x00000020;
+                break;
+              } // case 48
+              case 56: {
+                acceptCompression_ = input.readInt32();
+                bitField0_ |= 0x00000040;
+                break;
+              } // case 56
+              case 72: {
+                cancel_ = input.readBool();
+                bitField0_ |= 0x00000080;
+                break;
+              } // case 72
+              case 80: {
+                cancellable_ = input.readBool();
+                bitField0_ |= 0x00000100;
+                break;
+              } // case 80
+              case 88: {
+                credits_ = input.readInt32();
+                bitField0_ |= 0x00000200;
+                break;
+              } // case 88
+              case 96: {
+                credit_ = input.readBool();
+                bitField0_ |= 0x00000400;
+                break;
+              } // case 96
+              case 104: {
+                timeout_ = input.readInt64();
+                bitField0_ |= 0x00000800;
+                break;
+              } // case 104
               default: {
                 if (!super.parseUnknownField(input, extensionRegistry, tag)) {
                   done = true; // was an endgroup tag
@@ -822,6 +1252,390 @@ public final class Rpc {
         onChanged();
         return this;
       }
+
+      private long requestId_ ;
+      /**
+       * <code>int64 request_id = 4;</code>
+       * @return The requestId.
+       */
+      @java.lang.Override
+      public long getRequestId() {
+        return requestId_;
+      }
+      /**
+       * <code>int64 request_id = 4;</code>
+       * @param value The requestId to set.
+       * @return This builder for chaining.
+       */
+      public Builder setRequestId(long value) {
+
+        requestId_ = value;
+        bitField0_ |= 0x00000008;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>int64 request_id = 4;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearRequestId() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        requestId_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private int compression_ ;
+      /**
+       * <pre>
+       * params使用的压缩算法, 0表示不压缩
+       * </pre>
+       *
+       * <code>int32 compression = 5;</code>
+       * @return The compression.
+       */
+      @java.lang.Override
+      public int getCompression() {
+        return compression_;
+      }
+      /**
+       * <pre>
+       * params使用的压缩算法, 0表示不压缩
+       * </pre>
+       *
+       * <code>int32 compression = 5;</code>
+       * @param value The compression to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCompression(int value) {
+
+        compression_ = value;
+        bitField0_ |= 0x00000010;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * params使用的压缩算法, 0表示不压缩
+       * </pre>
+       *
+       * <code>int32 compression = 5;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCompression() {
+        bitField0_ = (bitField0_ & ~0x00000010);
+        compression_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private long compressedParams_ ;
+      /**
+       * <pre>
+       * 被压缩的params下标位图
+       * </pre>
+       *
+       * <code>uint64 compressed_params = 6;</code>
+       * @return The compressedParams.
+       */
+      @java.lang.Override
+      public long getCompressedParams() {
+        return compressedParams_;
+      }
+      /**
+       * <pre>
+       * 被压缩的params下标位图
+       * </pre>
+       *
+       * <code>uint64 compressed_params = 6;</code>
+       * @param value The compressedParams to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCompressedParams(long value) {
+
+        compressedParams_ = value;
+        bitField0_ |= 0x00000020;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 被压缩的params下标位图
+       * </pre>
+       *
+       * <code>uint64 compressed_params = 6;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCompressedParams() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        compressedParams_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private int acceptCompression_ ;
+      /**
+       * <pre>
+       * 发送方接受的压缩算法, 0表示不接受压缩
+       * </pre>
+       *
+       * <code>int32 accept_compression = 7;</code>
+       * @return The acceptCompression.
+       */
+      @java.lang.Override
+      public int getAcceptCompression() {
+        return acceptCompression_;
+      }
+      /**
+       * <pre>
+       * 发送方接受的压缩算法, 0表示不接受压缩
+       * </pre>
+       *
+       * <code>int32 accept_compression = 7;</code>
+       * @param value The acceptCompression to set.
+       * @return This builder for chaining.
+       */
+      public Builder setAcceptCompression(int value) {
+
+        acceptCompression_ = value;
+        bitField0_ |= 0x00000040;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 发送方接受的压缩算法, 0表示不接受压缩
+       * </pre>
+       *
+       * <code>int32 accept_compression = 7;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearAcceptCompression() {
+        bitField0_ = (bitField0_ & ~0x00000040);
+        acceptCompression_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private boolean cancel_ ;
+      /**
+       * <pre>
+       * 取消帧, 取消同一连接上request_id对应的请求, 其他字段为空
+       * </pre>
+       *
+       * <code>bool cancel = 9;</code>
+       * @return The cancel.
+       */
+      @java.lang.Override
+      public boolean getCancel() {
+        return cancel_;
+      }
+      /**
+       * <pre>
+       * 取消帧, 取消同一连接上request_id对应的请求, 其他字段为空
+       * </pre>
+       *
+       * <code>bool cancel = 9;</code>
+       * @param value The cancel to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCancel(boolean value) {
+
+        cancel_ = value;
+        bitField0_ |= 0x00000080;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 取消帧, 取消同一连接上request_id对应的请求, 其他字段为空
+       * </pre>
+       *
+       * <code>bool cancel = 9;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCancel() {
+        bitField0_ = (bitField0_ & ~0x00000080);
+        cancel_ = false;
+        onChanged();
+        return this;
+      }
+
+      private boolean cancellable_ ;
+      /**
+       * <pre>
+       * 请求可能被取消, 提供者需要跟踪该请求
+       * </pre>
+       *
+       * <code>bool cancellable = 10;</code>
+       * @return The cancellable.
+       */
+      @java.lang.Override
+      public boolean getCancellable() {
+        return cancellable_;
+      }
+      /**
+       * <pre>
+       * 请求可能被取消, 提供者需要跟踪该请求
+       * </pre>
+       *
+       * <code>bool cancellable = 10;</code>
+       * @param value The cancellable to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCancellable(boolean value) {
+
+        cancellable_ = value;
+        bitField0_ |= 0x00000100;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 请求可能被取消, 提供者需要跟踪该请求
+       * </pre>
+       *
+       * <code>bool cancellable = 10;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCancellable() {
+        bitField0_ = (bitField0_ & ~0x00000100);
+        cancellable_ = false;
+        onChanged();
+        return this;
+      }
+
+      private int credits_ ;
+      /**
+       * <pre>
+       * 流式调用: 请求中为初始额度, 额度帧中为追加的额度, 单位为元素个数
+       * </pre>
+       *
+       * <code>int32 credits = 11;</code>
+       * @return The credits.
+       */
+      @java.lang.Override
+      public int getCredits() {
+        return credits_;
+      }
+      /**
+       * <pre>
+       * 流式调用: 请求中为初始额度, 额度帧中为追加的额度, 单位为元素个数
+       * </pre>
+       *
+       * <code>int32 credits = 11;</code>
+       * @param value The credits to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCredits(int value) {
+
+        credits_ = value;
+        bitField0_ |= 0x00000200;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 流式调用: 请求中为初始额度, 额度帧中为追加的额度, 单位为元素个数
+       * </pre>
+       *
+       * <code>int32 credits = 11;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCredits() {
+        bitField0_ = (bitField0_ & ~0x00000200);
+        credits_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private boolean credit_ ;
+      /**
+       * <pre>
+       * 额度帧, 为同一连接上request_id对应的流追加credits个额度, 其他字段为空
+       * </pre>
+       *
+       * <code>bool credit = 12;</code>
+       * @return The credit.
+       */
+      @java.lang.Override
+      public boolean getCredit() {
+        return credit_;
+      }
+      /**
+       * <pre>
+       * 额度帧, 为同一连接上request_id对应的流追加credits个额度, 其他字段为空
+       * </pre>
+       *
+       * <code>bool credit = 12;</code>
+       * @param value The credit to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCredit(boolean value) {
+
+        credit_ = value;
+        bitField0_ |= 0x00000400;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 额度帧, 为同一连接上request_id对应的流追加credits个额度, 其他字段为空
+       * </pre>
+       *
+       * <code>bool credit = 12;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCredit() {
+        bitField0_ = (bitField0_ & ~0x00000400);
+        credit_ = false;
+        onChanged();
+        return this;
+      }
+
+      private long timeout_ ;
+      /**
+       * <pre>
+       * 发送时剩余的超时时间(毫秒), 提供者以收到请求的时间为起点计算截止时间, 0表示不限制
+       * </pre>
+       *
+       * <code>int64 timeout = 13;</code>
+       * @return The timeout.
+       */
+      @java.lang.Override
+      public long getTimeout() {
+        return timeout_;
+      }
+      /**
+       * <pre>
+       * 发送时剩余的超时时间(毫秒), 提供者以收到请求的时间为起点计算截止时间, 0表示不限制
+       * </pre>
+       *
+       * <code>int64 timeout = 13;</code>
+       * @param value The timeout to set.
+       * @return This builder for chaining.
+       */
+      public Builder setTimeout(long value) {
+
+        timeout_ = value;
+        bitField0_ |= 0x00000800;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 发送时剩余的超时时间(毫秒), 提供者以收到请求的时间为起点计算截止时间, 0表示不限制
+       * </pre>
+       *
+       * <code>int64 timeout = 13;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearTimeout() {
+        bitField0_ = (bitField0_ & ~0x00000800);
+        timeout_ = 0L;
+        onChanged();
+        return this;
+      }
       @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -913,6 +1727,42 @@ public final class Rpc {
      */
     com.google.protobuf.ByteString
         getMsgBytes();
+
+    /**
+     * <code>int64 request_id = 4;</code>
+     * @return The requestId.
+     */
+    long getRequestId();
+
+    /**
+     * <pre>
+     * data使用的压缩算法, 0表示不压缩
+     * </pre>
+     *
+     * <code>int32 compression = 5;</code>
+     * @return The compression.
+     */
+    int getCompression();
+
+    /**
+     * <pre>
+     * 发送方接受的压缩算法, 0表示不接受压缩
+     * </pre>
+     *
+     * <code>int32 accept_compression = 6;</code>
+     * @return The acceptCompression.
+     */
+    int getAcceptCompression();
+
+    /**
+     * <pre>
+     * 流式响应的一个元素, data为该元素; 流结束时发送不带该标记的响应, code为流的结果
+     * </pre>
+     *
+     * <code>bool stream_element = 7;</code>
+     * @return The streamElement.
+     */
+    boolean getStreamElement();
   }
   /**
    * Protobuf type {@code rpc.RpcResponse}
@@ -1012,6 +1862,62 @@ public final class Rpc {
       }
     }
 
+    public static final int REQUEST_ID_FIELD_NUMBER = 4;
+    private long requestId_ = 0L;
+    /**
+     * <code>int64 request_id = 4;</code>
+     * @return The requestId.
+     */
+    @java.lang.Override
+    public long getRequestId() {
+      return requestId_;
+    }
+
+    public static final int COMPRESSION_FIELD_NUMBER = 5;
+    private int compression_ = 0;
+    /**
+     * <pre>
+     * data使用的压缩算法, 0表示不压缩
+     * </pre>
+     *
+     * <code>int32 compression = 5;</code>
+     * @return The compression.
+     */
+    @java.lang.Override
+    public int getCompression() {
+      return compression_;
+    }
+
+    public static final int ACCEPT_COMPRESSION_FIELD_NUMBER = 6;
+    private int acceptCompression_ = 0;
+    /**
+     * <pre>
+     * 发送方接受的压缩算法, 0表示不接受压缩
+     * </pre>
+     *
+     * <code>int32 accept_compression = 6;</code>
+     * @return The acceptCompression.
+     */
+    @java.lang.Override
+    public int getAcceptCompression() {
+      return acceptCompression_;
+    }
+
+    public static final int STREAM_ELEMENT_FIELD_NUMBER = 7;
+    private boolean streamElement_ = false;
+    /**
+     * <pre>
+     * 流式响应的一个元素, data为该元素; 流结束时发送不带该标记的响应, code为流的结果
+     * </pre>
+     *
+     * <code>bool stream_element = 7;</code>
+     * @return The streamElement.
+     */
+    @java.lang.Override
+    public boolean getStreamElement() {
+      return streamElement_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -1035,6 +1941,18 @@ public final class Rpc {
       if (!com.google.protobuf.GeneratedMessageV3.isStringEmpty(msg_)) {
         com.google.protobuf.GeneratedMessageV3.writeString(output, 3, msg_);
       }
+      if (requestId_ != 0L) {
+        output.writeInt64(4, requestId_);
+      }
+      if (compression_ != 0) {
+        output.writeInt32(5, compression_);
+      }
+      if (acceptCompression_ != 0) {
+        output.writeInt32(6, acceptCompression_);
+      }
+      if (streamElement_ != false) {
+        output.writeBool(7, streamElement_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -1055,6 +1973,22 @@ public final class Rpc {
       if (!com.google.protobuf.GeneratedMessageV3.isStringEmpty(msg_)) {
         size += com.google.protobuf.GeneratedMessageV3.computeStringSize(3, msg_);
       }
+      if (requestId_ != 0L) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(4, requestId_);
+      }
+      if (compression_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(5, compression_);
+      }
+      if (acceptCompression_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(6, acceptCompression_);
+      }
+      if (streamElement_ != false) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(7, streamElement_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSize = size;
       return size;
@@ -1076,6 +2010,14 @@ public final class Rpc {
           .equals(other.getData())) return false;
       if (!getMsg()
           .equals(other.getMsg())) return false;
+      if (getRequestId()
+          != other.getRequestId()) return false;
+      if (getCompression()
+          != other.getCompression()) return false;
+      if (getAcceptCompression()
+          != other.getAcceptCompression()) return false;
+      if (getStreamElement()
+          != other.getStreamElement()) return false;
       if (!getUnknownFields().equals(other.getUnknownFields())) return false;
       return true;
     }
@@ -1093,6 +2035,16 @@ public final class Rpc {
       hash = (53 * hash) + getData().hashCode();
       hash = (37 * hash) + MSG_FIELD_NUMBER;
       hash = (53 * hash) + getMsg().hashCode();
+      hash = (37 * hash) + REQUEST_ID_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+          getRequestId());
+      hash = (37 * hash) + COMPRESSION_FIELD_NUMBER;
+      hash = (53 * hash) + getCompression();
+      hash = (37 * hash) + ACCEPT_COMPRESSION_FIELD_NUMBER;
+      hash = (53 * hash) + getAcceptCompression();
+      hash = (37 * hash) + STREAM_ELEMENT_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+          getStreamElement());
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -1227,6 +2179,10 @@ public final class Rpc {
         code_ = 0;
         data_ = com.google.protobuf.ByteString.EMPTY;
         msg_ = "";
+        requestId_ = 0L;
+        compression_ = 0;
+        acceptCompression_ = 0;
+        streamElement_ = false;
         return this;
       }
 
@@ -1269,6 +2225,18 @@ public final class Rpc {
         if (((from_bitField0_ & 0x00000004) != 0)) {
           result.msg_ = msg_;
         }
+        if (((from_bitField0_ & 0x00000008) != 0)) {
+          result.requestId_ = requestId_;
+        }
+        if (((from_bitField0_ & 0x00000010) != 0)) {
+          result.compression_ = compression_;
+        }
+        if (((from_bitField0_ & 0x00000020) != 0)) {
+          result.acceptCompression_ = acceptCompression_;
+        }
+        if (((from_bitField0_ & 0x00000040) != 0)) {
+          result.streamElement_ = streamElement_;
+        }
       }
 
       @java.lang.Override
@@ -1326,6 +2294,18 @@ public final class Rpc {
           bitField0_ |= 0x00000004;
           onChanged();
         }
+        if (other.getRequestId() != 0L) {
+          setRequestId(other.getRequestId());
+        }
+        if (other.getCompression() != 0) {
+          setCompression(other.getCompression());
+        }
+        if (other.getAcceptCompression() != 0) {
+          setAcceptCompression(other.getAcceptCompression());
+        }
+        if (other.getStreamElement() != false) {
+          setStreamElement(other.getStreamElement());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         onChanged();
         return this;
@@ -1367,6 +2347,26 @@ public final class Rpc {
                 bitField0_ |= 0x00000004;
                 break;
               } // case 26
+              case 32: {
+                requestId_ = input.readInt64();
+                bitField0_ |= 0x00000008;
+                break;
+              } // case 32
+              case 40: {
+                compression_ = input.readInt32();
+                bitField0_ |= 0x00000010;
+                break;
+              } // case 40
+              case 48: {
+                acceptCompression_ = input.readInt32();
+                bitField0_ |= 0x00000020;
+                break;
+              } // case 48
+              case 56: {
+                streamElement_ = input.readBool();
+                bitField0_ |= 0x00000040;
+                break;
+              } // case 56
               default: {
                 if (!super.parseUnknownField(input, extensionRegistry, tag)) {
                   done = true; // was an endgroup tag
@@ -1519,6 +2519,170 @@ public final class Rpc {
         onChanged();
         return this;
       }
+
+      private long requestId_ ;
+      /**
+       * <code>int64 request_id = 4;</code>
+       * @return The requestId.
+       */
+      @java.lang.Override
+      public long getRequestId() {
+        return requestId_;
+      }
+      /**
+       * <code>int64 request_id = 4;</code>
+       * @param value The requestId to set.
+       * @return This builder for chaining.
+       */
+      public Builder setRequestId(long value) {
+
+        requestId_ = value;
+        bitField0_ |= 0x00000008;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>int64 request_id = 4;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearRequestId() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        requestId_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private int compression_ ;
+      /**
+       * <pre>
+       * data使用的压缩算法, 0表示不压缩
+       * </pre>
+       *
+       * <code>int32 compression = 5;</code>
+       * @return The compression.
+       */
+      @java.lang.Override
+      public int getCompression() {
+        return compression_;
+      }
+      /**
+       * <pre>
+       * data使用的压缩算法, 0表示不压缩
+       * </pre>
+       *
+       * <code>int32 compression = 5;</code>
+       * @param value The compression to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCompression(int value) {
+
+        compression_ = value;
+        bitField0_ |= 0x00000010;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * data使用的压缩算法, 0表示不压缩
+       * </pre>
+       *
+       * <code>int32 compression = 5;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCompression() {
+        bitField0_ = (bitField0_ & ~0x00000010);
+        compression_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int acceptCompression_ ;
+      /**
+       * <pre>
+       * 发送方接受的压缩算法, 0表示不接受压缩
+       * </pre>
+       *
+       * <code>int32 accept_compression = 6;</code>
+       * @return The acceptCompression.
+       */
+      @java.lang.Override
+      public int getAcceptCompression() {
+        return acceptCompression_;
+      }
+      /**
+       * <pre>
+       * 发送方接受的压缩算法, 0表示不接受压缩
+       * </pre>
+       *
+       * <code>int32 accept_compression = 6;</code>
+       * @param value The acceptCompression to set.
+       * @return This builder for chaining.
+       */
+      public Builder setAcceptCompression(int value) {
+
+        acceptCompression_ = value;
+        bitField0_ |= 0x00000020;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 发送方接受的压缩算法, 0表示不接受压缩
+       * </pre>
+       *
+       * <code>int32 accept_compression = 6;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearAcceptCompression() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        acceptCompression_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private boolean streamElement_ ;
+      /**
+       * <pre>
+       * 流式响应的一个元素, data为该元素; 流结束时发送不带该标记的响应, code为流的结果
+       * </pre>
+       *
+       * <code>bool stream_element = 7;</code>
+       * @return The streamElement.
+       */
+      @java.lang.Override
+      public boolean getStreamElement() {
+        return streamElement_;
+      }
+      /**
+       * <pre>
+       * 流式响应的一个元素, data为该元素; 流结束时发送不带该标记的响应, code为流的结果
+       * </pre>
+       *
+       * <code>bool stream_element = 7;</code>
+       * @param value The streamElement to set.
+       * @return This builder for chaining.
+       */
+      public Builder setStreamElement(boolean value) {
+
+        streamElement_ = value;
+        bitField0_ |= 0x00000040;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 流式响应的一个元素, data为该元素; 流结束时发送不带该标记的响应, code为流的结果
+       * </pre>
+       *
+       * <code>bool stream_element = 7;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearStreamElement() {
+        bitField0_ = (bitField0_ & ~0x00000040);
+        streamElement_ = false;
+        onChanged();
+        return this;
+      }
       @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -1602,10 +2766,17 @@ public final class Rpc {
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n\trpc.proto\022\003rpc\"I\n\nRpcRequest\022\026\n\016interf" +
-      "ace_name\030\001 \001(\t\022\023\n\013method_name\030\002 \001(\t\022\016\n\006p" +
-      "arams\030\003 \003(\014\"6\n\013RpcResponse\022\014\n\004code\030\001 \001(\005" +
-      "\022\014\n\004data\030\002 \001(\014\022\013\n\003msg\030\003 \001(\tb\006proto3"
+      "\n\trpc.proto\022\003rpc\"\206\002\n\nRpcRequest\022\026\n\016inter" +
+      "face_name\030\001 \001(\t\022\023\n\013method_name\030\002 \001(\t\022\016\n\006" +
+      "params\030\003 \003(\014\022\022\n\nrequest_id\030\004 \001(\003\022\023\n\013comp" +
+      "ression\030\005 \001(\005\022\031\n\021compressed_params\030\006 \001(\004" +
+      "\022\032\n\022accept_compression\030\007 \001(\005\022\016\n\006cancel\030\t" +
+      " \001(\010\022\023\n\013cancellable\030\n \001(\010\022\017\n\007credits\030\013 \001" +
+      "(\005\022\016\n\006credit\030\014 \001(\010\022\017\n\007timeout\030\r \001(\003J\004\010\010\020" +
+      "\t\"\223\001\n\013RpcResponse\022\014\n\004code\030\001 \001(\005\022\014\n\004data\030" +
+      "\002 \001(\014\022\013\n\003msg\030\003 \001(\t\022\022\n\nrequest_id\030\004 \001(\003\022\023" +
+      "\n\013compression\030\005 \001(\005\022\032\n\022accept_compressio" +
+      "n\030\006 \001(\005\022\026\n\016stream_element\030\007 \001(\010b\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -1616,13 +2787,13 @@ public final class Rpc {
     internal_static_rpc_RpcRequest_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_rpc_RpcRequest_descriptor,
-        new java.lang.String[] { "InterfaceName", "MethodName", "Params", });
+        new java.lang.String[] { "InterfaceName", "MethodName", "Params", "RequestId", "Compression", "CompressedParams", "AcceptCompression", "Cancel", "Cancellable", "Credits", "Credit", "Timeout", });
     internal_static_rpc_RpcResponse_descriptor =
       getDescriptor().getMessageTypes().get(1);
     internal_static_rpc_RpcResponse_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_rpc_RpcResponse_descriptor,
-        new java.lang.String[] { "Code", "Data", "Msg", });
+        new java.lang.String[] { "Code", "Data", "Msg", "RequestId", "Compression", "AcceptCompression", "StreamElement", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
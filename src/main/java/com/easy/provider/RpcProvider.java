@@ -1,10 +1,17 @@
 package com.easy.provider;
 
+import com.easy.codec.PayloadCodecs;
 import com.easy.config.RpcProperties;
+import com.easy.metrics.MetricsRecorder;
+import com.easy.metrics.MetricsRecorderLoader;
 import com.easy.registry.Registry;
 import com.easy.registry.RegistryLoader;
+import com.easy.server.DispatchTable;
+import com.easy.server.ResponseCaches;
 import com.easy.server.RpcServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.vertx.core.net.NetServer;
+import lombok.Getter;
 import org.springframework.beans.factory.SmartInitializingSingleton;
 
 import java.util.List;
@@ -16,12 +23,26 @@ public class RpcProvider implements SmartInitializingSingleton, AutoCloseable {
 	private final RpcProperties rpcProperties;
 	private final Registry registry;
 	private final ServiceProcessor serviceProcessor;
+	private final ObjectMapper objectMapper;
+	private final MetricsRecorder metricsRecorder;
 	private final List<NetServer> netServers = new CopyOnWriteArrayList<>();
+	private final List<RpcServer> rpcServers = new CopyOnWriteArrayList<>();
 	private final List<String> registryKeys = new CopyOnWriteArrayList<>();
+	/**
+	 * 响应缓存，服务代码在数据变化时通过它失效@CacheResponse方法的缓存
+	 */
+	@Getter
+	private final ResponseCaches responseCaches = new ResponseCaches();
 
 	public RpcProvider(RpcProperties rpcProperties, ServiceProcessor serviceProcessor) {
+		this(rpcProperties, serviceProcessor, MetricsRecorderLoader.load(rpcProperties.getMetrics().getType()));
+	}
+
+	public RpcProvider(RpcProperties rpcProperties, ServiceProcessor serviceProcessor, MetricsRecorder metricsRecorder) {
 		this.rpcProperties = rpcProperties;
+		this.metricsRecorder = metricsRecorder;
 		this.serviceProcessor = serviceProcessor;
+		this.objectMapper = PayloadCodecs.createObjectMapper(rpcProperties.getCodec());
 		this.registry = RegistryLoader.load(rpcProperties.getRegistry());
 	}
 
@@ -31,10 +52,13 @@ public class RpcProvider implements SmartInitializingSingleton, AutoCloseable {
 		if (serviceMap.isEmpty()) {
 			return;
 		}
-		RpcServer rpcServer = new RpcServer(serviceMap);
+		// 预先构建分发表，请求时不再反射查找方法
+		DispatchTable dispatchTable = DispatchTable.build(serviceMap, objectMapper);
+		RpcServer rpcServer = new RpcServer(rpcProperties, dispatchTable, metricsRecorder, responseCaches);
 		RpcProperties.ServiceInstance instance = rpcProperties.getInstance();
 		NetServer netServer = rpcServer.start(instance.getHost(), instance.getPort());
 		netServers.add(netServer);
+		rpcServers.add(rpcServer);
 		for (String interfaceName : serviceMap.keySet()) {
 			registry.register(instance, interfaceName);
 			registryKeys.add(registry.getServiceKey(instance, interfaceName));
@@ -62,6 +86,14 @@ public class RpcProvider implements SmartInitializingSingleton, AutoCloseable {
 			}
 		}
 		netServers.clear();
+		for (RpcServer s : rpcServers) {
+			try {
+				s.close();
+			} catch (Exception ignored) {
+
+			}
+		}
+		rpcServers.clear();
 		registry.close();
 	}
 }
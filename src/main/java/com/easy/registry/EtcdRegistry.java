@@ -6,19 +6,34 @@ import com.fasterxml.jackson.databind.json.JsonMapper;
 import io.etcd.jetcd.ByteSequence;
 import io.etcd.jetcd.Client;
 import io.etcd.jetcd.KV;
+import io.etcd.jetcd.KeyValue;
 import io.etcd.jetcd.Lease;
+import io.etcd.jetcd.Watch;
+import io.etcd.jetcd.kv.GetResponse;
 import io.etcd.jetcd.options.GetOption;
 import io.etcd.jetcd.options.PutOption;
+import io.etcd.jetcd.options.WatchOption;
+import io.etcd.jetcd.watch.WatchEvent;
+import io.etcd.jetcd.watch.WatchResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
+@Slf4j
 public class EtcdRegistry implements Registry{
 
+	/**
+	 * watch断开后重新同步的延迟(毫秒)
+	 */
+	private static final long RESYNC_DELAY_MILLIS = 1000;
+
 	private RpcProperties.Registry registry;
 	private Client client;
 	private KV kvClient;
@@ -34,8 +49,18 @@ public class EtcdRegistry implements Registry{
 	 */
 	private final Map<String, ScheduledFuture<?>> scheduledFutureMap = new ConcurrentHashMap<>();
 
+	/**
+	 * 服务实例本地缓存，key为服务前缀 {etc.namespace}/{interfaceName}/{version}/
+	 * 由watch保持更新，discover直接读取缓存
+	 */
+	private final Map<String, ServiceCache> serviceCacheMap = new ConcurrentHashMap<>();
+
+	private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
 	private ScheduledExecutorService scheduler;
 
+	private volatile boolean closed;
+
 	@Override
 	public void init(RpcProperties.Registry registry) {
 		this.registry = registry;
@@ -63,7 +88,7 @@ public class EtcdRegistry implements Registry{
 			 * /ns/interface/version/host:port → instance metadata
 			 */
 			String key = getKey(instance, interfaceName);
-			String value = JsonMapper.builder().build().writeValueAsString(instance);
+			String value = jsonMapper.writeValueAsString(instance);
 			kvClient.put(ByteSequence.from(key, StandardCharsets.UTF_8), ByteSequence.from(value, StandardCharsets.UTF_8),
 					PutOption.builder().withLeaseId(leaseId).build()).get();
 			// keep alive
@@ -98,27 +123,36 @@ public class EtcdRegistry implements Registry{
 
 	@Override
 	public List<RpcProperties.ServiceInstance> discover(RpcProperties.ServiceInstance instance, String interfaceName) {
-		// 获取服务实例
-		List<RpcProperties.ServiceInstance> instances;
-		try {
-			KV kvClient = client.getKVClient();
-			instances = kvClient.get(ByteSequence.from(getKeyWithOutInstance(instance, interfaceName), StandardCharsets.UTF_8), GetOption.builder().isPrefix(true).build())
-					.get().getKvs().stream()
-					.map(kv -> {
-						try {
-							return JsonMapper.builder().build().readValue(kv.getValue().toString(StandardCharsets.UTF_8), RpcProperties.ServiceInstance.class);
-						} catch (JsonProcessingException e) {
-							throw new RuntimeException(e);
-						}
-					}).toList();
-			return instances;
-		} catch (Exception e) {
-			throw new RuntimeException(e.getMessage());
+		if (closed) {
+			throw new IllegalStateException("Registry closed");
+		}
+		String prefix = getKeyWithOutInstance(instance, interfaceName) + "/";
+		ServiceCache cache = serviceCacheMap.get(prefix);
+		if (cache == null) {
+			// 首次发现时全量拉取并建立watch，在map锁之外进行避免阻塞其他接口的发现
+			ServiceCache created = new ServiceCache(prefix);
+			cache = serviceCacheMap.putIfAbsent(prefix, created);
+			if (cache == null) {
+				cache = created;
+			} else {
+				created.close();
+			}
 		}
+		Snapshot snapshot = cache.snapshot;
+		if (snapshot == null) {
+			// 与close并发时缓存不再加载
+			throw new IllegalStateException("Registry closed");
+		}
+		return snapshot.instances;
 	}
 
 	@Override
 	public void close() {
+		closed = true;
+		for (ServiceCache cache : serviceCacheMap.values()) {
+			cache.close();
+		}
+		serviceCacheMap.clear();
 		client.close();
 		scheduler.shutdown();
 	}
@@ -158,4 +192,175 @@ public class EtcdRegistry implements Registry{
 	public String getKeyWithOutInstance(RpcProperties.ServiceInstance instance, String interfaceName) {
 		return "/" + registry.getNamespace() + "/" + interfaceName + "/" + instance.getVersion();
 	}
+
+	private RpcProperties.ServiceInstance parseInstance(KeyValue kv) {
+		try {
+			return jsonMapper.readValue(kv.getValue().toString(StandardCharsets.UTF_8), RpcProperties.ServiceInstance.class);
+		} catch (JsonProcessingException e) {
+			log.warn("Invalid service instance {}", kv.getKey().toString(StandardCharsets.UTF_8), e);
+			return null;
+		}
+	}
+
+	/**
+	 * 服务实例快照，不可变
+	 */
+	private static final class Snapshot {
+
+		private final Map<String, RpcProperties.ServiceInstance> instanceMap;
+		private final List<RpcProperties.ServiceInstance> instances;
+		private final long revision;
+
+		private Snapshot(Map<String, RpcProperties.ServiceInstance> instanceMap, long revision) {
+			this.instanceMap = instanceMap;
+			this.instances = List.copyOf(instanceMap.values());
+			this.revision = revision;
+		}
+	}
+
+	/**
+	 * 某个服务前缀下的实例缓存，写时复制:
+	 * 读取直接访问volatile快照，watch事件和重新同步在锁内生成新快照
+	 * 使用ReentrantLock而非synchronized，虚拟线程在锁内等待etcd时不会固定载体线程
+	 */
+	private final class ServiceCache {
+
+		private final ReentrantLock lock = new ReentrantLock();
+		private final String prefix;
+		private volatile Snapshot snapshot;
+		private Watch.Watcher watcher;
+		/**
+		 * 每次重新watch递增，用于丢弃旧watcher的迟到事件
+		 */
+		private long generation;
+
+		private ServiceCache(String prefix) {
+			this.prefix = prefix;
+			resync();
+		}
+
+		/**
+		 * 全量拉取实例并从该版本之后重新watch
+		 */
+		private void resync() {
+			lock.lock();
+			try {
+				if (closed) {
+					return;
+				}
+				ByteSequence key = ByteSequence.from(prefix, StandardCharsets.UTF_8);
+				GetResponse response;
+				try {
+					response = kvClient.get(key, GetOption.builder().isPrefix(true).build()).get();
+				} catch (Exception e) {
+					if (snapshot == null) {
+						throw new RuntimeException(e.getMessage(), e);
+					}
+					log.warn("Resync {} failed, retry later", prefix, e);
+					scheduleResync();
+					return;
+				}
+				Map<String, RpcProperties.ServiceInstance> instanceMap = new HashMap<>();
+				for (KeyValue kv : response.getKvs()) {
+					RpcProperties.ServiceInstance instance = parseInstance(kv);
+					if (instance != null) {
+						instanceMap.put(kv.getKey().toString(StandardCharsets.UTF_8), instance);
+					}
+				}
+				long revision = response.getHeader().getRevision();
+				snapshot = new Snapshot(instanceMap, revision);
+				if (watcher != null) {
+					watcher.close();
+				}
+				long watchGeneration = ++generation;
+				watcher = client.getWatchClient().watch(key,
+						WatchOption.builder().isPrefix(true).withRevision(revision + 1).build(),
+						new Watch.Listener() {
+							@Override
+							public void onNext(WatchResponse watchResponse) {
+								apply(watchGeneration, watchResponse);
+							}
+
+							@Override
+							public void onError(Throwable throwable) {
+								log.warn("Watch {} disconnected, resync", prefix, throwable);
+								onDisconnect(watchGeneration);
+							}
+
+							@Override
+							public void onCompleted() {
+								onDisconnect(watchGeneration);
+							}
+						});
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void apply(long watchGeneration, WatchResponse watchResponse) {
+			lock.lock();
+			try {
+				if (watchGeneration != generation) {
+					return;
+				}
+				Snapshot current = snapshot;
+				Map<String, RpcProperties.ServiceInstance> instanceMap = new HashMap<>(current.instanceMap);
+				long revision = current.revision;
+				for (WatchEvent event : watchResponse.getEvents()) {
+					KeyValue kv = event.getKeyValue();
+					if (kv.getModRevision() <= current.revision) {
+						continue;
+					}
+					String key = kv.getKey().toString(StandardCharsets.UTF_8);
+					if (event.getEventType() == WatchEvent.EventType.PUT) {
+						RpcProperties.ServiceInstance instance = parseInstance(kv);
+						if (instance != null) {
+							instanceMap.put(key, instance);
+						}
+					} else if (event.getEventType() == WatchEvent.EventType.DELETE) {
+						instanceMap.remove(key);
+					}
+					revision = Math.max(revision, kv.getModRevision());
+				}
+				if (revision != current.revision) {
+					snapshot = new Snapshot(instanceMap, revision);
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void onDisconnect(long watchGeneration) {
+			lock.lock();
+			try {
+				if (watchGeneration == generation && !closed) {
+					// 让后续迟到事件失效，等待重新同步
+					generation++;
+					scheduleResync();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void scheduleResync() {
+			try {
+				scheduler.schedule(this::resync, RESYNC_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException ignored) {
+				// 注册中心已关闭
+			}
+		}
+
+		private void close() {
+			lock.lock();
+			try {
+				generation++;
+				if (watcher != null) {
+					watcher.close();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
 }
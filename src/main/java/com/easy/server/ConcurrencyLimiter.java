@@ -0,0 +1,138 @@
+package com.easy.server;
+
+import com.easy.config.RpcProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应并发限制(Gradient算法)，按实测耗时调整允许同时执行的请求数
+ * 每个采样窗口取平均耗时作为短期耗时，与长期耗时的指数平均比较:
+ * 短期耗时明显变长说明请求开始排队，按比例收缩限制；耗时平稳时每个窗口放宽一个固定余量
+ */
+final class ConcurrencyLimiter {
+
+	/**
+	 * 采样窗口的最短时间和最少样本数
+	 */
+	private static final long WINDOW_NANOS = 100_000_000L;
+	private static final int WINDOW_MIN_SAMPLES = 10;
+	/**
+	 * 长期耗时的平滑窗口(样本窗口数)
+	 */
+	private static final int LONG_WINDOW = 100;
+	/**
+	 * 每次调整的平滑系数
+	 */
+	private static final double SMOOTHING = 0.2;
+	/**
+	 * 耗时平稳时每个窗口放宽的余量
+	 */
+	private static final int QUEUE_SIZE = 4;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final double rttTolerance;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private volatile int limit;
+	private double estimatedLimit;
+	private double longRtt;
+	private int windows;
+
+	private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+	private final LongAdder windowRttSum = new LongAdder();
+	private final LongAdder windowSamples = new LongAdder();
+	private final LongAccumulator windowMaxInFlight = new LongAccumulator(Math::max, 0);
+
+	ConcurrencyLimiter(RpcProperties.Provider provider) {
+		this.minLimit = Math.max(1, provider.getMinConcurrencyLimit());
+		this.maxLimit = Math.max(minLimit, provider.getMaxConcurrencyLimit());
+		this.rttTolerance = Math.max(1.0, provider.getConcurrencyRttTolerance());
+		this.estimatedLimit = Math.min(maxLimit, Math.max(minLimit, provider.getInitialConcurrencyLimit()));
+		this.limit = (int) estimatedLimit;
+	}
+
+	/**
+	 * 尝试获取执行许可
+	 * @return 是否获取成功，失败时应立即拒绝请求
+	 */
+	boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= limit) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				windowMaxInFlight.accumulate(current + 1);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * 释放许可并记录耗时，与成功的tryAcquire一一对应
+	 * @param rttNanos 从收到请求到写出响应的耗时
+	 */
+	void release(long rttNanos) {
+		inFlight.decrementAndGet();
+		windowRttSum.add(rttNanos);
+		windowSamples.increment();
+		long start = windowStart.get();
+		long now = System.nanoTime();
+		if (now - start >= WINDOW_NANOS && windowSamples.sum() >= WINDOW_MIN_SAMPLES
+				&& windowStart.compareAndSet(start, now)) {
+			// 只有关闭窗口的线程更新限制
+			long samples = windowSamples.sumThenReset();
+			long rttSum = windowRttSum.sumThenReset();
+			long maxInFlight = windowMaxInFlight.getThenReset();
+			if (samples > 0) {
+				update((double) rttSum / samples, maxInFlight);
+			}
+		}
+	}
+
+	/**
+	 * 释放许可但不记录耗时，用于没有执行的请求(已过期、执行器拒绝或排队时被取消)
+	 * 这类响应的耗时接近0，计入样本会拉低平均耗时，恰好在过载时放宽限制
+	 */
+	void release() {
+		inFlight.decrementAndGet();
+	}
+
+	private synchronized void update(double shortRtt, long maxInFlight) {
+		if (windows < LONG_WINDOW) {
+			windows++;
+		}
+		longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) / windows;
+		if (longRtt / shortRtt > 2) {
+			// 负载下降后长期耗时快速回落，避免长时间过度放宽
+			longRtt *= 0.95;
+		}
+		if (maxInFlight < estimatedLimit / 2) {
+			// 并发远未达到限制，耗时不能反映限制是否合适
+			return;
+		}
+		double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+		double newLimit = estimatedLimit * gradient + QUEUE_SIZE;
+		newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+		estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+		limit = (int) estimatedLimit;
+	}
+
+	/**
+	 * 当前并发限制
+	 */
+	int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * 正在执行的请求数
+	 */
+	int getInFlight() {
+		return inFlight.get();
+	}
+}
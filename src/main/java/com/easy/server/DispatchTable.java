@@ -0,0 +1,91 @@
+package com.easy.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 服务分发表，启动时按导出接口构建，构建后不可变
+ * 接口名 -> 方法名 -> 以参数个数为下标的调用器数组
+ */
+public final class DispatchTable {
+
+	private static final Logger log = LoggerFactory.getLogger(DispatchTable.class);
+
+	private final Map<String, Map<String, MethodInvoker[]>> services;
+
+	private DispatchTable(Map<String, Map<String, MethodInvoker[]>> services) {
+		this.services = services;
+	}
+
+	/**
+	 * 根据导出的服务构建分发表
+	 * @param serviceMap 接口名 -> 服务实例
+	 * @param objectMapper 参数和返回值序列化使用的ObjectMapper
+	 * @return 分发表
+	 */
+	public static DispatchTable build(Map<String, Object> serviceMap, ObjectMapper objectMapper) {
+		Map<String, Map<String, MethodInvoker[]>> services = new HashMap<>();
+		serviceMap.forEach((interfaceName, service) -> {
+			Class<?> serviceInterface = ClassUtils.resolveClassName(interfaceName, service.getClass().getClassLoader());
+			Map<String, MethodInvoker[]> methods = new HashMap<>();
+			for (Method method : serviceInterface.getMethods()) {
+				if (Modifier.isStatic(method.getModifiers())) {
+					continue;
+				}
+				int paramCount = method.getParameterCount();
+				MethodInvoker[] invokers = methods.get(method.getName());
+				if (invokers == null || invokers.length <= paramCount) {
+					invokers = invokers == null ? new MethodInvoker[paramCount + 1] : Arrays.copyOf(invokers, paramCount + 1);
+					methods.put(method.getName(), invokers);
+				}
+				if (invokers[paramCount] != null) {
+					log.warn("Ambiguous overload {}.{} with {} parameters, only {} is exported",
+							interfaceName, method.getName(), paramCount, invokers[paramCount].getMethod());
+					continue;
+				}
+				try {
+					invokers[paramCount] = new MethodInvoker(interfaceName, service, method, objectMapper);
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException("Cannot access method " + method, e);
+				}
+			}
+			services.put(interfaceName, Map.copyOf(methods));
+		});
+		return new DispatchTable(Map.copyOf(services));
+	}
+
+	/**
+	 * 是否导出了该接口
+	 * @param interfaceName 接口名称
+	 */
+	public boolean containsService(String interfaceName) {
+		return services.containsKey(interfaceName);
+	}
+
+	/**
+	 * 查找方法调用器
+	 * @param interfaceName 接口名称
+	 * @param methodName 方法名
+	 * @param paramCount 参数数量
+	 * @return 调用器，不存在时返回null
+	 */
+	public MethodInvoker lookup(String interfaceName, String methodName, int paramCount) {
+		Map<String, MethodInvoker[]> methods = services.get(interfaceName);
+		if (methods == null) {
+			return null;
+		}
+		MethodInvoker[] invokers = methods.get(methodName);
+		if (invokers == null || paramCount >= invokers.length) {
+			return null;
+		}
+		return invokers[paramCount];
+	}
+}
@@ -0,0 +1,128 @@
+package com.easy.server;
+
+import com.easy.annotation.CacheResponse;
+import com.easy.codec.MethodCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import org.springframework.util.ClassUtils;
+import rpc.Rpc;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * 服务方法调用器，启动时预先解析好方法句柄和参数、返回值编解码器，请求时直接调用
+ */
+public final class MethodInvoker {
+
+	private static final Object[] EMPTY_ARGS = new Object[0];
+
+	/**
+	 * 导出的接口名称，继承自同一父接口的方法在每个导出接口上各有一个调用器
+	 */
+	private final String interfaceName;
+	private final Method method;
+	/**
+	 * 已绑定服务实例的方法句柄，类型为 (Object[])Object
+	 */
+	private final MethodHandle handle;
+	private final MethodCodec codec;
+	private final boolean async;
+	private final boolean streaming;
+	/**
+	 * 响应缓存配置，实现类方法上的优先，未标记时为null
+	 */
+	private final CacheResponse cacheResponse;
+
+	MethodInvoker(String interfaceName, Object service, Method method, ObjectMapper objectMapper) throws IllegalAccessException {
+		this.interfaceName = interfaceName;
+		this.method = method;
+		method.trySetAccessible();
+		this.handle = MethodHandles.lookup().unreflect(method)
+				.bindTo(service)
+				.asSpreader(Object[].class, method.getParameterCount())
+				.asType(MethodType.methodType(Object.class, Object[].class));
+		this.codec = new MethodCodec(method, objectMapper);
+		this.async = MethodCodec.isAsync(method);
+		this.streaming = MethodCodec.isStreaming(method);
+		Method implementation = ClassUtils.getMostSpecificMethod(method, ClassUtils.getUserClass(service));
+		CacheResponse cacheResponse = implementation.getAnnotation(CacheResponse.class);
+		this.cacheResponse = cacheResponse != null ? cacheResponse : method.getAnnotation(CacheResponse.class);
+	}
+
+	/**
+	 * 参数反序列化
+	 * @param request 请求
+	 * @return 参数数组
+	 */
+	public Object[] decodeParams(Rpc.RpcRequest request) throws IOException {
+		if (codec.getParamCount() == 0) {
+			return EMPTY_ARGS;
+		}
+		Object[] args = new Object[codec.getParamCount()];
+		for (int i = 0; i < args.length; i++) {
+			args[i] = codec.decodeParam(i, request.getParams(i));
+		}
+		return args;
+	}
+
+	/**
+	 * 参数序列化，与消费者的序列化方式相同，用于按参数生成响应缓存key
+	 * @param index 参数下标
+	 * @param arg 参数
+	 * @return 序列化结果
+	 */
+	public ByteString encodeParam(int index, Object arg) throws IOException {
+		return codec.encodeParam(index, arg);
+	}
+
+	/**
+	 * 调用服务方法，抛出服务方法本身的异常
+	 * @param args 参数
+	 * @return 返回值，void方法返回null
+	 */
+	public Object invoke(Object[] args) throws Throwable {
+		return (Object) handle.invokeExact(args);
+	}
+
+	/**
+	 * 返回值序列化
+	 * @param result 返回值
+	 * @return 序列化结果
+	 */
+	public ByteString encodeResult(Object result) throws IOException {
+		return codec.encodeResult(result);
+	}
+
+	/**
+	 * 是否为异步方法，返回值为CompletionStage
+	 */
+	public boolean isAsync() {
+		return async;
+	}
+
+	/**
+	 * 是否为流式方法，返回值为Flow.Publisher、Stream或Iterator，encodeResult按元素序列化
+	 */
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public String getInterfaceName() {
+		return interfaceName;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * 响应缓存配置，未标记@CacheResponse时为null
+	 */
+	public CacheResponse getCacheResponse() {
+		return cacheResponse;
+	}
+}
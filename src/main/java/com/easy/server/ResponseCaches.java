@@ -0,0 +1,121 @@
+package com.easy.server;
+
+import com.easy.annotation.CacheResponse;
+import com.easy.cache.ResultCache;
+import com.easy.cache.ResultCacheRegistry;
+import com.google.protobuf.ByteString;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 提供者的响应缓存，每个@CacheResponse方法一个，首次请求时创建
+ * 服务代码在数据变化时通过本类主动失效，参数按消费者相同的方式序列化后匹配缓存key
+ */
+public class ResponseCaches {
+
+	private static final Logger log = LoggerFactory.getLogger(ResponseCaches.class);
+
+	@Getter
+	private final ResultCacheRegistry<MethodInvoker> caches = new ResultCacheRegistry<>();
+	/**
+	 * 导出的接口名称 -> 方法 -> 已创建缓存的调用器，失效时用于查找缓存和序列化参数
+	 * 继承自同一父接口的方法在每个导出接口上各有一个缓存
+	 */
+	private final Map<String, Map<Method, MethodInvoker>> invokers = new ConcurrentHashMap<>();
+
+	/**
+	 * 获取方法的响应缓存
+	 * @return 响应缓存，方法不需要缓存时返回null
+	 */
+	ResultCache get(MethodInvoker invoker) {
+		return caches.get(invoker, this::create);
+	}
+
+	private ResultCache create(MethodInvoker invoker) {
+		CacheResponse cacheResponse = invoker.getCacheResponse();
+		if (cacheResponse == null) {
+			return null;
+		}
+		Method method = invoker.getMethod();
+		if (method.getReturnType() == void.class || invoker.isStreaming()) {
+			log.warn("@CacheResponse is ignored for void or streaming method {}#{}", invoker.getInterfaceName(), method.getName());
+			return null;
+		}
+		invokers.computeIfAbsent(invoker.getInterfaceName(), k -> new ConcurrentHashMap<>()).put(method, invoker);
+		return new ResultCache(invoker.getInterfaceName() + "#" + method.getName(),
+				cacheResponse.ttlMillis(), cacheResponse.maxEntries(), cacheResponse.maxBytes());
+	}
+
+	/**
+	 * 失效一组参数对应的缓存
+	 * @param serviceInterface 导出的服务接口
+	 * @param methodName 方法名，重载方法按参数个数区分
+	 * @param args 参数
+	 */
+	public void invalidate(Class<?> serviceInterface, String methodName, Object... args) {
+		for (MethodInvoker invoker : lookup(serviceInterface, methodName)) {
+			if (invoker.getMethod().getParameterCount() != args.length) {
+				continue;
+			}
+			ResultCache cache = caches.find(invoker);
+			if (cache == null) {
+				continue;
+			}
+			List<ByteString> params = new ArrayList<>(args.length);
+			try {
+				for (int i = 0; i < args.length; i++) {
+					params.add(invoker.encodeParam(i, args[i]));
+				}
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Cannot encode arguments of " + invoker.getMethod(), e);
+			}
+			cache.invalidate(ResultCache.key(params));
+		}
+	}
+
+	/**
+	 * 失效方法的全部缓存，包括同名的重载方法
+	 * @param serviceInterface 导出的服务接口
+	 * @param methodName 方法名
+	 */
+	public void invalidateAll(Class<?> serviceInterface, String methodName) {
+		for (MethodInvoker invoker : lookup(serviceInterface, methodName)) {
+			ResultCache cache = caches.find(invoker);
+			if (cache != null) {
+				cache.invalidateAll();
+			}
+		}
+	}
+
+	/**
+	 * 失效所有方法的缓存
+	 */
+	public void invalidateAll() {
+		caches.getCaches().forEach(ResultCache::invalidateAll);
+	}
+
+	/**
+	 * 按导出的接口名称查找已创建缓存的同名方法，尚未创建缓存的方法没有需要失效的条目
+	 */
+	private List<MethodInvoker> lookup(Class<?> serviceInterface, String methodName) {
+		Map<Method, MethodInvoker> methods = invokers.get(serviceInterface.getName());
+		if (methods == null) {
+			return List.of();
+		}
+		List<MethodInvoker> found = new ArrayList<>(1);
+		for (MethodInvoker invoker : methods.values()) {
+			if (invoker.getMethod().getName().equals(methodName)) {
+				found.add(invoker);
+			}
+		}
+		return found;
+	}
+}
@@ -1,29 +1,96 @@
 package com.easy.server;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.easy.cache.ResultCache;
+import com.easy.codec.Compression;
+import com.easy.codec.CompressionStats;
+import com.easy.config.RpcProperties;
+import com.easy.metrics.CallRecorder;
+import com.easy.metrics.MetricsRecorder;
+import com.easy.metrics.MetricsRecorderLoader;
+import com.easy.metrics.Side;
+import com.easy.transport.FrameCodec;
+import com.easy.transport.FrameWriter;
+import com.easy.transport.ResponseCode;
+import com.easy.transport.WriteBatchStats;
+import com.easy.util.VirtualThreads;
 import com.google.protobuf.ByteString;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.Context;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetServer;
-import io.vertx.core.net.NetSocket;
+import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
 import rpc.Rpc;
 
-import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class RpcServer {
+public class RpcServer implements AutoCloseable {
 
 	private final Vertx vertx = Vertx.vertx();
-	private final Map<String, Object> serviceMap;
-	private final ObjectMapper objectMapper = new ObjectMapper();
-
+	private final DispatchTable dispatchTable;
+	private final FrameCodec frameCodec;
+	private final RpcProperties.Transport transport;
+	private final int maxInFlightPerConnection;
+	@Getter
+	private final WriteBatchStats writeBatchStats = new WriteBatchStats();
+	private final Compression compression;
+	private final MetricsRecorder metricsRecorder;
+	/**
+	 * 本机服务地址(host:port)，作为提供者指标的实例维度
+	 */
+	private volatile String address;
+	private final RpcProperties.Provider provider;
+	/**
+	 * 全局并发限制，按接口限制或未开启时为null
+	 */
+	private final ConcurrencyLimiter globalLimiter;
+	/**
+	 * 接口 -> 并发限制，仅按接口限制时使用
+	 */
+	private final Map<String, ConcurrencyLimiter> serviceLimiters = new ConcurrentHashMap<>();
+	/**
+	 * 方法 -> 调用记录器，与分发表一样按方法解析一次
+	 */
+	private final Map<MethodInvoker, CallRecorder> recorders = new ConcurrentHashMap<>();
+	/**
+	 * 服务方法执行器，为null时在事件循环线程执行
+	 */
+	private final ExecutorService executor;
+	/**
+	 * 响应缓存，只有@CacheResponse方法有缓存
+	 */
+	@Getter
+	private final ResponseCaches responseCaches;
 
 	private static final Logger log = LoggerFactory.getLogger(RpcServer.class);
 
-	public RpcServer(Map<String, Object> serviceMap) {
-		this.serviceMap = serviceMap;
+	public RpcServer(RpcProperties rpcProperties, DispatchTable dispatchTable) {
+		this(rpcProperties, dispatchTable, MetricsRecorderLoader.load(rpcProperties.getMetrics().getType()));
+	}
+
+	public RpcServer(RpcProperties rpcProperties, DispatchTable dispatchTable, MetricsRecorder metricsRecorder) {
+		this(rpcProperties, dispatchTable, metricsRecorder, new ResponseCaches());
+	}
+
+	public RpcServer(RpcProperties rpcProperties, DispatchTable dispatchTable, MetricsRecorder metricsRecorder,
+			ResponseCaches responseCaches) {
+		this.dispatchTable = dispatchTable;
+		this.responseCaches = responseCaches;
+		this.metricsRecorder = metricsRecorder;
+		this.provider = rpcProperties.getProvider();
+		this.globalLimiter = provider.getConcurrencyLimit() == RpcProperties.ConcurrencyLimitScope.GLOBAL
+				? new ConcurrencyLimiter(provider) : null;
+		this.transport = rpcProperties.getTransport();
+		this.frameCodec = new FrameCodec(transport.getMaxFrameSize());
+		this.compression = new Compression(transport);
+		this.executor = createExecutor(rpcProperties.getProvider());
+		this.maxInFlightPerConnection = rpcProperties.getProvider().getMaxInFlightPerConnection();
 	}
 
 	/**
@@ -33,69 +100,354 @@ public class RpcServer {
 	 * @return NetServer 实例
 	 */
 	public NetServer start(String host, int port) {
+		this.address = host + ":" + port;
 		NetServer server = vertx.createNetServer()
-				.connectHandler(socket -> socket.handler(buf -> handle(buf, socket)));
+				.connectHandler(socket -> {
+					Context context = Vertx.currentContext();
+					FrameWriter frameWriter = new FrameWriter(socket, context, transport, writeBatchStats);
+					ServerConnection connection = new ServerConnection(socket, context, frameWriter, maxInFlightPerConnection);
+					FrameCodec.Decoder decoder = frameCodec.decoder(buf -> handle(buf, connection), e -> {
+						log.warn("Invalid frame from {}, closing connection", socket.remoteAddress(), e);
+						socket.close();
+					});
+					connection.setDecoder(decoder);
+					socket.handler(decoder);
+					socket.closeHandler(v -> connection.onClose());
+				});
 		server.listen(port, host);
 		log.info("RPC Server started on port {} (tcp)", port);
 		return server;
 	}
 
 	/**
-	 * 调用处理方法
-	 * @param buf 接收的数据
-	 * @param socket socket连接
+	 * 调用处理方法，在socket所属的事件循环线程解析请求，按执行模型分发执行
+	 * 同一连接上的请求并发执行，响应按完成顺序写出
+	 * 流式方法的元素按额度逐个写出，流式调用不占用连接的并发数和并发限制
+	 * @param buf 接收的一帧数据
+	 * @param connection 服务端连接
 	 */
-	private void handle(Buffer buf, NetSocket socket) {
+	private void handle(Buffer buf, ServerConnection connection) {
+		// 请求的超时时间以收到请求的时间为起点
+		long receivedNanos = System.nanoTime();
+		Rpc.RpcRequest request;
 		try {
-			Rpc.RpcRequest request = Rpc.RpcRequest.parseFrom(buf.getBytes());
-			String interfaceName = request.getInterfaceName();
-			Object obj = serviceMap.get(interfaceName);
-			Rpc.RpcResponse.Builder response = Rpc.RpcResponse.newBuilder();
-			if (obj == null) {
-				// service not found
-				response.setCode(404).setMsg("Service not found: " + interfaceName);
-			} else {
-				Method method = getInvokeMethod(obj, request.getMethodName(), request.getParamsCount());
-				if (method == null) {
-					// method not found
-					response.setCode(404).setMsg("Method not found: " + request.getMethodName());
+			request = Rpc.RpcRequest.parseFrom(FrameCodec.input(buf));
+		} catch (Exception e) {
+			// 无法得知请求id，错误响应无法送达调用方，按协议错误关闭连接
+			log.warn("Invalid request from {}, closing connection", connection.socket().remoteAddress(), e);
+			connection.close();
+			return;
+		}
+		if (request.getCancel()) {
+			connection.cancel(request.getRequestId());
+			return;
+		}
+		if (request.getCredit()) {
+			connection.credit(request.getRequestId(), request.getCredits());
+			return;
+		}
+		String interfaceName = request.getInterfaceName();
+		MethodInvoker invoker = dispatchTable.lookup(interfaceName, request.getMethodName(), request.getParamsCount());
+		if (invoker == null) {
+			// 未导出的接口和方法不计入指标，避免指标维度被任意请求撑大
+			String msg = dispatchTable.containsService(interfaceName)
+					? "Method not found: " + request.getMethodName() : "Service not found: " + interfaceName;
+			connection.write(encode(error(request, ResponseCode.NOT_FOUND, msg)));
+			return;
+		}
+		CallRecorder recorder = recorder(interfaceName, invoker);
+		ResultCache cache = responseCaches.get(invoker);
+		ByteString cacheKey = cache != null ? cacheKey(request) : null;
+		long cacheGeneration = 0;
+		if (cacheKey != null) {
+			// 先读取代数再查询，未命中时计算期间发生的失效不会被覆盖
+			cacheGeneration = cache.generation();
+			ByteString data = cache.get(cacheKey);
+			if (data != null) {
+				// 命中时在事件循环线程直接响应，不反序列化、不执行方法，也不占用并发限制
+				long start = System.nanoTime();
+				recorder.onStart();
+				Rpc.RpcResponse resp = success(request, data);
+				connection.write(encode(resp));
+				recorder.onComplete(System.nanoTime() - start, true, requestBytes(request), resp.getData().size());
+				return;
+			}
+		}
+		// 流式调用的耗时取决于调用方的消费速度，不参与基于延迟的并发限制
+		ConcurrencyLimiter limiter = invoker.isStreaming() ? null : limiter(interfaceName);
+		if (limiter != null && !limiter.tryAcquire()) {
+			// 超过并发限制时立即拒绝，不计入连接的并发数
+			recorder.onStart();
+			recorder.onComplete(0, false, 0, 0);
+			connection.write(encode(error(request, ResponseCode.LIMIT_EXCEEDED, "Concurrency limit exceeded")));
+			return;
+		}
+		AtomicBoolean cancelled = request.getCancellable() ? connection.track(request.getRequestId()) : null;
+		Call call = new Call(request, invoker, recorder, limiter, cancelled, cacheKey != null ? cache : null, cacheKey,
+				cacheGeneration, receivedNanos);
+		recorder.onStart();
+		if (!invoker.isStreaming()) {
+			connection.onRequestStart();
+		}
+		if (call.isExpired()) {
+			// 调用方已不再等待，不再反序列化和执行
+			reply(connection, call, CompletableFuture.completedFuture(deadlineExceeded(request)), false);
+			return;
+		}
+		if (executor == null) {
+			reply(connection, call, invoke(connection, call), true);
+			return;
+		}
+		try {
+			executor.execute(() -> execute(connection, call));
+		} catch (RejectedExecutionException e) {
+			reply(connection, call, CompletableFuture.completedFuture(error(request, ResponseCode.OVERLOADED, "Provider overloaded")), false);
+		}
+	}
+
+	/**
+	 * 在执行器中执行调用，排队期间已过期或被取消的请求不再执行
+	 */
+	private void execute(ServerConnection connection, Call call) {
+		Rpc.RpcRequest request = call.request();
+		if (call.isExpired()) {
+			reply(connection, call, CompletableFuture.completedFuture(deadlineExceeded(request)), false);
+			return;
+		}
+		if (call.isCancelled()) {
+			reply(connection, call, CompletableFuture.completedFuture(error(request, ResponseCode.CANCELLED, "Cancelled")), false);
+			return;
+		}
+		reply(connection, call, invoke(connection, call), true);
+	}
+
+	/**
+	 * 调用服务方法，返回CompletionStage的异步方法在其完成后生成响应，流式方法在流结束后生成响应
+	 * @param connection 服务端连接，用于写出流元素
+	 * @param call 调用
+	 * @return 响应，不会异常完成
+	 */
+	private CompletionStage<Rpc.RpcResponse> invoke(ServerConnection connection, Call call) {
+		Rpc.RpcRequest request = call.request();
+		MethodInvoker invoker = call.invoker();
+		try {
+			// 参数解压和反序列化
+			Object[] args = invoker.decodeParams(compression.decompressParams(request));
+			Object result = invoker.invoke(args);
+			if (invoker.isStreaming()) {
+				return new ServerStream(request, invoker, connection, frameCodec, compression, executor).start(result);
+			}
+			if (invoker.isAsync() && result instanceof CompletionStage<?> stage) {
+				return stage.handle((value, e) -> e == null ? success(call, value) : error(request, ResponseCode.INTERNAL_ERROR, unwrap(e).getMessage()));
+			}
+			return CompletableFuture.completedFuture(success(call, result));
+		} catch (Throwable e) {
+			return CompletableFuture.completedFuture(error(request, ResponseCode.INTERNAL_ERROR, e.getMessage()));
+		}
+	}
+
+	/**
+	 * 响应完成后立即写出，不等待同一连接上先到达的请求，已被取消的请求不写出响应
+	 * @param executed 是否执行了服务方法，没有执行的请求释放并发许可时不记录耗时
+	 */
+	private void reply(ServerConnection connection, Call call, CompletionStage<Rpc.RpcResponse> response, boolean executed) {
+		response.thenAccept(resp -> {
+			long latency = System.nanoTime() - call.startNanos();
+			if (call.limiter() != null) {
+				if (executed) {
+					call.limiter().release(latency);
 				} else {
-					// 参数反序列化
-					Class<?>[] paramTypes = method.getParameterTypes();
-					Object[] args = new Object[request.getParamsCount()];
-					for (int i = 0; i < args.length; i++) {
-						byte[] raw = request.getParams(i).toByteArray();
-						args[i] = objectMapper.readValue(raw, paramTypes[i]);
-					}
-					Object result = method.invoke(obj, args);
-					if (result != null) {
-						byte[] out = objectMapper.writeValueAsBytes(result);
-						response.setCode(200).setData(ByteString.copyFrom(out));
-					} else {
-						response.setCode(200);
-					}
+					call.limiter().release();
 				}
 			}
-			socket.write(Buffer.buffer(response.build().toByteArray()));
-		} catch (Exception e) {
-			Rpc.RpcResponse errResp = Rpc.RpcResponse.newBuilder().setCode(500).setMsg(e.getMessage()).build();
-			socket.write(Buffer.buffer(errResp.toByteArray()));
+			if (call.cancelled() != null) {
+				connection.untrack(call.request().getRequestId());
+			}
+			boolean streaming = call.invoker().isStreaming();
+			if (call.isCancelled()) {
+				call.recorder().onComplete(latency, false, call.requestBytes(), 0);
+				if (!streaming) {
+					connection.discard();
+				}
+				return;
+			}
+			ByteBuf frame = encode(resp);
+			call.recorder().onComplete(latency, resp.getCode() == ResponseCode.SUCCESS,
+					call.requestBytes(), resp.getData().size());
+			if (streaming) {
+				// 流结束帧，流式调用不计入连接的并发数
+				connection.write(frame);
+			} else {
+				connection.complete(frame);
+			}
+		});
+	}
+
+	private Rpc.RpcResponse success(Call call, Object result) {
+		ByteString data = ByteString.EMPTY;
+		if (result != null) {
+			try {
+				data = call.invoker().encodeResult(result);
+			} catch (Exception e) {
+				return error(call.request(), ResponseCode.INTERNAL_ERROR, e.getMessage());
+			}
+		}
+		if (call.cache() != null) {
+			call.cache().put(call.cacheKey(), data, call.cacheGeneration());
 		}
+		return success(call.request(), data);
 	}
 
 	/**
-	 * 获取调用方法
-	 * @param obj 对象
-	 * @param methodName 方法名
-	 * @param paramCount 参数数量
-	 * @return 方法
+	 * 由序列化后的结果生成成功响应，按请求的accept_compression压缩
 	 */
-	private Method getInvokeMethod(Object obj, String methodName, int paramCount) {
-		for (Method method : obj.getClass().getMethods()) {
-			if (method.getName().equals(methodName) && method.getParameterCount() == paramCount) {
-				return method;
+	private Rpc.RpcResponse success(Rpc.RpcRequest request, ByteString data) {
+		Rpc.RpcResponse.Builder response = Rpc.RpcResponse.newBuilder().setRequestId(request.getRequestId()).setCode(ResponseCode.SUCCESS)
+				.setAcceptCompression(compression.acceptId());
+		if (!data.isEmpty()) {
+			try {
+				compression.compressData(response, request, data);
+			} catch (Exception e) {
+				return error(request, ResponseCode.INTERNAL_ERROR, e.getMessage());
 			}
 		}
-		return null;
+		return response.build();
+	}
+
+	/**
+	 * 由解压后的请求参数生成响应缓存key，参数无法解压时返回null，按不缓存处理
+	 */
+	private ByteString cacheKey(Rpc.RpcRequest request) {
+		try {
+			return ResultCache.key(compression.decompressParams(request).getParamsList());
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	private Rpc.RpcResponse error(Rpc.RpcRequest request, int code, String msg) {
+		return Rpc.RpcResponse.newBuilder().setRequestId(request.getRequestId()).setCode(code).setMsg(String.valueOf(msg))
+				.setAcceptCompression(compression.acceptId()).build();
+	}
+
+	/**
+	 * 按方法统计的压缩数据
+	 */
+	public CompressionStats getCompressionStats() {
+		return compression.getStats();
+	}
+
+	private CallRecorder recorder(String interfaceName, MethodInvoker invoker) {
+		CallRecorder recorder = recorders.get(invoker);
+		return recorder != null ? recorder : recorders.computeIfAbsent(invoker, i -> metricsRecorder.recorder(Side.PROVIDER,
+				interfaceName, i.getMethod().getName(), address));
+	}
+
+	private ConcurrencyLimiter limiter(String interfaceName) {
+		if (provider.getConcurrencyLimit() != RpcProperties.ConcurrencyLimitScope.SERVICE) {
+			return globalLimiter;
+		}
+		ConcurrencyLimiter limiter = serviceLimiters.get(interfaceName);
+		return limiter != null ? limiter : serviceLimiters.computeIfAbsent(interfaceName, k -> new ConcurrencyLimiter(provider));
+	}
+
+	private Rpc.RpcResponse deadlineExceeded(Rpc.RpcRequest request) {
+		return error(request, ResponseCode.DEADLINE_EXCEEDED, "Deadline exceeded");
+	}
+
+	private static Throwable unwrap(Throwable e) {
+		return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+	}
+
+	/**
+	 * 编码响应，响应过大时返回错误
+	 */
+	private ByteBuf encode(Rpc.RpcResponse response) {
+		try {
+			return frameCodec.encode(response);
+		} catch (Exception e) {
+			return frameCodec.encode(Rpc.RpcResponse.newBuilder()
+					.setRequestId(response.getRequestId()).setCode(ResponseCode.INTERNAL_ERROR).setMsg(String.valueOf(e.getMessage())).build());
+		}
+	}
+
+	/**
+	 * 请求参数字节数
+	 */
+	private static long requestBytes(Rpc.RpcRequest request) {
+		long bytes = 0;
+		for (int i = 0; i < request.getParamsCount(); i++) {
+			bytes += request.getParams(i).size();
+		}
+		return bytes;
+	}
+
+	/**
+	 * 一次调用的上下文
+	 * @param limiter 已获取许可的并发限制，未开启时为null
+	 * @param cancelled 取消标记，请求不可取消时为null
+	 * @param cache 响应缓存，不缓存时为null
+	 * @param cacheKey 响应缓存key
+	 * @param cacheGeneration 查询缓存前的失效代数
+	 * @param startNanos 收到请求的时间，超时时间和处理耗时都从此时开始计算
+	 */
+	private record Call(Rpc.RpcRequest request, MethodInvoker invoker, CallRecorder recorder,
+			ConcurrencyLimiter limiter, AtomicBoolean cancelled, ResultCache cache, ByteString cacheKey,
+			long cacheGeneration, long startNanos) {
+
+		boolean isCancelled() {
+			return cancelled != null && cancelled.get();
+		}
+
+		/**
+		 * 请求是否已超过调用方发送时剩余的超时时间
+		 */
+		boolean isExpired() {
+			return request.getTimeout() > 0
+					&& System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(request.getTimeout());
+		}
+
+		/**
+		 * 请求参数字节数
+		 */
+		long requestBytes() {
+			return RpcServer.requestBytes(request);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+		vertx.close();
+	}
+
+	private static ExecutorService createExecutor(RpcProperties.Provider provider) {
+		switch (provider.getExecutionMode()) {
+			case EVENT_LOOP:
+				return null;
+			case VIRTUAL_THREAD:
+				if (VirtualThreads.isSupported()) {
+					return VirtualThreads.newVirtualThreadPerTaskExecutor();
+				}
+				log.warn("Virtual threads are not supported by this JVM, fall back to worker pool");
+				return createWorkerPool(provider);
+			default:
+				return createWorkerPool(provider);
+		}
+	}
+
+	private static ExecutorService createWorkerPool(RpcProperties.Provider provider) {
+		return new ThreadPoolExecutor(provider.getWorkerThreads(), provider.getWorkerThreads(), 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(provider.getWorkerQueueSize()), new ThreadFactory() {
+			final AtomicInteger threadCount = new AtomicInteger(1);
+			@Override
+			public Thread newThread(@NonNull Runnable r) {
+				Thread thread = new Thread(r, "rpc-provider-worker-" + threadCount.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
 	}
 }
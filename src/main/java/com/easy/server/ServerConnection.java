@@ -0,0 +1,184 @@
+package com.easy.server;
+
+import com.easy.transport.FrameCodec;
+import com.easy.transport.FrameWriter;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.Context;
+import io.vertx.core.net.NetSocket;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务端连接，同一连接上的请求并发执行，响应按完成顺序写出
+ * 正在执行的请求数达到上限时暂停读取，低于上限后恢复
+ * 流式调用不计入正在执行的请求数，否则等待额度的流会占满上限，暂停读取后额度帧无法到达
+ */
+final class ServerConnection {
+
+	private final NetSocket socket;
+	private final Context context;
+	private final FrameWriter frameWriter;
+	private final int maxInFlight;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	/**
+	 * 可取消的请求: requestId -> 取消标记，只跟踪调用方标记为可取消的请求
+	 */
+	private final Map<Long, AtomicBoolean> cancellable = new ConcurrentHashMap<>();
+	/**
+	 * 进行中的流式调用: requestId -> 流
+	 */
+	private final Map<Long, ServerStream> streams = new ConcurrentHashMap<>();
+	private FrameCodec.Decoder decoder;
+	/**
+	 * 是否已暂停读取，仅在连接所属的上下文中修改
+	 */
+	private volatile boolean paused;
+
+	ServerConnection(NetSocket socket, Context context, FrameWriter frameWriter, int maxInFlight) {
+		this.socket = socket;
+		this.context = context;
+		this.frameWriter = frameWriter;
+		this.maxInFlight = maxInFlight;
+	}
+
+	void setDecoder(FrameCodec.Decoder decoder) {
+		this.decoder = decoder;
+	}
+
+	NetSocket socket() {
+		return socket;
+	}
+
+	/**
+	 * 请求开始执行，在连接所属的上下文中调用
+	 */
+	void onRequestStart() {
+		if (inFlight.incrementAndGet() >= maxInFlight && !paused) {
+			paused = true;
+			decoder.pause();
+			socket.pause();
+		}
+	}
+
+	/**
+	 * 写出响应并结束请求，可在任意线程调用
+	 * @param frame 响应帧
+	 */
+	void complete(ByteBuf frame) {
+		frameWriter.write(frame);
+		release();
+	}
+
+	/**
+	 * 结束请求但不写出响应，用于已被调用方取消的请求，可在任意线程调用
+	 */
+	void discard() {
+		release();
+	}
+
+	/**
+	 * 开始跟踪可取消的请求
+	 * @param requestId 请求id
+	 * @return 取消标记
+	 */
+	AtomicBoolean track(long requestId) {
+		AtomicBoolean cancelled = new AtomicBoolean();
+		cancellable.put(requestId, cancelled);
+		return cancelled;
+	}
+
+	/**
+	 * 停止跟踪请求，请求结束时调用
+	 * @param requestId 请求id
+	 */
+	void untrack(long requestId) {
+		cancellable.remove(requestId);
+	}
+
+	/**
+	 * 取消请求，尚未执行的请求不再执行，已执行完的请求不再写出响应
+	 * @param requestId 请求id
+	 */
+	void cancel(long requestId) {
+		AtomicBoolean cancelled = cancellable.remove(requestId);
+		if (cancelled != null) {
+			cancelled.set(true);
+		}
+		ServerStream stream = streams.remove(requestId);
+		if (stream != null) {
+			stream.cancel();
+		}
+	}
+
+	/**
+	 * 登记流式调用，之后该请求的额度帧和取消帧转交给流
+	 * @param requestId 请求id
+	 * @param stream 流
+	 */
+	void openStream(long requestId, ServerStream stream) {
+		streams.put(requestId, stream);
+	}
+
+	/**
+	 * 流结束时移除登记
+	 * @param requestId 请求id
+	 */
+	void closeStream(long requestId) {
+		streams.remove(requestId);
+	}
+
+	/**
+	 * 为流式调用追加额度，在连接所属的上下文中调用
+	 * @param requestId 请求id
+	 * @param credits 追加的额度
+	 */
+	void credit(long requestId, int credits) {
+		ServerStream stream = streams.get(requestId);
+		if (stream != null) {
+			stream.credit(credits);
+		}
+	}
+
+	/**
+	 * 收到无法解析的帧时关闭连接，同一批数据中的后续帧不再处理
+	 * 多路复用的连接无法确定出错帧属于哪个请求，只能关闭连接让调用方的所有请求失败
+	 */
+	void close() {
+		decoder.stop();
+		socket.close();
+	}
+
+	/**
+	 * 连接关闭，取消所有进行中的流，不再生产元素
+	 */
+	void onClose() {
+		for (Long requestId : streams.keySet()) {
+			cancel(requestId);
+		}
+	}
+
+	private void release() {
+		if (inFlight.decrementAndGet() < maxInFlight && paused) {
+			context.runOnContext(v -> resume());
+		}
+	}
+
+	/**
+	 * 写出不计入并发数的响应
+	 * @param frame 响应帧
+	 */
+	void write(ByteBuf frame) {
+		frameWriter.write(frame);
+	}
+
+	private void resume() {
+		if (paused && inFlight.get() < maxInFlight) {
+			paused = false;
+			socket.resume();
+			decoder.resume();
+		}
+	}
+}
@@ -0,0 +1,378 @@
+package com.easy.server;
+
+import com.easy.codec.Compression;
+import com.easy.transport.FrameCodec;
+import com.easy.transport.ResponseCode;
+import com.google.protobuf.ByteString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rpc.Rpc;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 流式方法的一次调用，把方法返回的元素逐个作为流元素帧写出
+ * 基于额度的流量控制: 每写出一个元素消耗一个额度，额度用完后暂停读取元素，收到调用方的额度帧后继续，
+ * 未被调用方消费的元素不超过其接收窗口，内存占用与结果总量无关
+ * Stream和Iterator在执行器中拉取元素(未配置执行器时在事件循环线程)，同一时刻只有一个线程拉取；
+ * Flow.Publisher的请求数即为额度
+ */
+final class ServerStream {
+
+	private static final Logger log = LoggerFactory.getLogger(ServerStream.class);
+
+	private final Rpc.RpcRequest request;
+	private final MethodInvoker invoker;
+	private final ServerConnection connection;
+	private final FrameCodec frameCodec;
+	private final Compression compression;
+	/**
+	 * 拉取元素的执行器，为null时在调用线程拉取
+	 */
+	private final Executor executor;
+	/**
+	 * 流结束时的响应，不会异常完成
+	 */
+	private final CompletableFuture<Rpc.RpcResponse> result = new CompletableFuture<>();
+	/**
+	 * 剩余额度
+	 */
+	private final AtomicLong credits;
+	/**
+	 * 累计获得的额度，包括初始额度
+	 */
+	private final AtomicLong granted;
+	private volatile boolean cancelled;
+	private volatile Source source;
+
+	ServerStream(Rpc.RpcRequest request, MethodInvoker invoker, ServerConnection connection, FrameCodec frameCodec,
+			Compression compression, Executor executor) {
+		this.request = request;
+		this.invoker = invoker;
+		this.connection = connection;
+		this.frameCodec = frameCodec;
+		this.compression = compression;
+		this.executor = executor;
+		this.credits = new AtomicLong(Math.max(0, request.getCredits()));
+		this.granted = new AtomicLong(credits.get());
+	}
+
+	/**
+	 * 开始发送方法返回的元素
+	 * @param value 方法的返回值，为null时按空流处理
+	 * @return 流结束时的响应
+	 */
+	CompletableFuture<Rpc.RpcResponse> start(Object value) {
+		connection.openStream(request.getRequestId(), this);
+		Source created;
+		if (value instanceof Flow.Publisher<?> publisher) {
+			created = new PublisherSource(publisher);
+		} else if (value instanceof Stream<?> stream) {
+			created = new IteratorSource(stream.iterator(), stream);
+		} else if (value instanceof Iterator<?> iterator) {
+			// 同时实现AutoCloseable的Iterator在结束或取消时关闭
+			created = new IteratorSource(iterator, iterator instanceof AutoCloseable closeable ? closeable : null);
+		} else {
+			created = new IteratorSource(Collections.emptyIterator(), null);
+		}
+		source = created;
+		created.start();
+		if (cancelled) {
+			// 调用方在source创建前已取消
+			created.cancel();
+		}
+		return result;
+	}
+
+	/**
+	 * 收到调用方的额度帧，在连接所属的上下文中调用
+	 * @param added 追加的额度
+	 */
+	void credit(int added) {
+		if (added <= 0) {
+			return;
+		}
+		credits.addAndGet(added);
+		granted.addAndGet(added);
+		Source current = source;
+		if (current != null) {
+			current.credit(added);
+		}
+	}
+
+	/**
+	 * 调用方取消或连接关闭，停止发送元素
+	 */
+	void cancel() {
+		cancelled = true;
+		Source current = source;
+		if (current != null) {
+			current.cancel();
+		}
+	}
+
+	/**
+	 * 写出一个流元素
+	 * @return 是否写出成功，序列化失败时流以错误结束
+	 */
+	private boolean send(Object element) {
+		ByteString data;
+		try {
+			data = element != null ? invoker.encodeResult(element) : ByteString.EMPTY;
+		} catch (Exception e) {
+			finish(ResponseCode.INTERNAL_ERROR, "Failed to encode stream element: " + e.getMessage());
+			return false;
+		}
+		Rpc.RpcResponse.Builder response = Rpc.RpcResponse.newBuilder().setRequestId(request.getRequestId())
+				.setCode(ResponseCode.SUCCESS).setStreamElement(true).setAcceptCompression(compression.acceptId());
+		if (!data.isEmpty()) {
+			compression.compressData(response, request, data);
+		}
+		try {
+			connection.write(frameCodec.encode(response.build()));
+		} catch (Exception e) {
+			finish(ResponseCode.INTERNAL_ERROR, e.getMessage());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * 结束流，只有第一次调用生效
+	 */
+	private void finish(int code, String msg) {
+		if (result.isDone()) {
+			return;
+		}
+		connection.closeStream(request.getRequestId());
+		Rpc.RpcResponse.Builder response = Rpc.RpcResponse.newBuilder().setRequestId(request.getRequestId()).setCode(code)
+				.setAcceptCompression(compression.acceptId());
+		if (msg != null) {
+			response.setMsg(msg);
+		}
+		result.complete(response.build());
+	}
+
+	private void fail(Throwable e) {
+		finish(ResponseCode.INTERNAL_ERROR, String.valueOf(e.getMessage()));
+	}
+
+	/**
+	 * 元素来源
+	 */
+	private interface Source {
+
+		void start();
+
+		void credit(int added);
+
+		void cancel();
+	}
+
+	/**
+	 * 拉取Stream或Iterator的元素，有额度时由单个任务连续拉取，额度用完或结束时退出
+	 */
+	private final class IteratorSource implements Source {
+
+		private final Iterator<?> iterator;
+		/**
+		 * 结束时需要关闭的Stream或Iterator，为null时不需要关闭
+		 */
+		private final AutoCloseable closeable;
+		/**
+		 * 待处理的拉取信号数，不为0时已有任务在拉取
+		 */
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private IteratorSource(Iterator<?> iterator, AutoCloseable closeable) {
+			this.iterator = iterator;
+			this.closeable = closeable;
+		}
+
+		@Override
+		public void start() {
+			schedule();
+		}
+
+		@Override
+		public void credit(int added) {
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			schedule();
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+			if (executor == null) {
+				drain();
+				return;
+			}
+			try {
+				executor.execute(this::drain);
+			} catch (Exception e) {
+				wip.set(0);
+				finish(ResponseCode.OVERLOADED, "Provider overloaded");
+				close();
+			}
+		}
+
+		private void drain() {
+			int missed = 1;
+			do {
+				pull();
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void pull() {
+			try {
+				while (!result.isDone()) {
+					if (cancelled) {
+						finish(ResponseCode.CANCELLED, "Cancelled");
+						break;
+					}
+					if (credits.get() <= 0) {
+						return;
+					}
+					if (!iterator.hasNext()) {
+						finish(ResponseCode.SUCCESS, null);
+						break;
+					}
+					credits.decrementAndGet();
+					if (!send(iterator.next())) {
+						break;
+					}
+				}
+			} catch (Throwable e) {
+				fail(e);
+			}
+			close();
+		}
+
+		private void close() {
+			if (closeable != null) {
+				try {
+					closeable.close();
+				} catch (Exception e) {
+					log.warn("Failed to close stream of {}", invoker.getMethod(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 订阅Flow.Publisher，累计获得的额度即为累计请求数
+	 */
+	private final class PublisherSource implements Source, Flow.Subscriber<Object> {
+
+		private final Flow.Publisher<?> publisher;
+		private Flow.Subscription subscription;
+		/**
+		 * 累计向Publisher请求的元素数
+		 */
+		private long requested;
+
+		private PublisherSource(Flow.Publisher<?> publisher) {
+			this.publisher = publisher;
+		}
+
+		@Override
+		public void start() {
+			publisher.subscribe(this);
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			synchronized (this) {
+				if (this.subscription != null) {
+					subscription.cancel();
+					return;
+				}
+				this.subscription = subscription;
+			}
+			if (cancelled || result.isDone()) {
+				subscription.cancel();
+				return;
+			}
+			request();
+		}
+
+		@Override
+		public void onNext(Object item) {
+			if (result.isDone()) {
+				return;
+			}
+			if (cancelled) {
+				cancel();
+				return;
+			}
+			if (!send(item)) {
+				cancelSubscription();
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			fail(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			finish(ResponseCode.SUCCESS, null);
+		}
+
+		@Override
+		public void credit(int added) {
+			request();
+		}
+
+		/**
+		 * 按尚未请求的额度向Publisher请求元素，订阅建立前获得的额度在订阅时一并请求
+		 * 只在锁内计算请求数，同步发送元素的Publisher会在request中回调onNext，不能持有锁调用
+		 */
+		private void request() {
+			Flow.Subscription current;
+			long n;
+			synchronized (this) {
+				current = subscription;
+				if (current == null) {
+					return;
+				}
+				n = granted.get() - requested;
+				if (n <= 0) {
+					return;
+				}
+				requested += n;
+			}
+			current.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			finish(ResponseCode.CANCELLED, "Cancelled");
+			cancelSubscription();
+		}
+
+		private void cancelSubscription() {
+			Flow.Subscription current;
+			synchronized (this) {
+				current = subscription;
+			}
+			if (current != null) {
+				current.cancel();
+			}
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package com.easy.transport;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * 长度前缀帧编解码: [4字节帧长度][protobuf消息]
+ * 解码时在收到的数据块上直接拆分粘包，只有跨数据块的半包需要拼装
+ */
+public class FrameCodec {
+
+	/**
+	 * 帧长度字段字节数
+	 */
+	public static final int LENGTH_FIELD_SIZE = 4;
+
+	private final int maxFrameSize;
+
+	public FrameCodec(int maxFrameSize) {
+		this.maxFrameSize = maxFrameSize;
+	}
+
+	/**
+	 * 编码消息为一帧，消息直接序列化到池化的直接内存中，不经过中间字节数组
+	 * 返回的帧由调用方负责写出(写出后由Netty释放)或释放
+	 * @param message protobuf消息
+	 * @return 帧数据
+	 */
+	public ByteBuf encode(MessageLite message) {
+		int size = message.getSerializedSize();
+		checkFrameSize(size);
+		ByteBuf frame = PooledByteBufAllocator.DEFAULT.directBuffer(LENGTH_FIELD_SIZE + size);
+		try {
+			frame.writeInt(size);
+			CodedOutputStream output = CodedOutputStream.newInstance(frame.nioBuffer(LENGTH_FIELD_SIZE, size));
+			message.writeTo(output);
+			output.checkNoSpaceLeft();
+			frame.writerIndex(LENGTH_FIELD_SIZE + size);
+			return frame;
+		} catch (IOException | RuntimeException e) {
+			frame.release();
+			throw new IllegalStateException("Failed to encode frame", e);
+		}
+	}
+
+	/**
+	 * 在帧数据上直接创建protobuf输入流，解析出的bytes字段引用帧数据而不复制
+	 * 解码器输出的帧是收到的数据块的切片，数据块不会再被修改，可以安全引用；
+	 * 引用期间整个数据块不会被回收，需要长期保存的字段应先复制(如结果缓存)
+	 * Vert.x 4.x只有已弃用的getByteBuf可以不复制地访问底层数据(替代的BufferInternal在5.x才提供)，
+	 * 该方法返回共享数据的切片，升级到5.x时改为BufferInternal
+	 * @param frame 解码器输出的一帧
+	 * @return 输入流
+	 */
+	@SuppressWarnings("deprecation")
+	public static CodedInputStream input(Buffer frame) {
+		CodedInputStream input = CodedInputStream.newInstance(frame.getByteBuf().nioBuffer());
+		input.enableAliasing(true);
+		return input;
+	}
+
+	/**
+	 * 创建解码器，每个连接独享一个
+	 * @param frameHandler 完整帧(不含长度前缀)处理器
+	 * @param errorHandler 帧长度非法时回调，之后不再处理该连接的数据
+	 * @return 接收socket数据的处理器
+	 */
+	public Decoder decoder(Handler<Buffer> frameHandler, Handler<Throwable> errorHandler) {
+		return new Decoder(frameHandler, errorHandler);
+	}
+
+	private void checkFrameSize(int size) {
+		if (size < 0 || size > maxFrameSize) {
+			throw new FrameTooLargeException(size, maxFrameSize);
+		}
+	}
+
+	/**
+	 * 帧解码器，需在socket所属的上下文中调用
+	 * 整帧都在一个数据块内时直接切片输出，不复制；跨数据块的帧拼装时复制一次
+	 * 解码器持有收到的数据块，调用方之后不能再修改；Vert.x为每次读取的数据单独分配内存，可以直接交给解码器
+	 */
+	public final class Decoder implements Handler<Buffer> {
+
+		private final Handler<Buffer> frameHandler;
+		private final Handler<Throwable> errorHandler;
+		/**
+		 * 尚未处理完的数据块，暂停期间可能有多个
+		 */
+		private final ArrayDeque<Buffer> chunks = new ArrayDeque<>();
+		/**
+		 * 队首数据块中已处理的字节数
+		 */
+		private int offset;
+		/**
+		 * 跨数据块拼装中的帧(含长度字段)，没有时为null
+		 */
+		private Buffer partial;
+		/**
+		 * 拼装中的帧的总长度(含长度字段)，长度字段尚未读完时为-1
+		 */
+		private int partialSize = -1;
+		private boolean paused;
+		private boolean failed;
+		/**
+		 * 是否正在输出帧，帧处理器中暂停后又恢复时不重入
+		 */
+		private boolean draining;
+
+		private Decoder(Handler<Buffer> frameHandler, Handler<Throwable> errorHandler) {
+			this.frameHandler = frameHandler;
+			this.errorHandler = errorHandler;
+		}
+
+		@Override
+		public void handle(Buffer buffer) {
+			if (failed || buffer.length() == 0) {
+				return;
+			}
+			chunks.add(buffer);
+			drain();
+		}
+
+		/**
+		 * 暂停输出帧，之后收到的数据先缓存，需同时暂停socket读取以限制缓存大小
+		 */
+		public void pause() {
+			paused = true;
+		}
+
+		/**
+		 * 恢复输出帧，先输出暂停期间缓存的完整帧
+		 */
+		public void resume() {
+			paused = false;
+			drain();
+		}
+
+		/**
+		 * 停止输出帧，之后的数据全部丢弃，用于帧内容无法解析时关闭连接
+		 */
+		public void stop() {
+			failed = true;
+			chunks.clear();
+			partial = null;
+		}
+
+		private void drain() {
+			if (draining) {
+				return;
+			}
+			draining = true;
+			try {
+				Buffer chunk;
+				while (!paused && !failed && (chunk = chunks.peek()) != null) {
+					if (offset == chunk.length()) {
+						chunks.poll();
+						offset = 0;
+					} else if (partial != null) {
+						fill(chunk);
+					} else {
+						next(chunk);
+					}
+				}
+			} finally {
+				draining = false;
+			}
+		}
+
+		/**
+		 * 从数据块中读取下一帧，整帧都在数据块内时直接切片，否则开始拼装
+		 */
+		private void next(Buffer chunk) {
+			int available = chunk.length() - offset;
+			if (available >= LENGTH_FIELD_SIZE) {
+				int length = chunk.getInt(offset);
+				if (!checkLength(length)) {
+					return;
+				}
+				int size = LENGTH_FIELD_SIZE + length;
+				if (available >= size) {
+					Buffer frame = chunk.slice(offset + LENGTH_FIELD_SIZE, offset + size);
+					offset += size;
+					frameHandler.handle(frame);
+					return;
+				}
+				partialSize = size;
+				partial = Buffer.buffer(size);
+			} else {
+				partialSize = -1;
+				partial = Buffer.buffer();
+			}
+			partial.appendBuffer(chunk, offset, available);
+			offset = chunk.length();
+		}
+
+		/**
+		 * 向拼装中的帧追加数据，拼装完成后输出
+		 */
+		private void fill(Buffer chunk) {
+			if (partialSize < 0) {
+				int n = Math.min(LENGTH_FIELD_SIZE - partial.length(), chunk.length() - offset);
+				partial.appendBuffer(chunk, offset, n);
+				offset += n;
+				if (partial.length() < LENGTH_FIELD_SIZE) {
+					return;
+				}
+				int length = partial.getInt(0);
+				if (!checkLength(length)) {
+					return;
+				}
+				partialSize = LENGTH_FIELD_SIZE + length;
+			}
+			int n = Math.min(partialSize - partial.length(), chunk.length() - offset);
+			partial.appendBuffer(chunk, offset, n);
+			offset += n;
+			if (partial.length() == partialSize) {
+				Buffer frame = partial.slice(LENGTH_FIELD_SIZE, partialSize);
+				partial = null;
+				partialSize = -1;
+				frameHandler.handle(frame);
+			}
+		}
+
+		/**
+		 * 检查帧长度，非法时停止解码并回调errorHandler
+		 */
+		private boolean checkLength(int length) {
+			try {
+				checkFrameSize(length);
+				return true;
+			} catch (FrameTooLargeException e) {
+				stop();
+				errorHandler.handle(e);
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,11 @@
+package com.easy.transport;
+
+/**
+ * 帧长度超过限制
+ */
+public class FrameTooLargeException extends RuntimeException {
+
+	public FrameTooLargeException(int size, int maxFrameSize) {
+		super("Frame size " + size + " exceeds limit " + maxFrameSize);
+	}
+}
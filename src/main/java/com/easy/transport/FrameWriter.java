@@ -0,0 +1,127 @@
+package com.easy.transport;
+
+import com.easy.config.RpcProperties;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.impl.NetSocketInternal;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 帧写出器，可在任意线程调用，最终在socket所属的上下文写出
+ * 帧以ByteBuf直接交给Netty写出，写完后由Netty释放
+ * 开启合并写时，同一事件循环周期内(或在延迟阈值内)产生的帧合并为一次写入，
+ * 待写字节数达到阈值时立即写出
+ * 依赖Vert.x内部API NetSocketInternal.writeMessage直接写出ByteBuf，socket不是NetSocketInternal时
+ * (被包装或Vert.x实现变化)退回公开的write(Buffer)，写完后释放帧
+ */
+public class FrameWriter {
+
+	private final NetSocket socket;
+	/**
+	 * socket的内部接口，不可用时为null
+	 */
+	private final NetSocketInternal internal;
+	private final Context context;
+	private final boolean batching;
+	private final int maxBatchBytes;
+	private final long maxBatchDelayMillis;
+	private final WriteBatchStats stats;
+
+	private final Queue<ByteBuf> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pendingBytes = new AtomicInteger();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	/**
+	 * @param socket socket连接
+	 * @param context socket所属的上下文
+	 * @param transport 传输层配置
+	 * @param stats 合并写统计
+	 */
+	public FrameWriter(NetSocket socket, Context context, RpcProperties.Transport transport, WriteBatchStats stats) {
+		this.socket = socket;
+		this.internal = socket instanceof NetSocketInternal netSocketInternal ? netSocketInternal : null;
+		this.context = context;
+		this.batching = transport.isWriteBatching();
+		this.maxBatchBytes = transport.getWriteBatchMaxBytes();
+		this.maxBatchDelayMillis = transport.getWriteBatchMaxDelayMillis();
+		this.stats = stats;
+	}
+
+	/**
+	 * 写出一帧，帧的所有权转移给写出器
+	 * @param frame 帧数据
+	 */
+	public void write(ByteBuf frame) {
+		if (!batching) {
+			if (Vertx.currentContext() == context) {
+				send(frame);
+			} else {
+				context.runOnContext(v -> send(frame));
+			}
+			return;
+		}
+		queue.add(frame);
+		int bytes = pendingBytes.addAndGet(frame.readableBytes());
+		if (bytes >= maxBatchBytes && Vertx.currentContext() == context) {
+			flush();
+			return;
+		}
+		if (scheduled.compareAndSet(false, true)) {
+			if (bytes >= maxBatchBytes || maxBatchDelayMillis <= 0) {
+				// 当前事件循环任务结束后写出
+				context.runOnContext(v -> flush());
+			} else {
+				context.runOnContext(v -> context.owner().setTimer(maxBatchDelayMillis, id -> flush()));
+			}
+		}
+	}
+
+	/**
+	 * 将队列中的帧合并为一个CompositeByteBuf写出，不复制帧数据
+	 */
+	private void flush() {
+		scheduled.set(false);
+		int count = queue.size();
+		if (count == 0) {
+			return;
+		}
+		ByteBuf[] bufs = new ByteBuf[count];
+		int frames = 0;
+		long bytes = 0;
+		ByteBuf frame;
+		while (frames < count && (frame = queue.poll()) != null) {
+			bufs[frames++] = frame;
+			bytes += frame.readableBytes();
+		}
+		pendingBytes.addAndGet((int) -bytes);
+		if (frames == 1) {
+			send(bufs[0]);
+		} else {
+			// CompositeByteBuf释放时一并释放各帧
+			send(Unpooled.wrappedBuffer(frames, bufs));
+		}
+		stats.record(frames, bytes);
+	}
+
+	/**
+	 * 优先交给NetSocketInternal直接写出ByteBuf，否则包装为Buffer写出；
+	 * Vert.x 4.x中Buffer.buffer(ByteBuf)已废弃且无替代，升级到5.x时改为BufferInternal
+	 */
+	@SuppressWarnings("deprecation")
+	private void send(ByteBuf frame) {
+		if (internal != null) {
+			internal.writeMessage(frame);
+			return;
+		}
+		// write(Buffer)不会释放包装的ByteBuf，写完后自行释放
+		socket.write(Buffer.buffer(frame)).onComplete(ar -> frame.release());
+	}
+}
@@ -0,0 +1,48 @@
+package com.easy.transport;
+
+/**
+ * RpcResponse.code取值
+ */
+public final class ResponseCode {
+
+	public static final int SUCCESS = 200;
+	/**
+	 * 请求无法解析
+	 */
+	public static final int BAD_REQUEST = 400;
+	/**
+	 * 接口或方法未导出
+	 */
+	public static final int NOT_FOUND = 404;
+	/**
+	 * 超过提供者的自适应并发限制，请求未执行，可在其他实例重试
+	 */
+	public static final int LIMIT_EXCEEDED = 429;
+	/**
+	 * 调用方已取消请求，该响应不会写出
+	 */
+	public static final int CANCELLED = 499;
+	/**
+	 * 服务方法抛出异常或结果无法序列化
+	 */
+	public static final int INTERNAL_ERROR = 500;
+	/**
+	 * 执行队列已满，请求未执行，可在其他实例重试
+	 */
+	public static final int OVERLOADED = 503;
+	/**
+	 * 请求到达或开始执行时已超过调用方的截止时间
+	 */
+	public static final int DEADLINE_EXCEEDED = 504;
+
+	private ResponseCode() {
+	}
+
+	/**
+	 * 提供者是否因过载拒绝了请求，此时请求未执行，可安全地在其他实例重试
+	 * @param code 响应码
+	 */
+	public static boolean isRejected(int code) {
+		return code == LIMIT_EXCEEDED || code == OVERLOADED;
+	}
+}
@@ -0,0 +1,58 @@
+package com.easy.transport;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合并写统计
+ */
+public class WriteBatchStats {
+
+	private final LongAdder flushes = new LongAdder();
+	private final LongAdder frames = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+	private final LongAccumulator maxBatchFrames = new LongAccumulator(Math::max, 0);
+
+	void record(int batchFrames, long batchBytes) {
+		flushes.increment();
+		frames.add(batchFrames);
+		bytes.add(batchBytes);
+		maxBatchFrames.accumulate(batchFrames);
+	}
+
+	/**
+	 * 实际写入socket的次数
+	 */
+	public long getFlushes() {
+		return flushes.sum();
+	}
+
+	/**
+	 * 写入的帧数
+	 */
+	public long getFrames() {
+		return frames.sum();
+	}
+
+	/**
+	 * 写入的字节数
+	 */
+	public long getBytes() {
+		return bytes.sum();
+	}
+
+	/**
+	 * 单次写入的最大帧数
+	 */
+	public long getMaxBatchFrames() {
+		return maxBatchFrames.get();
+	}
+
+	/**
+	 * 平均每次写入的帧数
+	 */
+	public double getAverageBatchFrames() {
+		long flushCount = flushes.sum();
+		return flushCount == 0 ? 0 : (double) frames.sum() / flushCount;
+	}
+}
@@ -0,0 +1,50 @@
+package com.easy.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程支持，项目以Java 17编译，运行在Java 21及以上时通过方法句柄使用虚拟线程
+ */
+public final class VirtualThreads {
+
+	private static final MethodHandle NEW_VIRTUAL_EXECUTOR = findNewVirtualExecutor();
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * 当前JVM是否支持虚拟线程
+	 */
+	public static boolean isSupported() {
+		return NEW_VIRTUAL_EXECUTOR != null;
+	}
+
+	/**
+	 * 创建每个任务一个虚拟线程的执行器
+	 * @return 执行器
+	 * @throws UnsupportedOperationException 当前JVM不支持虚拟线程
+	 */
+	public static ExecutorService newVirtualThreadPerTaskExecutor() {
+		if (NEW_VIRTUAL_EXECUTOR == null) {
+			throw new UnsupportedOperationException("Virtual threads require Java 21+");
+		}
+		try {
+			return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invokeExact();
+		} catch (Throwable e) {
+			throw new IllegalStateException("Cannot create virtual thread executor", e);
+		}
+	}
+
+	private static MethodHandle findNewVirtualExecutor() {
+		try {
+			return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+					MethodType.methodType(ExecutorService.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		}
+	}
+}
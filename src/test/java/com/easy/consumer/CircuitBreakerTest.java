@@ -0,0 +1,206 @@
+package com.easy.consumer;
+
+import com.easy.config.RpcProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final List<String> transitions = new ArrayList<>();
+	private final CircuitBreakerListener listener = (breaker, from, to) -> transitions.add(from + "->" + to);
+
+	@Test
+	void staysClosedBelowMinimumCalls() {
+		CircuitBreaker breaker = new CircuitBreaker("a:1", config(), listener);
+		for (int i = 0; i < 9; i++) {
+			breaker.onComplete(breaker.tryAcquire(), FAST, true);
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertEquals(-1, breaker.getFailureRate());
+	}
+
+	@Test
+	void opensOnFailureRate() {
+		CircuitBreaker breaker = new CircuitBreaker("a:1", config(), listener);
+		for (int i = 0; i < 5; i++) {
+			breaker.onComplete(breaker.tryAcquire(), FAST, false);
+		}
+		for (int i = 0; i < 5; i++) {
+			breaker.onComplete(breaker.tryAcquire(), FAST, true);
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.isCallPermitted());
+		assertEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquire());
+		assertEquals(List.of("CLOSED->OPEN"), transitions);
+	}
+
+	@Test
+	void opensOnSlowCallRate() {
+		CircuitBreaker breaker = new CircuitBreaker("a:1", config(), listener);
+		long slow = TimeUnit.MILLISECONDS.toNanos(200);
+		for (int i = 0; i < 10; i++) {
+			breaker.onComplete(breaker.tryAcquire(), slow, false);
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void slidingWindowForgetsOldFailures() {
+		CircuitBreaker breaker = new CircuitBreaker("a:1", config(), listener);
+		for (int i = 0; i < 4; i++) {
+			breaker.onComplete(breaker.tryAcquire(), FAST, true);
+		}
+		// 窗口大小为20，之后的成功调用把失败率压到阈值以下并逐步挤出旧结果
+		for (int i = 0; i < 40; i++) {
+			breaker.onComplete(breaker.tryAcquire(), FAST, false);
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertEquals(0, breaker.getFailureRate());
+	}
+
+	@Test
+	void halfOpenClosesAfterSuccessfulProbes() throws InterruptedException {
+		CircuitBreaker breaker = open(new CircuitBreaker("a:1", config(), listener));
+		Thread.sleep(60);
+		assertTrue(breaker.isCallPermitted());
+
+		int[] permits = new int[3];
+		for (int i = 0; i < 3; i++) {
+			permits[i] = breaker.tryAcquire();
+			assertNotEquals(CircuitBreaker.NOT_PERMITTED, permits[i]);
+		}
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		// 探测许可用完后拒绝其他调用
+		assertEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquire());
+		assertFalse(breaker.isCallPermitted());
+
+		for (int permit : permits) {
+			breaker.onComplete(permit, FAST, false);
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+	}
+
+	@Test
+	void halfOpenReopensAfterFailedProbes() throws InterruptedException {
+		CircuitBreaker breaker = open(new CircuitBreaker("a:1", config(), listener));
+		Thread.sleep(60);
+		for (int i = 0; i < 3; i++) {
+			breaker.onComplete(breaker.tryAcquire(), FAST, i > 0);
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN"), transitions);
+	}
+
+	@Test
+	void cancelledProbeReturnsPermit() throws InterruptedException {
+		CircuitBreaker breaker = open(new CircuitBreaker("a:1", config(), listener));
+		Thread.sleep(60);
+		int first = breaker.tryAcquire();
+		breaker.tryAcquire();
+		breaker.tryAcquire();
+		assertEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquire());
+
+		breaker.onCancel(first);
+		assertNotEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquire());
+	}
+
+	@Test
+	void resultsFromPreviousPhaseAreIgnored() throws InterruptedException {
+		CircuitBreaker breaker = new CircuitBreaker("a:1", config(), listener);
+		int stale = breaker.tryAcquire();
+		open(breaker);
+		Thread.sleep(60);
+		breaker.tryAcquire();
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+		// 关闭状态发出的调用在半开状态才返回失败，不计入探测结果
+		for (int i = 0; i < 3; i++) {
+			breaker.onComplete(stale, FAST, true);
+		}
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+	}
+
+	@Test
+	void registryKeysByAddressAndEvictsDepartedInstances() {
+		CircuitBreakerRegistry registry = new CircuitBreakerRegistry(config());
+		List<CircuitBreaker> removed = new ArrayList<>();
+		registry.addListener(new CircuitBreakerListener() {
+			@Override
+			public void onRemoved(CircuitBreaker breaker) {
+				removed.add(breaker);
+			}
+
+			@Override
+			public void onStateTransition(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to) {
+			}
+		});
+		RpcProperties.ServiceInstance a = instance("a", Map.of("zone", "1"));
+		RpcProperties.ServiceInstance b = instance("b", Map.of());
+		List<RpcProperties.ServiceInstance> both = List.of(a, b);
+		assertSame(both, registry.filter(both));
+		CircuitBreaker breakerA = registry.get(a);
+
+		// 元数据变化后重新注册仍是同一个熔断器
+		RpcProperties.ServiceInstance reRegistered = instance("a", Map.of("zone", "2"));
+		registry.filter(List.of(reRegistered, b));
+		assertSame(breakerA, registry.get(reRegistered));
+		registry.retain(Set.of("a:1", "b:1"));
+		assertTrue(removed.isEmpty());
+
+		// b下线后移除其熔断器
+		registry.retain(Set.of("a:1"));
+		assertEquals(List.of("b:1"), removed.stream().map(CircuitBreaker::getInstance).toList());
+		assertEquals(List.of("a:1"), registry.getCircuitBreakers().stream().map(CircuitBreaker::getInstance).toList());
+	}
+
+	@Test
+	void registryFiltersOpenInstances() {
+		CircuitBreakerRegistry registry = new CircuitBreakerRegistry(config());
+		RpcProperties.ServiceInstance a = instance("a", Map.of());
+		RpcProperties.ServiceInstance b = instance("b", Map.of());
+		List<RpcProperties.ServiceInstance> both = List.of(a, b);
+		registry.filter(both);
+		open(registry.get(a));
+
+		assertEquals(List.of(b), registry.filter(both));
+	}
+
+	private static CircuitBreaker open(CircuitBreaker breaker) {
+		for (int i = 0; i < 10; i++) {
+			breaker.onComplete(breaker.tryAcquire(), FAST, true);
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		return breaker;
+	}
+
+	private static RpcProperties.CircuitBreaker config() {
+		RpcProperties.CircuitBreaker config = new RpcProperties.CircuitBreaker();
+		config.setEnabled(true);
+		config.setWindowSize(20);
+		config.setMinimumCalls(10);
+		config.setFailureRateThreshold(50);
+		config.setSlowCallRateThreshold(80);
+		config.setSlowCallDurationMillis(100);
+		config.setOpenDurationMillis(50);
+		config.setHalfOpenCalls(3);
+		return config;
+	}
+
+	private static RpcProperties.ServiceInstance instance(String host, Map<String, String> metadata) {
+		RpcProperties.ServiceInstance instance = new RpcProperties.ServiceInstance();
+		instance.setHost(host);
+		instance.setPort(1);
+		instance.setMetadata(metadata);
+		return instance;
+	}
+}
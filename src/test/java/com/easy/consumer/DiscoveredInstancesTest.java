@@ -0,0 +1,40 @@
+package com.easy.consumer;
+
+import com.easy.config.RpcProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscoveredInstancesTest {
+
+	@Test
+	void unchangedListReportsNothing() {
+		DiscoveredInstances discovered = new DiscoveredInstances();
+		List<RpcProperties.ServiceInstance> instances = List.of(instance("a"), instance("b"));
+		assertEquals(Set.of("a:1", "b:1"), discovered.update("Echo", instances));
+		assertNull(discovered.update("Echo", instances));
+	}
+
+	@Test
+	void addressesCoverAllInterfaces() {
+		DiscoveredInstances discovered = new DiscoveredInstances();
+		discovered.update("Echo", List.of(instance("a"), instance("b")));
+		discovered.update("Other", List.of(instance("a")));
+
+		// b从Echo下线，a仍被Other使用
+		assertEquals(Set.of("a:1"), discovered.update("Echo", List.of(instance("a"))));
+		// 实例全部下线
+		assertEquals(Set.of("a:1"), discovered.update("Echo", List.of()));
+		assertEquals(Set.of(), discovered.update("Other", List.of()));
+	}
+
+	private static RpcProperties.ServiceInstance instance(String host) {
+		RpcProperties.ServiceInstance instance = new RpcProperties.ServiceInstance();
+		instance.setHost(host);
+		instance.setPort(1);
+		return instance;
+	}
+}
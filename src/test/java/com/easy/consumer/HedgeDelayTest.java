@@ -0,0 +1,67 @@
+package com.easy.consumer;
+
+import com.easy.config.RpcProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgeDelayTest {
+
+	@Test
+	void fixedDelay() {
+		RpcProperties.Hedging hedging = new RpcProperties.Hedging();
+		hedging.setDelayMillis(25);
+		HedgeDelay delay = new HedgeDelay(hedging);
+		delay.record(TimeUnit.SECONDS.toNanos(1));
+
+		assertEquals(25, delay.delayMillis());
+	}
+
+	@Test
+	void noHedgingUntilEnoughSamples() throws InterruptedException {
+		HedgeDelay delay = new HedgeDelay(percentile(0.95));
+		assertEquals(-1, delay.delayMillis());
+
+		Thread.sleep(1100);
+		for (int i = 0; i < 50; i++) {
+			delay.record(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+		assertEquals(-1, delay.delayMillis());
+	}
+
+	@Test
+	void delayFollowsLatencyPercentile() throws InterruptedException {
+		HedgeDelay delay = new HedgeDelay(percentile(0.9));
+		for (int i = 0; i < 900; i++) {
+			delay.record(TimeUnit.MILLISECONDS.toNanos(2));
+		}
+		for (int i = 0; i < 100; i++) {
+			delay.record(TimeUnit.MILLISECONDS.toNanos(50));
+		}
+		// 分位数每秒重新计算一次
+		Thread.sleep(1100);
+		delay.record(TimeUnit.MILLISECONDS.toNanos(2));
+		long p90 = delay.delayMillis();
+		assertTrue(p90 >= 2 && p90 <= 3, "delay " + p90);
+	}
+
+	@Test
+	void delayIsAtLeastOneMillisecond() throws InterruptedException {
+		HedgeDelay delay = new HedgeDelay(percentile(0.95));
+		for (int i = 0; i < 200; i++) {
+			delay.record(TimeUnit.MICROSECONDS.toNanos(100));
+		}
+		Thread.sleep(1100);
+		delay.record(TimeUnit.MICROSECONDS.toNanos(100));
+
+		assertEquals(1, delay.delayMillis());
+	}
+
+	private static RpcProperties.Hedging percentile(double percentile) {
+		RpcProperties.Hedging hedging = new RpcProperties.Hedging();
+		hedging.setPercentile(percentile);
+		return hedging;
+	}
+}
@@ -0,0 +1,90 @@
+package com.easy.consumer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestBudgetTest {
+
+	@Test
+	void emptyBudgetRejects() {
+		assertFalse(new RequestBudget(10).tryWithdraw());
+	}
+
+	@Test
+	void depositsAccumulateByPercent() {
+		RequestBudget budget = new RequestBudget(10);
+		for (int i = 0; i < 9; i++) {
+			budget.deposit();
+		}
+		assertFalse(budget.tryWithdraw());
+
+		budget.deposit();
+		assertTrue(budget.tryWithdraw());
+		assertFalse(budget.tryWithdraw());
+	}
+
+	@Test
+	void fractionalPercent() {
+		RequestBudget budget = new RequestBudget(2.5);
+		for (int i = 0; i < 40; i++) {
+			budget.deposit();
+		}
+		assertTrue(budget.tryWithdraw());
+		assertFalse(budget.tryWithdraw());
+	}
+
+	@Test
+	void balanceIsCapped() {
+		RequestBudget budget = new RequestBudget(50);
+		for (int i = 0; i < 1000; i++) {
+			budget.deposit();
+		}
+		// 空闲后最多突发10个额外请求
+		assertEquals(10, withdrawAll(budget));
+	}
+
+	@Test
+	void zeroPercentNeverAllows() {
+		RequestBudget budget = new RequestBudget(0);
+		for (int i = 0; i < 1000; i++) {
+			budget.deposit();
+		}
+		assertFalse(budget.tryWithdraw());
+	}
+
+	@Test
+	void concurrentCallsStayWithinBudget() throws InterruptedException {
+		RequestBudget budget = new RequestBudget(10);
+		AtomicInteger extra = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int t = 0; t < 8; t++) {
+			executor.execute(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					budget.deposit();
+					if (budget.tryWithdraw()) {
+						extra.incrementAndGet();
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertTrue(extra.get() <= 8_000, "extra requests " + extra.get());
+		assertTrue(extra.get() >= 7_000, "extra requests " + extra.get());
+	}
+
+	private static int withdrawAll(RequestBudget budget) {
+		int count = 0;
+		while (budget.tryWithdraw()) {
+			count++;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,394 @@
+package com.easy.consumer;
+
+import com.easy.codec.MethodCodec;
+import com.easy.codec.PayloadCodecs;
+import com.easy.config.RpcProperties;
+import com.easy.registry.MemoryRegistry;
+import com.easy.server.DispatchTable;
+import com.easy.server.RpcServer;
+import com.easy.transport.ResponseCode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式调用的端到端测试，提供者和消费者通过本机回环连接
+ */
+class RpcStreamTest {
+
+	private static final int WINDOW = 16;
+
+	private static final AtomicInteger produced = new AtomicInteger();
+	private static final AtomicBoolean closed = new AtomicBoolean();
+	private static final CountDownLatch stalled = new CountDownLatch(1);
+
+	private static RpcServer server;
+	private static RpcClient client;
+
+	public record Row(int id, String name) {
+	}
+
+	public interface Rows {
+
+		Stream<Row> rows(int n);
+
+		Flow.Publisher<Row> publish(int n);
+
+		Stream<Row> broken(int n);
+
+		Stream<Row> stall();
+
+		Iterator<Row> iterate(int n);
+	}
+
+	/**
+	 * 关闭时关闭底层Stream的迭代器，提供者结束或取消流时关闭
+	 */
+	static final class ClosingIterator implements Iterator<Row>, AutoCloseable {
+
+		private final Stream<Row> rows;
+		private final Iterator<Row> iterator;
+
+		ClosingIterator(Stream<Row> rows) {
+			this.rows = rows;
+			this.iterator = rows.iterator();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return iterator.hasNext();
+		}
+
+		@Override
+		public Row next() {
+			return iterator.next();
+		}
+
+		@Override
+		public void close() {
+			rows.close();
+		}
+	}
+
+	public static class RowsImpl implements Rows {
+
+		@Override
+		public Stream<Row> rows(int n) {
+			return IntStream.range(0, n).peek(i -> produced.incrementAndGet()).mapToObj(i -> new Row(i, "r" + i))
+					.onClose(() -> closed.set(true));
+		}
+
+		@Override
+		public Flow.Publisher<Row> publish(int n) {
+			return subscriber -> {
+				SubmissionPublisher<Row> publisher = new SubmissionPublisher<>(ForkJoinPool.commonPool(), 4);
+				publisher.subscribe(subscriber);
+				Thread producer = new Thread(() -> {
+					for (int i = 0; i < n; i++) {
+						publisher.submit(new Row(i, "p" + i));
+					}
+					publisher.close();
+				});
+				producer.setDaemon(true);
+				producer.start();
+			};
+		}
+
+		@Override
+		public Stream<Row> broken(int n) {
+			return IntStream.range(0, n).mapToObj(i -> {
+				if (i == 5) {
+					throw new IllegalStateException("bad row");
+				}
+				return new Row(i, "b" + i);
+			});
+		}
+
+		@Override
+		public Stream<Row> stall() {
+			return Stream.generate(() -> {
+				try {
+					stalled.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return new Row(0, "late");
+			});
+		}
+
+		@Override
+		public Iterator<Row> iterate(int n) {
+			return new ClosingIterator(rows(n));
+		}
+	}
+
+	@BeforeAll
+	static void start() throws Exception {
+		RpcProperties properties = new RpcProperties();
+		RpcProperties.Registry registry = new RpcProperties.Registry();
+		registry.setType("memory");
+		properties.setRegistry(registry);
+		properties.getProvider().setExecutionMode(RpcProperties.ExecutionMode.WORKER);
+		properties.getConsumer().setStreamWindow(WINDOW);
+		int port = freePort();
+		server = new RpcServer(properties, DispatchTable.build(Map.of(Rows.class.getName(), new RowsImpl()),
+				PayloadCodecs.createObjectMapper(properties.getCodec())));
+		server.start("127.0.0.1", port);
+		awaitListening(port);
+		RpcProperties.ServiceInstance instance = new RpcProperties.ServiceInstance();
+		instance.setHost("127.0.0.1");
+		instance.setPort(port);
+		new MemoryRegistry().register(instance, Rows.class.getName());
+		client = new RpcClient(properties);
+	}
+
+	@AfterAll
+	static void stop() {
+		stalled.countDown();
+		client.close();
+		server.close();
+	}
+
+	@Test
+	void providerStaysWithinCreditWindow() throws Exception {
+		produced.set(0);
+		int consumed = 0;
+		int maxAhead = 0;
+		try (Stream<Row> rows = this.<Row>call("rows", 200).stream()) {
+			for (Iterator<Row> it = rows.iterator(); it.hasNext(); ) {
+				assertEquals(consumed, it.next().id());
+				consumed++;
+				if (consumed % 20 == 0) {
+					// 慢消费者，提供者应停在额度处等待
+					Thread.sleep(20);
+				}
+				maxAhead = Math.max(maxAhead, produced.get() - consumed);
+			}
+		}
+		assertEquals(200, consumed);
+		assertTrue(maxAhead <= WINDOW, "provider ran " + maxAhead + " elements ahead");
+	}
+
+	@Test
+	void closingStreamCancelsProvider() throws Exception {
+		produced.set(0);
+		closed.set(false);
+		try (Stream<Row> rows = this.<Row>call("rows", 1_000_000).stream()) {
+			assertEquals("r0,r1,r2,r3,r4,r5,r6,r7,r8,r9", rows.limit(10).map(Row::name).collect(Collectors.joining(",")));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!closed.get() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(closed.get(), "provider stream not closed");
+		assertTrue(produced.get() <= 10 + WINDOW, "produced " + produced.get());
+	}
+
+	@Test
+	void publisherToSubscriberInOrder() throws Exception {
+		CompletableFuture<Integer> done = new CompletableFuture<>();
+		AtomicInteger received = new AtomicInteger();
+		this.<Row>call("publish", 2000).subscribe(new Flow.Subscriber<>() {
+
+			private Flow.Subscription subscription;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(Row item) {
+				if (item.id() != received.getAndIncrement()) {
+					done.completeExceptionally(new AssertionError("out of order: " + item));
+				}
+				subscription.request(1);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				done.completeExceptionally(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				done.complete(received.get());
+			}
+		});
+		assertEquals(2000, done.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void providerErrorEndsStream() {
+		RpcStream<Row> stream = call("broken", 10);
+		RuntimeException e = assertThrows(RuntimeException.class, () -> stream.stream().forEach(row -> {
+		}));
+		RpcException cause = assertInstanceOf(RpcException.class, e.getCause());
+		assertTrue(cause.getMessage().contains("bad row"), cause.getMessage());
+		assertTrue(stream.completion().isCompletedExceptionally());
+	}
+
+	@Test
+	void subscriptionCancelCompletesStream() throws Exception {
+		RpcStream<Row> stream = call("rows", 1_000_000);
+		CountDownLatch first = new CountDownLatch(1);
+		stream.subscribe(new Flow.Subscriber<>() {
+
+			private Flow.Subscription subscription;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(Row item) {
+				subscription.cancel();
+				first.countDown();
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+		assertTrue(first.await(5, TimeUnit.SECONDS));
+		CompletableFuture<Void> completion = stream.completion();
+		assertThrows(CancellationException.class, () -> completion.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void nonPositiveRequestSignalsErrorOnce() throws Exception {
+		AtomicInteger terminals = new AtomicInteger();
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		CountDownLatch signalled = new CountDownLatch(1);
+		this.<Row>call("rows", 5).subscribe(new Flow.Subscriber<>() {
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				subscription.request(0);
+			}
+
+			@Override
+			public void onNext(Row item) {
+				fail("unexpected element");
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				error.set(throwable);
+				terminals.incrementAndGet();
+				signalled.countDown();
+			}
+
+			@Override
+			public void onComplete() {
+				terminals.incrementAndGet();
+			}
+		});
+		assertTrue(signalled.await(5, TimeUnit.SECONDS));
+		Thread.sleep(200);
+		assertInstanceOf(IllegalArgumentException.class, error.get());
+		assertEquals(1, terminals.get());
+	}
+
+	@Test
+	void blockingReadTimesOutWhenProviderStalls() throws Exception {
+		RpcStream<Row> stream = client.callStream(Rows.class.getName(), Rows.class.getMethod("stall"), new Object[0],
+				CallOptions.timeout(300));
+		long start = System.nanoTime();
+		RuntimeException e = assertThrows(RuntimeException.class, () -> stream.stream().findFirst());
+		// 提供者执行器繁忙时请求可能在排队中过期，此时由提供者返回超时错误
+		assertTrue(e.getCause() instanceof TimeoutException
+				|| e.getCause() instanceof RpcException rpc && rpc.getCode() == ResponseCode.DEADLINE_EXCEEDED, String.valueOf(e.getCause()));
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+		assertTrue(stream.completion().isCompletedExceptionally());
+	}
+
+	@Test
+	void iteratorIsAStreamingReturnType() throws Exception {
+		assertTrue(MethodCodec.isStreaming(Rows.class.getMethod("iterate", int.class)));
+		assertTrue(MethodCodec.isStreaming(Rows.class.getMethod("publish", int.class)));
+
+		@SuppressWarnings("unchecked")
+		Iterator<Row> rows = (Iterator<Row>) call("iterate", 3).as(Iterator.class);
+		assertEquals(0, rows.next().id());
+		assertEquals(1, rows.next().id());
+		assertEquals(2, rows.next().id());
+		assertFalse(rows.hasNext());
+	}
+
+	@Test
+	void closingIteratorCancelsProvider() throws Exception {
+		produced.set(0);
+		closed.set(false);
+		@SuppressWarnings("unchecked")
+		Iterator<Row> rows = (Iterator<Row>) call("iterate", 1_000_000).as(Iterator.class);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, rows.next().id());
+		}
+		// 代理返回的Iterator实现了AutoCloseable，未读完就放弃时关闭它
+		((AutoCloseable) rows).close();
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!closed.get() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(closed.get(), "provider iterator not closed");
+		assertTrue(produced.get() <= 10 + WINDOW, "produced " + produced.get());
+	}
+
+	private <T> RpcStream<T> call(String methodName, int n) {
+		try {
+			return client.callStream(Rows.class.getName(), Rows.class.getMethod(methodName, int.class), new Object[]{n},
+					CallOptions.DEFAULT);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static void awaitListening(int port) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (System.nanoTime() < deadline) {
+			try (Socket ignored = new Socket("127.0.0.1", port)) {
+				return;
+			} catch (IOException e) {
+				Thread.sleep(20);
+			}
+		}
+		throw new IllegalStateException("Server did not start on port " + port);
+	}
+}
@@ -0,0 +1,109 @@
+package com.easy.consumer;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+	private final SingleFlight singleFlight = new SingleFlight();
+
+	interface Lookup {
+
+		String get(String key);
+
+		String find(String key);
+	}
+
+	@Test
+	void concurrentIdenticalCallsShareResult() throws Exception {
+		SingleFlight.Flight leader = singleFlight.join("Lookup", method("get"), params("a"));
+		SingleFlight.Flight follower = singleFlight.join("Lookup", method("get"), params("a"));
+		assertTrue(leader.isLeader());
+		assertFalse(follower.isLeader());
+		assertFalse(follower.result().isDone());
+
+		leader.complete(ByteString.copyFromUtf8("value"));
+		assertEquals(ByteString.copyFromUtf8("value"), follower.result().get());
+	}
+
+	@Test
+	void differentParamsOrMethodsAreNotCoalesced() {
+		assertTrue(singleFlight.join("Lookup", method("get"), params("a")).isLeader());
+		assertTrue(singleFlight.join("Lookup", method("get"), params("b")).isLeader());
+		assertTrue(singleFlight.join("Lookup", method("find"), params("a")).isLeader());
+	}
+
+	@Test
+	void sameMethodThroughDifferentInterfacesIsNotCoalesced() {
+		// 继承自同一父接口的方法通过两个接口调用
+		assertTrue(singleFlight.join("FirstLookup", method("get"), params("a")).isLeader());
+		assertTrue(singleFlight.join("SecondLookup", method("get"), params("a")).isLeader());
+		assertFalse(singleFlight.join("FirstLookup", method("get"), params("a")).isLeader());
+
+		assertEquals(2, singleFlight.getStats().size());
+	}
+
+	@Test
+	void callsAfterCompletionSendAgain() {
+		SingleFlight.Flight first = singleFlight.join("Lookup", method("get"), params("a"));
+		first.complete(null);
+
+		SingleFlight.Flight second = singleFlight.join("Lookup", method("get"), params("a"));
+		assertTrue(second.isLeader());
+		assertNotSame(first.result(), second.result());
+	}
+
+	@Test
+	void failureIsSharedAndClearsFlight() {
+		SingleFlight.Flight leader = singleFlight.join("Lookup", method("get"), params("a"));
+		SingleFlight.Flight follower = singleFlight.join("Lookup", method("get"), params("a"));
+		RpcException cause = new RpcException(500, "boom");
+		leader.fail(cause);
+
+		CompletionException thrown = assertThrows(CompletionException.class, () -> follower.result().join());
+		assertSame(cause, thrown.getCause());
+		assertTrue(singleFlight.join("Lookup", method("get"), params("a")).isLeader());
+	}
+
+	@Test
+	void statsCountFlightsAndCoalescedCalls() {
+		List<SingleFlight.Stats> created = new ArrayList<>();
+		singleFlight.addListener(created::add);
+		SingleFlight.Flight leader = singleFlight.join("Lookup", method("get"), params("a"));
+		singleFlight.join("Lookup", method("get"), params("a"));
+		singleFlight.join("Lookup", method("get"), params("a"));
+		leader.complete(null);
+		singleFlight.join("Lookup", method("get"), params("a"));
+
+		assertEquals(1, created.size());
+		SingleFlight.Stats stats = created.get(0);
+		assertEquals("Lookup", stats.getInterfaceName());
+		assertEquals("get", stats.getMethodName());
+		assertEquals(2, stats.getFlights());
+		assertEquals(2, stats.getCoalesced());
+
+		// 注册时对已有方法立即回调
+		List<SingleFlight.Stats> replayed = new ArrayList<>();
+		singleFlight.addListener(replayed::add);
+		assertEquals(List.of(stats), replayed);
+	}
+
+	private static Method method(String name) {
+		try {
+			return Lookup.class.getMethod(name, String.class);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static ByteString params(String key) {
+		return ByteString.copyFromUtf8(key);
+	}
+}
@@ -0,0 +1,31 @@
+package com.easy.loadbalance;
+
+import com.easy.config.RpcProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstanceStatsRegistryTest {
+
+	@Test
+	void retainDropsDepartedInstances() {
+		InstanceStatsRegistry registry = new InstanceStatsRegistry();
+		InstanceStats a = registry.get(instance("a"));
+		InstanceStats b = registry.get(instance("b"));
+
+		registry.retain(Set.of("a:1"));
+
+		assertSame(a, registry.get(instance("a")));
+		// 下线后重新上线的实例从新的统计开始
+		assertNotSame(b, registry.get(instance("b")));
+	}
+
+	private static RpcProperties.ServiceInstance instance(String host) {
+		RpcProperties.ServiceInstance instance = new RpcProperties.ServiceInstance();
+		instance.setHost(host);
+		instance.setPort(1);
+		return instance;
+	}
+}
@@ -0,0 +1,30 @@
+package com.easy.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultMetricsRecorderTest {
+
+	@Test
+	void retainRemovesDepartedInstancesOfOneSide() {
+		DefaultMetricsRecorder recorder = new DefaultMetricsRecorder();
+		List<MetricKey> removed = new ArrayList<>();
+		recorder.addRemovalListener(metrics -> removed.add(metrics.getKey()));
+		recorder.recorder(Side.CONSUMER, "Echo", "echo", "a:1");
+		recorder.recorder(Side.CONSUMER, "Echo", "echo", "b:1");
+		recorder.recorder(Side.PROVIDER, "Echo", "echo", "b:1");
+
+		recorder.retain(Side.CONSUMER, Set.of("a:1"));
+
+		assertEquals(List.of(new MetricKey(Side.CONSUMER, "Echo", "echo", "b:1")), removed);
+		assertEquals(2, recorder.snapshot().size());
+		// 实例重新上线时重新创建
+		recorder.recorder(Side.CONSUMER, "Echo", "echo", "b:1");
+		assertEquals(3, recorder.snapshot().size());
+	}
+}
@@ -0,0 +1,104 @@
+package com.easy.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+	@Test
+	void smallValuesHaveExactBuckets() {
+		for (long value = 0; value < 16; value++) {
+			int index = LatencyHistogram.index(value);
+			assertEquals(value, index);
+			assertEquals(value, LatencyHistogram.upperBound(index));
+		}
+	}
+
+	@Test
+	void bucketsCoverValuesWithBoundedError() {
+		long[] samples = {16, 17, 31, 32, 33, 1000, 4095, 4096, 123_456_789L, 1L << 40, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+		for (long value : samples) {
+			int index = LatencyHistogram.index(value);
+			long upper = LatencyHistogram.upperBound(index);
+			long lower = LatencyHistogram.upperBound(index - 1) + 1;
+			assertTrue(lower <= value && value <= upper, "value " + value + " outside [" + lower + ", " + upper + "]");
+			// 每个2的幂区间分16个子桶，桶宽不超过下界的1/16
+			assertTrue(upper - lower + 1 <= Math.max(1, lower / 16), "bucket of " + value + " too wide");
+		}
+		assertTrue(LatencyHistogram.index(Long.MAX_VALUE) < (64 - 4) * 16);
+	}
+
+	@Test
+	void indexIsMonotonic() {
+		int previous = -1;
+		for (long value = 0; value < 100_000; value++) {
+			int index = LatencyHistogram.index(value);
+			assertTrue(index >= previous);
+			previous = index;
+		}
+	}
+
+	@Test
+	void percentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 1000; value++) {
+			histogram.record(value);
+		}
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+		assertEquals(1000, snapshot.getCount());
+		assertEquals(500_500, snapshot.getSum());
+		assertEquals(500.5, snapshot.getMean());
+		assertEquals(1000, snapshot.getMax());
+		assertWithin(500, snapshot.percentile(0.5));
+		assertWithin(900, snapshot.percentile(0.9));
+		assertWithin(990, snapshot.percentile(0.99));
+		// 分位数不超过最大值
+		assertEquals(1000, snapshot.percentile(1.0));
+		assertEquals(1, snapshot.percentile(0));
+	}
+
+	@Test
+	void emptyAndNegativeValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.snapshot().percentile(0.99));
+
+		histogram.record(-5);
+		assertEquals(1, histogram.getCount());
+		assertEquals(0, histogram.getSum());
+		assertEquals(0, histogram.snapshot().percentile(0.5));
+	}
+
+	@Test
+	void rollingHistogramForgetsOldValues() throws InterruptedException {
+		RollingLatencyHistogram histogram = new RollingLatencyHistogram(200_000_000L);
+		histogram.record(1_000_000);
+		assertEquals(1_000_000, histogram.snapshot().getMax());
+
+		// 轮换一次后旧值仍在上一周期内
+		Thread.sleep(250);
+		assertEquals(1, histogram.snapshot().getCount());
+		histogram.record(10);
+		LatencyHistogram.Snapshot rotated = histogram.snapshot();
+		assertEquals(2, rotated.getCount());
+		assertEquals(1_000_000, rotated.getMax());
+
+		// 再轮换一次后只剩最近的值
+		Thread.sleep(250);
+		LatencyHistogram.Snapshot recent = histogram.snapshot();
+		assertEquals(1, recent.getCount());
+		assertEquals(10, recent.percentile(0.99));
+
+		// 超过两个周期没有读取时全部丢弃
+		Thread.sleep(450);
+		assertEquals(0, histogram.snapshot().getCount());
+	}
+
+	/**
+	 * 分位数返回所在桶的上界，不小于真实值且误差不超过1/16
+	 */
+	private static void assertWithin(long expected, long actual) {
+		assertTrue(actual >= expected && actual <= expected + expected / 16, "expected ~" + expected + " but was " + actual);
+	}
+}
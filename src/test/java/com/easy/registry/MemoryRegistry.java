@@ -0,0 +1,49 @@
+package com.easy.registry;
+
+import com.easy.config.RpcProperties;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 进程内注册中心，供测试和基准测试在同一JVM中连接提供者和消费者，不依赖etcd
+ */
+public class MemoryRegistry implements Registry {
+
+	private static final Map<String, List<RpcProperties.ServiceInstance>> INSTANCES = new ConcurrentHashMap<>();
+
+	@Override
+	public void init(RpcProperties.Registry registry) {
+	}
+
+	@Override
+	public void register(RpcProperties.ServiceInstance instance, String interfaceName) {
+		INSTANCES.computeIfAbsent(interfaceName, k -> new CopyOnWriteArrayList<>()).add(instance);
+	}
+
+	@Override
+	public void deregister(String key) {
+		INSTANCES.remove(key);
+	}
+
+	@Override
+	public List<RpcProperties.ServiceInstance> discover(RpcProperties.ServiceInstance instance, String interfaceName) {
+		return INSTANCES.getOrDefault(interfaceName, List.of());
+	}
+
+	@Override
+	public void close() {
+	}
+
+	@Override
+	public String type() {
+		return "memory";
+	}
+
+	@Override
+	public String getServiceKey(RpcProperties.ServiceInstance instance, String interfaceName) {
+		return interfaceName;
+	}
+}
@@ -0,0 +1,103 @@
+package com.easy.server;
+
+import com.easy.config.RpcProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+	private static final long RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void rejectsBeyondLimit() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(provider(5));
+		for (int i = 0; i < 5; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+		assertFalse(limiter.tryAcquire());
+		assertEquals(5, limiter.getInFlight());
+
+		limiter.release(RTT);
+		assertTrue(limiter.tryAcquire());
+	}
+
+	@Test
+	void growsWhileLatencyIsStable() throws InterruptedException {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(provider(20));
+		for (int i = 0; i < 15; i++) {
+			saturatedWindow(limiter, RTT);
+		}
+		assertTrue(limiter.getLimit() > 20, "limit " + limiter.getLimit());
+		assertEquals(0, limiter.getInFlight());
+	}
+
+	@Test
+	void shrinksWhenLatencyRises() throws InterruptedException {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(provider(40));
+		for (int i = 0; i < 5; i++) {
+			saturatedWindow(limiter, RTT);
+		}
+		int before = limiter.getLimit();
+		// 耗时变为10倍，说明请求开始排队
+		for (int i = 0; i < 5; i++) {
+			saturatedWindow(limiter, 10 * RTT);
+		}
+		assertTrue(limiter.getLimit() < before, "limit " + limiter.getLimit() + " not below " + before);
+		assertTrue(limiter.getLimit() >= 4);
+	}
+
+	@Test
+	void idleWindowsDoNotChangeLimit() throws InterruptedException {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(provider(40));
+		// 并发远低于限制时耗时不能反映限制是否合适
+		for (int i = 0; i < 5; i++) {
+			window(limiter, 15, RTT);
+		}
+		assertEquals(40, limiter.getLimit());
+	}
+
+	@Test
+	void releaseWithoutSampleDoesNotAdjustLimit() throws InterruptedException {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(provider(20));
+		for (int i = 0; i < 5; i++) {
+			for (int j = 0; j < 20; j++) {
+				assertTrue(limiter.tryAcquire());
+			}
+			Thread.sleep(110);
+			for (int j = 0; j < 20; j++) {
+				limiter.release();
+			}
+		}
+		assertEquals(20, limiter.getLimit());
+		assertEquals(0, limiter.getInFlight());
+	}
+
+	/**
+	 * 占满当前限制，等待一个采样窗口后全部以相同耗时释放
+	 */
+	private static void saturatedWindow(ConcurrencyLimiter limiter, long rttNanos) throws InterruptedException {
+		window(limiter, limiter.getLimit(), rttNanos);
+	}
+
+	private static void window(ConcurrencyLimiter limiter, int concurrency, long rttNanos) throws InterruptedException {
+		int acquired = 0;
+		while (acquired < concurrency && limiter.tryAcquire()) {
+			acquired++;
+		}
+		Thread.sleep(110);
+		for (int i = 0; i < acquired; i++) {
+			limiter.release(rttNanos);
+		}
+	}
+
+	private static RpcProperties.Provider provider(int initialLimit) {
+		RpcProperties.Provider provider = new RpcProperties.Provider();
+		provider.setInitialConcurrencyLimit(initialLimit);
+		provider.setMinConcurrencyLimit(4);
+		provider.setMaxConcurrencyLimit(1000);
+		return provider;
+	}
+}
@@ -0,0 +1,63 @@
+package com.easy.server;
+
+import com.easy.annotation.CacheResponse;
+import com.easy.cache.ResultCache;
+import com.easy.codec.PayloadCodecs;
+import com.easy.config.RpcProperties;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCachesTest {
+
+	@Test
+	void inheritedMethodHasOneCachePerExportedInterface() throws Exception {
+		Service service = new Service();
+		DispatchTable dispatchTable = DispatchTable.build(Map.of(First.class.getName(), service, Second.class.getName(), service),
+				PayloadCodecs.createObjectMapper(new RpcProperties().getCodec()));
+		MethodInvoker first = dispatchTable.lookup(First.class.getName(), "find", 1);
+		MethodInvoker second = dispatchTable.lookup(Second.class.getName(), "find", 1);
+		// 两个接口继承同一个Method
+		assertEquals(first.getMethod(), second.getMethod());
+
+		ResponseCaches caches = new ResponseCaches();
+		ResultCache firstCache = caches.get(first);
+		ResultCache secondCache = caches.get(second);
+		assertNotSame(firstCache, secondCache);
+		assertEquals(First.class.getName() + "#find", firstCache.getName());
+		assertEquals(Second.class.getName() + "#find", secondCache.getName());
+
+		ByteString firstKey = ResultCache.key(List.of(first.encodeParam(0, "a")));
+		ByteString secondKey = ResultCache.key(List.of(second.encodeParam(0, "a")));
+		firstCache.put(firstKey, ByteString.copyFromUtf8("first"));
+		secondCache.put(secondKey, ByteString.copyFromUtf8("second"));
+
+		// 只失效通过First导出的缓存
+		caches.invalidate(First.class, "find", "a");
+		assertNull(firstCache.get(firstKey));
+		assertEquals(ByteString.copyFromUtf8("second"), secondCache.get(secondKey));
+	}
+
+	public interface Base {
+		@CacheResponse
+		String find(String key);
+	}
+
+	public interface First extends Base {
+	}
+
+	public interface Second extends Base {
+	}
+
+	static class Service implements First, Second {
+
+		@Override
+		public String find(String key) {
+			return key;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.easy.server;
+
+import com.easy.codec.MethodCodec;
+import com.easy.codec.PayloadCodecs;
+import com.easy.config.RpcProperties;
+import com.easy.transport.ResponseCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rpc.Rpc;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RpcServerTest {
+
+	private RpcServer server;
+	private int port;
+	private MethodCodec echoCodec;
+
+	@BeforeEach
+	void start() throws Exception {
+		RpcProperties properties = new RpcProperties();
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		ObjectMapper objectMapper = PayloadCodecs.createObjectMapper(properties.getCodec());
+		echoCodec = new MethodCodec(Echo.class.getMethod("echo", String.class), objectMapper);
+		server = new RpcServer(properties, DispatchTable.build(Map.of(Echo.class.getName(), (Echo) s -> s), objectMapper));
+		server.start("127.0.0.1", port);
+	}
+
+	@AfterEach
+	void stop() {
+		server.close();
+	}
+
+	@Test
+	void unparseableRequestClosesConnection() throws Exception {
+		try (Socket socket = connect()) {
+			socket.setSoTimeout(5000);
+			DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+			// 长度合法但内容不是protobuf消息的帧
+			output.writeInt(4);
+			output.write(new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff});
+			output.flush();
+
+			// 不返回没有请求id的错误响应，直接关闭连接
+			assertEquals(-1, socket.getInputStream().read());
+		}
+	}
+
+	@Test
+	void timeoutIsRelativeToReceiveTime() throws Exception {
+		try (Socket socket = connect()) {
+			socket.setSoTimeout(5000);
+			// 超时时间是发送时剩余的毫秒数，不是epoch截止时间，与双方时钟无关
+			Rpc.RpcResponse response = call(socket, Rpc.RpcRequest.newBuilder()
+					.setInterfaceName(Echo.class.getName())
+					.setMethodName("echo")
+					.addParams(echoCodec.encodeParam(0, "hi"))
+					.setRequestId(1)
+					.setTimeout(1000)
+					.build());
+
+			assertEquals(ResponseCode.SUCCESS, response.getCode());
+			assertEquals("hi", echoCodec.decodeResult(response.getData()));
+		}
+	}
+
+	private static Rpc.RpcResponse call(Socket socket, Rpc.RpcRequest request) throws IOException {
+		DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+		byte[] bytes = request.toByteArray();
+		output.writeInt(bytes.length);
+		output.write(bytes);
+		output.flush();
+		DataInputStream input = new DataInputStream(socket.getInputStream());
+		byte[] frame = new byte[input.readInt()];
+		input.readFully(frame);
+		return Rpc.RpcResponse.parseFrom(frame);
+	}
+
+	private Socket connect() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (true) {
+			try {
+				return new Socket("127.0.0.1", port);
+			} catch (IOException e) {
+				if (System.nanoTime() > deadline) {
+					throw new IllegalStateException("Server did not start on port " + port, e);
+				}
+				Thread.sleep(20);
+			}
+		}
+	}
+
+	public interface Echo {
+		String echo(String s);
+	}
+}
@@ -0,0 +1,168 @@
+package com.easy.transport;
+
+import com.google.protobuf.ByteString;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+import rpc.Rpc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameCodecTest {
+
+	private final FrameCodec codec = new FrameCodec(1024);
+
+	@Test
+	void roundTrip() throws Exception {
+		Rpc.RpcRequest request = request(1, 100);
+		List<Buffer> frames = new ArrayList<>();
+		codec.decoder(frames::add, e -> fail(e)).handle(toBuffer(codec.encode(request)));
+
+		assertEquals(1, frames.size());
+		assertEquals(request, Rpc.RpcRequest.parseFrom(FrameCodec.input(frames.get(0))));
+	}
+
+	@Test
+	void splitAndCoalescedFrames() throws Exception {
+		Rpc.RpcRequest first = request(1, 10);
+		Rpc.RpcRequest second = request(2, 300);
+		Buffer data = toBuffer(codec.encode(first)).appendBuffer(toBuffer(codec.encode(second)));
+		List<Buffer> frames = new ArrayList<>();
+		FrameCodec.Decoder decoder = codec.decoder(frames::add, e -> fail(e));
+		// 逐字节到达，两帧既有半包也有粘包
+		for (int i = 0; i < data.length(); i++) {
+			decoder.handle(data.getBuffer(i, i + 1));
+		}
+
+		assertEquals(2, frames.size());
+		assertEquals(first, Rpc.RpcRequest.parseFrom(FrameCodec.input(frames.get(0))));
+		assertEquals(second, Rpc.RpcRequest.parseFrom(FrameCodec.input(frames.get(1))));
+	}
+
+	@Test
+	void framesWithinChunkAreNotCopied() {
+		Buffer data = toBuffer(codec.encode(request(1, 10))).appendBuffer(toBuffer(codec.encode(request(2, 10))));
+		List<Buffer> frames = new ArrayList<>();
+		codec.decoder(frames::add, e -> fail(e)).handle(data);
+
+		// 帧是数据块的切片，修改数据块后帧内容随之变化
+		int second = FrameCodec.LENGTH_FIELD_SIZE + request(1, 10).getSerializedSize() + FrameCodec.LENGTH_FIELD_SIZE;
+		data.setByte(second, (byte) 0x7f);
+		assertEquals((byte) 0x7f, frames.get(1).getByte(0));
+	}
+
+	@Test
+	void pausedDecoderBuffersFrames() throws Exception {
+		Buffer data = Buffer.buffer();
+		for (int i = 1; i <= 3; i++) {
+			data.appendBuffer(toBuffer(codec.encode(request(i, 10))));
+		}
+		List<Long> ids = new ArrayList<>();
+		FrameCodec.Decoder[] decoder = new FrameCodec.Decoder[1];
+		decoder[0] = codec.decoder(frame -> {
+			try {
+				ids.add(Rpc.RpcRequest.parseFrom(FrameCodec.input(frame)).getRequestId());
+			} catch (Exception e) {
+				fail(e);
+			}
+			// 每输出一帧暂停一次，如同连接的并发数达到上限
+			decoder[0].pause();
+		}, e -> fail(e));
+		decoder[0].handle(data.getBuffer(0, 20));
+		decoder[0].handle(data.getBuffer(20, data.length()));
+		assertEquals(List.of(1L), ids);
+
+		decoder[0].resume();
+		assertEquals(List.of(1L, 2L), ids);
+		decoder[0].resume();
+		decoder[0].resume();
+		assertEquals(List.of(1L, 2L, 3L), ids);
+	}
+
+	@Test
+	void zeroLengthFrame() throws Exception {
+		// 所有字段为默认值的消息序列化后长度为0
+		Rpc.RpcResponse empty = Rpc.RpcResponse.getDefaultInstance();
+		Buffer data = toBuffer(codec.encode(empty)).appendBuffer(toBuffer(codec.encode(request(3, 5))));
+		assertEquals(FrameCodec.LENGTH_FIELD_SIZE + FrameCodec.LENGTH_FIELD_SIZE + request(3, 5).getSerializedSize(), data.length());
+		List<Buffer> frames = new ArrayList<>();
+		codec.decoder(frames::add, e -> fail(e)).handle(data);
+
+		assertEquals(2, frames.size());
+		assertEquals(0, frames.get(0).length());
+		assertEquals(empty, Rpc.RpcResponse.parseFrom(FrameCodec.input(frames.get(0))));
+		assertEquals(request(3, 5), Rpc.RpcRequest.parseFrom(FrameCodec.input(frames.get(1))));
+	}
+
+	@Test
+	void encodeRejectsOversizedMessage() {
+		assertThrows(FrameTooLargeException.class, () -> codec.encode(request(1, 2000)));
+	}
+
+	@Test
+	void decoderRejectsOversizedFrame() {
+		List<Buffer> frames = new ArrayList<>();
+		List<Throwable> errors = new ArrayList<>();
+		FrameCodec.Decoder decoder = codec.decoder(frames::add, errors::add);
+		decoder.handle(Buffer.buffer().appendInt(1025).appendBytes(new byte[1025]));
+		// 失败后不再处理后续数据
+		decoder.handle(toBuffer(codec.encode(request(1, 10))));
+
+		assertTrue(frames.isEmpty());
+		assertEquals(1, errors.size());
+		assertInstanceOf(FrameTooLargeException.class, errors.get(0));
+	}
+
+	@Test
+	void decoderRejectsNegativeLength() {
+		List<Throwable> errors = new ArrayList<>();
+		codec.decoder(frame -> fail("unexpected frame"), errors::add).handle(Buffer.buffer().appendInt(-1));
+
+		assertEquals(1, errors.size());
+	}
+
+	@Test
+	void stoppedDecoderDropsFollowingFrames() {
+		Buffer data = toBuffer(codec.encode(request(1, 10))).appendBuffer(toBuffer(codec.encode(request(2, 10))));
+		List<Buffer> frames = new ArrayList<>();
+		FrameCodec.Decoder[] decoder = new FrameCodec.Decoder[1];
+		// 第一帧无法解析时停止，同一批数据中的第二帧不再输出
+		decoder[0] = codec.decoder(frame -> {
+			frames.add(frame);
+			decoder[0].stop();
+		}, e -> fail(e));
+		decoder[0].handle(data);
+
+		assertEquals(1, frames.size());
+	}
+
+	@Test
+	void frameAtMaxSizeIsAccepted() throws Exception {
+		FrameCodec exact = new FrameCodec(request(1, 200).getSerializedSize());
+		List<Buffer> frames = new ArrayList<>();
+		exact.decoder(frames::add, e -> fail(e)).handle(toBuffer(exact.encode(request(1, 200))));
+
+		assertEquals(1, frames.size());
+	}
+
+	private static Rpc.RpcRequest request(long requestId, int paramSize) {
+		return Rpc.RpcRequest.newBuilder().setRequestId(requestId).setInterfaceName("com.example.Echo").setMethodName("echo")
+				.addParams(ByteString.copyFrom(new byte[paramSize])).build();
+	}
+
+	/**
+	 * 复制编码后的帧并释放池化内存
+	 */
+	private static Buffer toBuffer(ByteBuf frame) {
+		try {
+			byte[] bytes = new byte[frame.readableBytes()];
+			frame.getBytes(frame.readerIndex(), bytes);
+			return Buffer.buffer(bytes);
+		} finally {
+			frame.release();
+		}
+	}
+}